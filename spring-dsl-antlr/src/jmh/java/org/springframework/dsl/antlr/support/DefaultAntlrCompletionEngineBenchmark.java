@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dsl.Test2Grammar;
+import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.AntlrCompletionResult;
+import org.springframework.dsl.antlr.TestAntrlUtils;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.domain.Position;
+
+import ch.qos.logback.classic.LoggerContext;
+
+/**
+ * Benchmarks for {@link DefaultAntlrCompletionEngine} using a {@code Test2}
+ * test grammar. Completion is requested at the end of a document having a
+ * given number of states and transitions. {@link BaselineAntlrCompletionEngine}
+ * is measured with a same setup to compare against. Run with {@code ./gradlew
+ * :spring-dsl-antlr:jmh} and add {@code -prof gc} to jmh arguments to see
+ * allocation rates. Logging is set to {@code WARN} in a setup as debug logging
+ * of an engine would otherwise dominate results.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultAntlrCompletionEngineBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private Test2Grammar parser;
+	private Position position;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// not relying on a logback config file which may not win on a classpath
+		ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+		if (loggerFactory instanceof LoggerContext) {
+			((LoggerContext) loggerFactory).getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)
+					.setLevel(ch.qos.logback.classic.Level.WARN);
+		}
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			buf.append("state S").append(i).append(" {\n  initial\n}\n");
+			buf.append("transition T").append(i).append(" {\n  source S").append(i).append("\n  target S")
+					.append(i).append("\n}\n");
+		}
+		int lines = size * 9;
+		buf.append("state X {\n");
+		Test2Lexer lexer = TestAntrlUtils.TEST2_ANTRL_FACTORY.createLexer(CharStreams.fromString(buf.toString()));
+		parser = TestAntrlUtils.TEST2_ANTRL_FACTORY.createParser(new CommonTokenStream(lexer));
+		parser.removeErrorListeners();
+		parser.definitions();
+		position = new Position(lines + 1, 0);
+	}
+
+	@Benchmark
+	public AntlrCompletionResult collectResults() {
+		return new DefaultAntlrCompletionEngine(parser).collectResults(position, null);
+	}
+
+	@Benchmark
+	public AntlrCompletionResult collectResultsBaseline() {
+		return new BaselineAntlrCompletionEngine(parser).collectResults(position, null);
+	}
+}
@@ -35,4 +35,19 @@ public interface AntlrCompletionEngine {
 	 * @return the antlr completion result
 	 */
 	AntlrCompletionResult collectResults(Position position, ParserRuleContext context);
+
+	/**
+	 * Collect results from a given {@link Position} with a
+	 * {@link ParserRuleContext} within given {@link AntlrCompletionLimits}. Default
+	 * implementation ignores limits.
+	 *
+	 * @param position the position
+	 * @param context the parser rule context
+	 * @param limits the completion limits
+	 * @return the antlr completion result
+	 */
+	default AntlrCompletionResult collectResults(Position position, ParserRuleContext context,
+			AntlrCompletionLimits limits) {
+		return collectResults(position, context);
+	}
 }
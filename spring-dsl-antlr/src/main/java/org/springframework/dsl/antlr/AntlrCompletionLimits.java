@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * Limits for a single {@link AntlrCompletionEngine} run. When any of the limits
+ * is reached, collection stops and candidates found so far are returned with
+ * {@link AntlrCompletionResult#isPartial()} set.
+ * <p>
+ * Cancellation is cooperative, a given {@link BooleanSupplier} is polled
+ * during a walk and can be backed by i.e. an {@code AtomicBoolean} set from a
+ * {@code doOnCancel} hook of a request.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public final class AntlrCompletionLimits {
+
+	private static final AntlrCompletionLimits UNLIMITED = new AntlrCompletionLimits(Integer.MAX_VALUE, null, null);
+	private final int maxStates;
+	private final Duration timeout;
+	private final BooleanSupplier cancellation;
+
+	private AntlrCompletionLimits(int maxStates, Duration timeout, BooleanSupplier cancellation) {
+		this.maxStates = maxStates;
+		this.timeout = timeout;
+		this.cancellation = cancellation;
+	}
+
+	/**
+	 * Gets limits which never stop a collection.
+	 *
+	 * @return the unlimited limits
+	 */
+	public static AntlrCompletionLimits unlimited() {
+		return UNLIMITED;
+	}
+
+	/**
+	 * Return a copy of these limits with a maximum number of processed {@code ATN}
+	 * states.
+	 *
+	 * @param maxStates the max states
+	 * @return the new limits
+	 */
+	public AntlrCompletionLimits withMaxStates(int maxStates) {
+		Assert.isTrue(maxStates > 0, "Max states must be positive");
+		return new AntlrCompletionLimits(maxStates, timeout, cancellation);
+	}
+
+	/**
+	 * Return a copy of these limits with a time budget.
+	 *
+	 * @param timeout the timeout
+	 * @return the new limits
+	 */
+	public AntlrCompletionLimits withTimeout(Duration timeout) {
+		Assert.notNull(timeout, "Timeout must be set");
+		Assert.isTrue(!timeout.isNegative(), "Timeout cannot be negative");
+		return new AntlrCompletionLimits(maxStates, timeout, cancellation);
+	}
+
+	/**
+	 * Return a copy of these limits with a cancellation check.
+	 *
+	 * @param cancellation the cancellation check returning {@code true} when cancelled
+	 * @return the new limits
+	 */
+	public AntlrCompletionLimits withCancellation(BooleanSupplier cancellation) {
+		Assert.notNull(cancellation, "Cancellation must be set");
+		return new AntlrCompletionLimits(maxStates, timeout, cancellation);
+	}
+
+	/**
+	 * Gets the maximum number of processed states.
+	 *
+	 * @return the max states
+	 */
+	public int getMaxStates() {
+		return maxStates;
+	}
+
+	/**
+	 * Gets the time budget, {@code null} if there is no time budget.
+	 *
+	 * @return the timeout
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Checks if a collection has been cancelled.
+	 *
+	 * @return true, if cancelled
+	 */
+	public boolean isCancelled() {
+		return cancellation != null && cancellation.getAsBoolean();
+	}
+}
@@ -39,4 +39,15 @@ public interface AntlrCompletionResult {
 	 * @return the rules
 	 */
 	Map<Integer, List<Integer>> getRules();
+
+	/**
+	 * Checks if collection stopped early because some of the
+	 * {@link AntlrCompletionLimits} were reached, meaning results may not contain
+	 * all candidates.
+	 *
+	 * @return true, if results are partial
+	 */
+	default boolean isPartial() {
+		return false;
+	}
 }
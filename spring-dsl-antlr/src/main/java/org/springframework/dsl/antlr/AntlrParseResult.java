@@ -18,6 +18,7 @@ package org.springframework.dsl.antlr;
 import java.util.List;
 
 import org.springframework.dsl.domain.CompletionItem;
+import org.springframework.dsl.domain.FoldingRange;
 import org.springframework.dsl.domain.Hover;
 import org.springframework.dsl.domain.Position;
 import org.springframework.dsl.service.reconcile.ReconcileProblem;
@@ -87,6 +88,15 @@ public interface AntlrParseResult<T> {
 		return Mono.empty();
 	}
 
+	/**
+	 * Gets the folding ranges.
+	 *
+	 * @return the folding ranges
+	 */
+	default Flux<FoldingRange> getFoldingRanges() {
+		return Flux.empty();
+	}
+
 	/**
 	 * Gets the symbolize info.
 	 *
@@ -40,4 +40,17 @@ public interface AntlrParseService<T> {
 	 */
 	Mono<AntlrParseResult<T>> parse(Document document,
 			Function<Document, ? extends Mono<? extends AntlrParseResult<T>>> function);
+
+	/**
+	 * Get a lexer only {@link AntlrTokenIndex} of a {@link Document} using given
+	 * {@link Function} to build it. Default implementation doesn't cache an
+	 * index.
+	 *
+	 * @param document the document
+	 * @param function the function
+	 * @return the mono of a token index
+	 */
+	default Mono<AntlrTokenIndex> getTokenIndex(Document document, Function<Document, AntlrTokenIndex> function) {
+		return Mono.fromSupplier(() -> function.apply(document));
+	}
 }
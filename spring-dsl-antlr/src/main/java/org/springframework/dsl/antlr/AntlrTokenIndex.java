@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr;
+
+import java.util.Arrays;
+
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable index of tokens produced by a {@link Lexer} alone. Tokens are kept
+ * in a single {@code int} array as type, start offset, length and channel,
+ * ordered by start offset, which allows token level features like folding,
+ * bracket matching or coloring to work without a full parse and to find a
+ * token at an offset in {@code O(log n)}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public final class AntlrTokenIndex {
+
+	private static final int STRIDE = 4;
+	private static final int TYPE = 0;
+	private static final int START = 1;
+	private static final int LENGTH = 2;
+	private static final int CHANNEL = 3;
+	private final int[] data;
+	private final int size;
+
+	private AntlrTokenIndex(int[] data, int size) {
+		this.data = data;
+		this.size = size;
+	}
+
+	/**
+	 * Build a token index by reading all tokens from a given {@link Lexer}.
+	 * Trailing {@code EOF} token is not indexed.
+	 *
+	 * @param lexer the lexer
+	 * @return the token index
+	 */
+	public static AntlrTokenIndex of(Lexer lexer) {
+		Assert.notNull(lexer, "Lexer must be set");
+		int[] data = new int[64 * STRIDE];
+		int size = 0;
+		for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+			if (token.getStartIndex() < 0) {
+				// token not coming from input, i.e. imaginary token from a custom lexer
+				continue;
+			}
+			if ((size + 1) * STRIDE > data.length) {
+				data = Arrays.copyOf(data, data.length * 2);
+			}
+			int offset = size * STRIDE;
+			data[offset + TYPE] = token.getType();
+			data[offset + START] = token.getStartIndex();
+			data[offset + LENGTH] = token.getStopIndex() - token.getStartIndex() + 1;
+			data[offset + CHANNEL] = token.getChannel();
+			size++;
+		}
+		return new AntlrTokenIndex(Arrays.copyOf(data, size * STRIDE), size);
+	}
+
+	/**
+	 * Gets the number of tokens.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the type of a token.
+	 *
+	 * @param index the token index
+	 * @return the token type
+	 */
+	public int getType(int index) {
+		return data[checkIndex(index) * STRIDE + TYPE];
+	}
+
+	/**
+	 * Gets the start offset of a token.
+	 *
+	 * @param index the token index
+	 * @return the start offset
+	 */
+	public int getStart(int index) {
+		return data[checkIndex(index) * STRIDE + START];
+	}
+
+	/**
+	 * Gets the length of a token.
+	 *
+	 * @param index the token index
+	 * @return the length
+	 */
+	public int getLength(int index) {
+		return data[checkIndex(index) * STRIDE + LENGTH];
+	}
+
+	/**
+	 * Gets the channel of a token.
+	 *
+	 * @param index the token index
+	 * @return the channel
+	 */
+	public int getChannel(int index) {
+		return data[checkIndex(index) * STRIDE + CHANNEL];
+	}
+
+	/**
+	 * Find a token containing a given offset.
+	 *
+	 * @param offset the offset
+	 * @return the token index or {@code -1} if offset is not within a token
+	 */
+	public int tokenAt(int offset) {
+		int index = tokenAtOrBefore(offset);
+		if (index >= 0 && offset < data[index * STRIDE + START] + data[index * STRIDE + LENGTH]) {
+			return index;
+		}
+		return -1;
+	}
+
+	/**
+	 * Find a last token starting at or before a given offset.
+	 *
+	 * @param offset the offset
+	 * @return the token index or {@code -1} if there is no such token
+	 */
+	public int tokenAtOrBefore(int offset) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int start = data[mid * STRIDE + START];
+			if (start <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return index;
+	}
+}
@@ -67,8 +67,6 @@ public abstract class AbstractAntlrCompletioner<T> extends AbstractAntlrDslServi
 	@Override
 	public Flux<CompletionItem> complete(DslContext context, Position position) {
 		return getAntlrParseService().parse(context.getDocument(), getAntlrParseResultFunction())
-				.map(r -> r.getCompletionItems(position))
-				// TODO: remove cache
-				.flatMapMany(r -> r.cache());
+				.flatMapMany(r -> r.getCompletionItems(position));
 	}
 }
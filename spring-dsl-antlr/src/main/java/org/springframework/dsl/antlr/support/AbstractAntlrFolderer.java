@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.dsl.antlr.AntlrParseResult;
+import org.springframework.dsl.antlr.AntlrParseService;
+import org.springframework.dsl.document.Document;
+import org.springframework.dsl.domain.FoldingRange;
+import org.springframework.dsl.model.LanguageId;
+import org.springframework.dsl.service.DslContext;
+import org.springframework.dsl.service.Folderer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Base implementation of a {@link Folderer} for {@code ANTRL} based
+ * language services.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <T> the type of a result in {@link AntlrParseResult}
+ */
+public abstract class AbstractAntlrFolderer<T> extends AbstractAntlrDslService<T> implements Folderer {
+
+	/**
+	 * Instantiates a new abstract antlr folderer.
+	 *
+	 * @param languageId the language id
+	 * @param antlrParseService the antlr parse service
+	 * @param antlrParseResultSupplier the antlr parse result supplier
+	 */
+	public AbstractAntlrFolderer(LanguageId languageId, AntlrParseService<T> antlrParseService,
+			Function<Document, Mono<? extends AntlrParseResult<T>>> antlrParseResultSupplier) {
+		super(languageId, antlrParseService, antlrParseResultSupplier);
+	}
+
+	/**
+	 * Instantiates a new abstract antlr folderer.
+	 *
+	 * @param languageIds the language ids
+	 * @param antlrParseService the antlr parse service
+	 * @param antlrParseResultSupplier the antlr parse result supplier
+	 */
+	public AbstractAntlrFolderer(List<LanguageId> languageIds, AntlrParseService<T> antlrParseService,
+			Function<Document, Mono<? extends AntlrParseResult<T>>> antlrParseResultSupplier) {
+		super(languageIds, antlrParseService, antlrParseResultSupplier);
+	}
+
+	@Override
+	public Flux<FoldingRange> fold(DslContext context) {
+		return getAntlrParseService().parse(context.getDocument(), getAntlrParseResultFunction())
+			.flatMapMany(r -> r.getFoldingRanges());
+	}
+}
@@ -66,7 +66,6 @@ public abstract class AbstractAntlrLinter<T> extends AbstractAntlrDslService<T>
 	@Override
 	public Flux<ReconcileProblem> lint(DslContext context) {
 		return getAntlrParseService().parse(context.getDocument(), getAntlrParseResultFunction())
-			.map(r -> r.getReconcileProblems())
-			.flatMapMany(r -> r.cache());
+			.flatMapMany(r -> r.getReconcileProblems());
 	}
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.dsl.antlr.AntlrParseResult;
+import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.Hover;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.service.reconcile.ReconcileProblem;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
+import org.springframework.dsl.service.symbol.SymbolizeInfo;
+import org.springframework.dsl.support.DslUtils;
+import org.springframework.dsl.symboltable.SymbolTable;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Base implementation of a {@link AntlrParseResult} which memoizes derived
+ * artifacts. Each artifact is created lazily on a first request via a
+ * corresponding {@code create} method, computed at most once on a first
+ * subscription and then replayed to all subscribers from any thread. As a
+ * parse result is cached with a parse, all services asking artifacts from a
+ * same parse share those.
+ * <p>
+ * Position dependent requests are not memoized, but default
+ * {@link #getHover(Position)} uses memoized document symbols.
+ *
+ * @author Janne Valkealahti
+ *
+ * @param <T> the type of a result
+ */
+public abstract class AbstractAntlrParseResult<T> implements AntlrParseResult<T> {
+
+	private final Lazy<Mono<T>> result = new Lazy<>(() -> createResult().cache());
+	private final Lazy<Mono<SymbolTable>> symbolTable = new Lazy<>(() -> createSymbolTable().cache());
+	private final Lazy<Flux<ReconcileProblem>> reconcileProblems = new Lazy<>(
+			() -> createReconcileProblems().cache());
+	private final Lazy<SymbolizeInfo> symbolizeInfo = new Lazy<>(() -> {
+		SymbolizeInfo info = createSymbolizeInfo();
+		// occurrences fall back to ones known to a symbol table
+		Flux<SymbolOccurrence> occurrences = info.occurrences()
+				.switchIfEmpty(getSymbolTable().flatMapIterable(SymbolTable::getOccurrences));
+		return SymbolizeInfo.of(info.documentSymbols().cache(), info.symbolInformations().cache(),
+				occurrences.cache());
+	});
+	private final Lazy<Mono<List<DocumentSymbol>>> documentSymbols = new Lazy<>(
+			() -> getSymbolizeInfo().documentSymbols().collectList().cache());
+
+	@Override
+	public final Mono<T> getResult() {
+		return result.get();
+	}
+
+	@Override
+	public final Mono<SymbolTable> getSymbolTable() {
+		return symbolTable.get();
+	}
+
+	@Override
+	public final Flux<ReconcileProblem> getReconcileProblems() {
+		return reconcileProblems.get();
+	}
+
+	@Override
+	public final SymbolizeInfo getSymbolizeInfo() {
+		return symbolizeInfo.get();
+	}
+
+	@Override
+	public Mono<Hover> getHover(Position position) {
+		return documentSymbols.get()
+			.flatMapIterable(symbols -> symbols)
+			.filter(s -> DslUtils.isPositionInRange(position, s.getRange()))
+			.map(s -> Hover.hover()
+				.contents()
+					.value(s.getName())
+					.and()
+				.range(s.getRange())
+				.build())
+			.next();
+	}
+
+	/**
+	 * Creates the result, called at most once.
+	 *
+	 * @return the result
+	 */
+	protected Mono<T> createResult() {
+		return Mono.empty();
+	}
+
+	/**
+	 * Creates the symbol table, called at most once.
+	 *
+	 * @return the symbol table
+	 */
+	protected Mono<SymbolTable> createSymbolTable() {
+		return Mono.empty();
+	}
+
+	/**
+	 * Creates the reconcile problems, called at most once.
+	 *
+	 * @return the reconcile problems
+	 */
+	protected Flux<ReconcileProblem> createReconcileProblems() {
+		return Flux.empty();
+	}
+
+	/**
+	 * Creates the symbolize info, called at most once.
+	 *
+	 * @return the symbolize info
+	 */
+	protected SymbolizeInfo createSymbolizeInfo() {
+		return SymbolizeInfo.empty();
+	}
+
+	private static class Lazy<V> {
+
+		private final Supplier<V> supplier;
+		private volatile V value;
+
+		Lazy(Supplier<V> supplier) {
+			this.supplier = supplier;
+		}
+
+		V get() {
+			V v = value;
+			if (v == null) {
+				synchronized (this) {
+					v = value;
+					if (v == null) {
+						v = supplier.get();
+						value = v;
+					}
+				}
+			}
+			return v;
+		}
+	}
+}
@@ -24,13 +24,16 @@ import org.springframework.dsl.antlr.AntlrParseResult;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.domain.CompletionItem;
 import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.FoldingRange;
 import org.springframework.dsl.domain.Hover;
 import org.springframework.dsl.domain.Position;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.service.reconcile.ReconcileProblem;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.service.symbol.SymbolizeInfo;
-import org.springframework.dsl.support.DslUtils;
 import org.springframework.dsl.symboltable.SymbolTable;
+import org.springframework.dsl.symboltable.support.CompactSymbolTable;
+import org.springframework.dsl.symboltable.support.SymbolTableSnapshotStore;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -49,6 +52,8 @@ public abstract class AbstractAntlrParseResultFunction<T, L extends Lexer, P ext
 		extends AntlrObjectSupport<L, P>
 		implements Function<Document, Mono<? extends AntlrParseResult<T>>> {
 
+	private SymbolTableSnapshotStore symbolTableSnapshotStore;
+
 	/**
 	 * Instantiates a new abstract antlr parse result function.
 	 *
@@ -58,24 +63,72 @@ public abstract class AbstractAntlrParseResultFunction<T, L extends Lexer, P ext
 		super(antlrFactory);
 	}
 
+	/**
+	 * Sets a store for symbol table snapshots used by
+	 * {@link #getCompactSymbolTable(Document, Mono)}. A symbol table of a parse
+	 * result is never taken from a snapshot.
+	 *
+	 * @param symbolTableSnapshotStore the symbol table snapshot store
+	 */
+	public void setSymbolTableSnapshotStore(SymbolTableSnapshotStore symbolTableSnapshotStore) {
+		this.symbolTableSnapshotStore = symbolTableSnapshotStore;
+	}
+
+	/**
+	 * Gets the symbol table snapshot store.
+	 *
+	 * @return the symbol table snapshot store
+	 */
+	protected SymbolTableSnapshotStore getSymbolTableSnapshotStore() {
+		return symbolTableSnapshotStore;
+	}
+
+	/**
+	 * Gets a symbol table of a document for callers which only need names,
+	 * kinds and ranges of symbols, like workspace symbols. With a snapshot store
+	 * a table is loaded from a snapshot of a same document content without
+	 * parsing, otherwise a symbol table of a given parse result is used and
+	 * saved as a snapshot. Either way a table is a {@link CompactSymbolTable}.
+	 *
+	 * @param document the document
+	 * @param parseResult the parse result used if there is no snapshot
+	 * @return the compact symbol table
+	 */
+	public Mono<CompactSymbolTable> getCompactSymbolTable(Document document,
+			Mono<? extends AntlrParseResult<T>> parseResult) {
+		SymbolTableSnapshotStore store = symbolTableSnapshotStore;
+		Mono<CompactSymbolTable> parsed = parseResult
+				.flatMap(r -> Mono.from(r.getSymbolTable()))
+				.map(CompactSymbolTable::of);
+		if (store == null) {
+			return parsed;
+		}
+		String contentHash = SymbolTableSnapshotStore.contentHash(document.content());
+		return store.load(document.uri(), contentHash)
+			.switchIfEmpty(Mono.defer(() -> parsed
+				.doOnNext(table -> store.save(document.uri(), contentHash, table).subscribe())));
+	}
+
 	@Override
 	public Mono<? extends AntlrParseResult<T>> apply(Document document) {
 		return Mono.defer(() -> {
-			Mono<AntlrParseResult<T>> shared = parse(document).cache();
-			return Mono.just(new AntlrParseResult<T>() {
+			Mono<AntlrParseResult<T>> shared = parse(document)
+					.onErrorResume(AntlrParseGuard::fallback)
+					.cache();
+			AntlrParseResult<T> result = new AbstractAntlrParseResult<T>() {
 
 				@Override
-				public Mono<T> getResult() {
+				protected Mono<T> createResult() {
 					return AbstractAntlrParseResultFunction.this.getResult(shared, document);
 				}
 
 				@Override
-				public Mono<SymbolTable> getSymbolTable() {
+				protected Mono<SymbolTable> createSymbolTable() {
 					return AbstractAntlrParseResultFunction.this.getSymbolTable(shared, document);
 				};
 
 				@Override
-				public Flux<ReconcileProblem> getReconcileProblems() {
+				protected Flux<ReconcileProblem> createReconcileProblems() {
 					return AbstractAntlrParseResultFunction.this.getReconcileProblems(shared, document);
 				}
 
@@ -85,15 +138,24 @@ public abstract class AbstractAntlrParseResultFunction<T, L extends Lexer, P ext
 				}
 
 				@Override
-				public SymbolizeInfo getSymbolizeInfo() {
+				protected SymbolizeInfo createSymbolizeInfo() {
 					return AbstractAntlrParseResultFunction.this.getSymbolizeInfo(shared, document);
 				}
 
+				@Override
+				public Flux<FoldingRange> getFoldingRanges() {
+					return AbstractAntlrParseResultFunction.this.getFoldingRanges(shared, document);
+				}
+
 				@Override
 				public Mono<Hover> getHover(Position position) {
-					return AbstractAntlrParseResultFunction.this.getHover(shared, document, position);
+					return AbstractAntlrParseResultFunction.this.getHover(shared, document, position)
+							.switchIfEmpty(Mono.defer(() -> super.getHover(position)));
 				}
-			});
+			};
+			// parsed right away on a subscribing thread, which for a parse service
+			// is its scheduler, while errors are still passed to requested artifacts
+			return shared.materialize().thenReturn(result);
 		});
 	}
 
@@ -125,23 +187,35 @@ public abstract class AbstractAntlrParseResultFunction<T, L extends Lexer, P ext
 		Mono<Flux<SymbolInformation>> map3 = map.map(si -> si.symbolInformations());
 		Flux<SymbolInformation> flatMapMany2 = map3.flatMapMany(x -> x);
 
-		SymbolizeInfo symbolizeInfo = SymbolizeInfo.of(flatMapMany1, flatMapMany2);
+		Flux<SymbolOccurrence> occurrences = map.flatMapMany(si -> si.occurrences());
+
+		SymbolizeInfo symbolizeInfo = SymbolizeInfo.of(flatMapMany1, flatMapMany2, occurrences);
 		return symbolizeInfo;
 	}
 
-	protected Mono<Hover> getHover(Mono<AntlrParseResult<T>> shared, Document document, Position position) {
+	/**
+	 * Gets the folding ranges. Defaults to folding ranges of a parse result,
+	 * which for a parse stopped by an {@link AntlrParseGuard} are from bracket
+	 * pairs.
+	 *
+	 * @param shared the shared parse result
+	 * @param document the document
+	 * @return the folding ranges
+	 */
+	protected Flux<FoldingRange> getFoldingRanges(Mono<AntlrParseResult<T>> shared, Document document) {
+		return shared.flatMapMany(r -> Flux.from(r.getFoldingRanges()));
+	}
 
-		SymbolizeInfo symbolizeInfo = getSymbolizeInfo(shared, document);
-		Flux<DocumentSymbol> documentSymbols = symbolizeInfo.documentSymbols();
-
-		return documentSymbols
-			.filter(s -> DslUtils.isPositionInRange(position, s.getRange()))
-			.map(s -> Hover.hover()
-				.contents()
-					.value(s.getName())
-					.and()
-				.range(s.getRange())
-				.build())
-			.next();
+	/**
+	 * Gets the hover. Defaults to empty, which falls back to a lookup from
+	 * document symbols memoized in a parse result.
+	 *
+	 * @param shared the shared parse result
+	 * @param document the document
+	 * @param position the position
+	 * @return the hover
+	 */
+	protected Mono<Hover> getHover(Mono<AntlrParseResult<T>> shared, Document document, Position position) {
+		return Mono.empty();
 	}
 }
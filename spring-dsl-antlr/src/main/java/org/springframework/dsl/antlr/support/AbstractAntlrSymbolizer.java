@@ -25,8 +25,10 @@ import org.springframework.dsl.domain.DocumentSymbol;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.model.LanguageId;
 import org.springframework.dsl.service.DslContext;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.service.symbol.SymbolizeInfo;
 import org.springframework.dsl.service.symbol.Symbolizer;
+import org.springframework.dsl.symboltable.support.DocumentSymbolTableVisitor;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -77,7 +79,38 @@ public abstract class AbstractAntlrSymbolizer<T> extends AbstractAntlrDslService
 		Mono<Flux<SymbolInformation>> map3 = map.map(si -> si.symbolInformations());
 		Flux<SymbolInformation> flatMapMany2 = map3.flatMapMany(x -> x);
 
-		SymbolizeInfo symbolizeInfo = SymbolizeInfo.of(flatMapMany1, flatMapMany2);
+		Flux<SymbolOccurrence> occurrences = map.flatMapMany(si -> si.occurrences());
+
+		SymbolizeInfo symbolizeInfo = SymbolizeInfo.of(flatMapMany1, flatMapMany2, occurrences);
 		return symbolizeInfo;
 	}
+
+	/**
+	 * Symbol informations are built from a symbol table snapshot if a parse
+	 * result function is an {@link AbstractAntlrParseResultFunction} having a
+	 * snapshot store, a document is then parsed only if there is no snapshot of
+	 * its content.
+	 */
+	@Override
+	public Flux<SymbolInformation> symbolInformations(DslContext context) {
+		Function<Document, Mono<? extends AntlrParseResult<T>>> function = getAntlrParseResultFunction();
+		if (!(function instanceof AbstractAntlrParseResultFunction)
+				|| ((AbstractAntlrParseResultFunction<T, ?, ?>) function).getSymbolTableSnapshotStore() == null) {
+			return Symbolizer.super.symbolInformations(context);
+		}
+		Document document = context.getDocument();
+		Mono<AntlrParseResult<T>> parseResult = Mono.defer(() -> getAntlrParseService().parse(document, function));
+		return ((AbstractAntlrParseResultFunction<T, ?, ?>) function).getCompactSymbolTable(document, parseResult)
+			.flatMapMany(table -> table.visitSymbolTable(new DocumentSymbolTableVisitor(document.uri()))
+				.getSymbolizeInfo().symbolInformations());
+	}
+
+	/**
+	 * Occurrences are provided by a parse result, falling back to ones known
+	 * to its symbol table.
+	 */
+	@Override
+	public boolean isOccurrencesSupported() {
+		return true;
+	}
 }
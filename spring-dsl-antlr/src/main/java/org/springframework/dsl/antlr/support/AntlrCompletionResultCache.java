@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dsl.antlr.AntlrCompletionResult;
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache for {@link AntlrCompletionResult}s shared by
+ * {@link DefaultAntlrCompletionEngine}s across parses. For each document, known
+ * by a source name of a parsed input, a last result is kept together with
+ * token types before a caret and a start rule it was computed from. A result
+ * only depends on those, so a completion requested again at a same place, or
+ * while typing within a token at a caret, is a lookup. Any change in tokens
+ * before a caret invalidates an entry.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrCompletionResultCache {
+
+	private static final int DEFAULT_MAXIMUM_DOCUMENTS = 100;
+	private final Cache<String, Entry> cache;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Instantiates a new antlr completion result cache.
+	 */
+	public AntlrCompletionResultCache() {
+		this(DEFAULT_MAXIMUM_DOCUMENTS);
+	}
+
+	/**
+	 * Instantiates a new antlr completion result cache.
+	 *
+	 * @param maximumDocuments the maximum number of documents to keep results for
+	 */
+	public AntlrCompletionResultCache(int maximumDocuments) {
+		Assert.isTrue(maximumDocuments > 0, "Maximum documents must be positive");
+		this.cache = Caffeine.newBuilder().maximumSize(maximumDocuments).build();
+	}
+
+	/**
+	 * Gets the number of lookups answered from this cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of lookups not answered from this cache.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Invalidate a cached result of a document.
+	 *
+	 * @param sourceName the source name
+	 */
+	public void invalidate(String sourceName) {
+		cache.invalidate(sourceName);
+	}
+
+	AntlrCompletionResult get(String sourceName, Config config, int startRule, int[] tokens, int length) {
+		Entry entry = cache.getIfPresent(sourceName);
+		if (entry != null && entry.matches(config, startRule, tokens, length)) {
+			hits.incrementAndGet();
+			return entry.result;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	AntlrCompletionResult put(String sourceName, Config config, int startRule, int[] tokens, int length,
+			AntlrCompletionResult result) {
+		Entry entry = new Entry(config, startRule, Arrays.copyOf(tokens, length), new ResultSnapshot(result));
+		cache.put(sourceName, entry);
+		return entry.result;
+	}
+
+	private static class Entry {
+
+		final Config config;
+		final int startRule;
+		final int[] tokens;
+		final AntlrCompletionResult result;
+
+		Entry(Config config, int startRule, int[] tokens, AntlrCompletionResult result) {
+			this.config = config;
+			this.startRule = startRule;
+			this.tokens = tokens;
+			this.result = result;
+		}
+
+		boolean matches(Config config, int startRule, int[] tokens, int length) {
+			if (this.startRule != startRule || this.tokens.length != length || !this.config.equals(config)) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (this.tokens[i] != tokens[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Engine configuration a result depends on, follow sets identify a grammar
+	 * and ignored tokens.
+	 */
+	static class Config {
+
+		private final AntlrFollowSets followSets;
+		private final BitSet preferredRules;
+
+		Config(AntlrFollowSets followSets, BitSet preferredRules) {
+			this.followSets = followSets;
+			this.preferredRules = (BitSet) preferredRules.clone();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(followSets) + preferredRules.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			Config other = (Config) obj;
+			return followSets == other.followSets && preferredRules.equals(other.preferredRules);
+		}
+	}
+
+	private static class ResultSnapshot implements AntlrCompletionResult {
+
+		private final Map<Integer, List<Integer>> tokens;
+		private final Map<Integer, List<Integer>> rules;
+
+		ResultSnapshot(AntlrCompletionResult result) {
+			this.tokens = Collections.unmodifiableMap(new HashMap<>(result.getTokens()));
+			this.rules = Collections.unmodifiableMap(new HashMap<>(result.getRules()));
+		}
+
+		@Override
+		public Map<Integer, List<Integer>> getTokens() {
+			return tokens;
+		}
+
+		@Override
+		public Map<Integer, List<Integer>> getRules() {
+			return rules;
+		}
+	}
+}
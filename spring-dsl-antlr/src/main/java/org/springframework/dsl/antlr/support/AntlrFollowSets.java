@@ -0,0 +1,458 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.PredicateTransition;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.antlr.AntlrFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Precomputed follow sets of all rules in an {@link ATN}. Follow sets only
+ * depend on a grammar, not on a parsed input, so instances are built once per
+ * {@link ATN} and ignored tokens, shared and never modified afterwards which
+ * makes them safe to use from any thread.
+ * <p>
+ * Instances are built on first request via {@link #of(Parser, Set)} or eagerly
+ * during an application startup via {@link #warmUp(AntlrFactory)}, which
+ * takes the computation cost away from a first completion request.
+ * <p>
+ * Follow sets without ignored tokens can also be precomputed during a build
+ * with {@link AntlrFollowSetsGenerator}, which writes those into a classpath
+ * resource next to a parser class named {@code <Parser>.followsets}. If such a
+ * resource exists and matches a parser {@link ATN}, it is read instead of
+ * walking the {@link ATN}, memory mapped if it's available as a file.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public final class AntlrFollowSets {
+
+	private static final Logger log = LoggerFactory.getLogger(AntlrFollowSets.class);
+	private static final ConcurrentMap<CacheKey, AntlrFollowSets> cache = new ConcurrentHashMap<>();
+	static final String RESOURCE_SUFFIX = ".followsets";
+	private static final int MAGIC = 0x44534c46;
+	private static final int FORMAT_VERSION = 1;
+	private final RuleFollowSets[] ruleFollowSets;
+
+	private AntlrFollowSets(RuleFollowSets[] ruleFollowSets) {
+		this.ruleFollowSets = ruleFollowSets;
+	}
+
+	/**
+	 * Gets the follow sets for an {@link ATN} of a given {@link Parser}, building
+	 * those if not yet known.
+	 *
+	 * @param parser the parser
+	 * @param ignoredTokens the ignored tokens
+	 * @return the follow sets
+	 */
+	public static AntlrFollowSets of(Parser parser, Set<Integer> ignoredTokens) {
+		Assert.notNull(parser, "Parser must be set");
+		CacheKey key = new CacheKey(parser.getATN(), ignoredTokens);
+		AntlrFollowSets followSets = cache.get(key);
+		if (followSets == null) {
+			followSets = cache.computeIfAbsent(key, k -> {
+				AntlrFollowSets loaded = k.ignoredTokens.isEmpty() ? load(parser) : null;
+				return loaded != null ? loaded : build(parser, k.ignoredTokens);
+			});
+		}
+		return followSets;
+	}
+
+	/**
+	 * Eagerly build follow sets for a {@link Parser} created from a given
+	 * {@link AntlrFactory} without any ignored tokens.
+	 *
+	 * @param antlrFactory the antlr factory
+	 * @return the follow sets
+	 */
+	public static AntlrFollowSets warmUp(AntlrFactory<?, ?> antlrFactory) {
+		return warmUp(antlrFactory, null);
+	}
+
+	/**
+	 * Eagerly build follow sets for a {@link Parser} created from a given
+	 * {@link AntlrFactory}.
+	 *
+	 * @param antlrFactory the antlr factory
+	 * @param ignoredTokens the ignored tokens
+	 * @return the follow sets
+	 */
+	public static AntlrFollowSets warmUp(AntlrFactory<?, ?> antlrFactory, Set<Integer> ignoredTokens) {
+		Assert.notNull(antlrFactory, "AntlrFactory must be set");
+		Lexer lexer = antlrFactory.createLexer(CharStreams.fromString(""));
+		Parser parser = antlrFactory.createParser(new CommonTokenStream(lexer));
+		return of(parser, ignoredTokens);
+	}
+
+	/**
+	 * Gets the follow sets of a rule.
+	 *
+	 * @param ruleIndex the rule index
+	 * @return the rule follow sets
+	 */
+	RuleFollowSets getRuleFollowSets(int ruleIndex) {
+		return ruleFollowSets[ruleIndex];
+	}
+
+	/**
+	 * Write these follow sets into a given {@link OutputStream} in a format
+	 * understood when loading follow sets from a classpath resource.
+	 *
+	 * @param parser the parser these follow sets are built for
+	 * @param out the output stream
+	 * @throws IOException if write fails
+	 */
+	public void write(Parser parser, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		data.writeInt(fingerprint(parser));
+		data.writeInt(ruleFollowSets.length);
+		for (RuleFollowSets ruleSets : ruleFollowSets) {
+			data.writeInt(ruleSets.sets.size());
+			for (FollowSetWithPath set : ruleSets.sets) {
+				List<Interval> intervals = set.intervals.getIntervals();
+				data.writeInt(intervals.size());
+				for (Interval interval : intervals) {
+					data.writeInt(interval.a);
+					data.writeInt(interval.b);
+				}
+				data.writeInt(set.path.length);
+				for (int rule : set.path) {
+					data.writeInt(rule);
+				}
+				if (set.following == null) {
+					data.writeInt(-1);
+				} else {
+					data.writeInt(set.following.size());
+					for (Integer token : set.following) {
+						data.writeInt(token);
+					}
+				}
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Read follow sets from a given {@link ByteBuffer}.
+	 *
+	 * @param parser the parser
+	 * @param buffer the buffer
+	 * @return the follow sets or {@code null} if data doesn't match a parser
+	 */
+	static AntlrFollowSets read(Parser parser, ByteBuffer buffer) {
+		if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+				|| buffer.getInt() != fingerprint(parser)
+				|| buffer.getInt() != parser.getATN().ruleToStartState.length) {
+			return null;
+		}
+		RuleFollowSets[] ruleFollowSets = new RuleFollowSets[parser.getATN().ruleToStartState.length];
+		for (int i = 0; i < ruleFollowSets.length; i++) {
+			int setCount = buffer.getInt();
+			List<FollowSetWithPath> sets = new ArrayList<>(setCount);
+			for (int j = 0; j < setCount; j++) {
+				IntervalSet intervals = new IntervalSet();
+				int intervalCount = buffer.getInt();
+				for (int k = 0; k < intervalCount; k++) {
+					intervals.add(buffer.getInt(), buffer.getInt());
+				}
+				int[] path = new int[buffer.getInt()];
+				for (int k = 0; k < path.length; k++) {
+					path[k] = buffer.getInt();
+				}
+				List<Integer> following = null;
+				int followingCount = buffer.getInt();
+				if (followingCount >= 0) {
+					following = new ArrayList<>(followingCount);
+					for (int k = 0; k < followingCount; k++) {
+						following.add(buffer.getInt());
+					}
+				}
+				sets.add(new FollowSetWithPath(intervals, path, following));
+			}
+			ruleFollowSets[i] = combine(sets);
+		}
+		return new AntlrFollowSets(ruleFollowSets);
+	}
+
+	private static AntlrFollowSets load(Parser parser) {
+		Class<?> parserClass = parser.getClass();
+		URL url = parserClass.getResource(parserClass.getSimpleName() + RESOURCE_SUFFIX);
+		if (url == null) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer;
+			if ("file".equals(url.getProtocol())) {
+				try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				}
+			} else {
+				try (InputStream in = url.openStream()) {
+					buffer = ByteBuffer.wrap(StreamUtils.copyToByteArray(in));
+				}
+			}
+			AntlrFollowSets followSets = read(parser, buffer);
+			if (followSets == null) {
+				log.debug("Ignoring follow sets from {} as those don't match parser", url);
+			} else {
+				log.debug("Loaded follow sets for {} from {}", parserClass.getName(), url);
+			}
+			return followSets;
+		} catch (Exception e) {
+			log.debug("Unable to load follow sets from {}", url, e);
+			return null;
+		}
+	}
+
+	private static int fingerprint(Parser parser) {
+		try {
+			return 31 * parser.getSerializedATN().hashCode() + parser.getATN().maxTokenType;
+		} catch (UnsupportedOperationException e) {
+			// parser not generated by a tool, nothing to match against
+			return 0;
+		}
+	}
+
+	private static RuleFollowSets combine(List<FollowSetWithPath> sets) {
+		// Sets are split by path to allow translating them to preferred rules. But for
+		// quick hit tests it is also useful to have a set with all symbols combined.
+		IntervalSet combined = new IntervalSet();
+		for (FollowSetWithPath set : sets) {
+			combined.addAll(set.intervals);
+		}
+		combined.setReadonly(true);
+		return new RuleFollowSets(Collections.unmodifiableList(sets), combined);
+	}
+
+	/**
+	 * Build follow sets by walking an {@link ATN} of a parser, never loading
+	 * those from a classpath resource nor caching a result.
+	 *
+	 * @param parser the parser
+	 * @param ignoredTokens the ignored tokens
+	 * @return the follow sets
+	 */
+	static AntlrFollowSets build(Parser parser, Set<Integer> ignoredTokens) {
+		long start = System.nanoTime();
+		ATN atn = parser.getATN();
+		RuleFollowSets[] ruleFollowSets = new RuleFollowSets[atn.ruleToStartState.length];
+		FollowSetsCollector collector = new FollowSetsCollector(parser, ignoredTokens);
+		for (int i = 0; i < ruleFollowSets.length; i++) {
+			ruleFollowSets[i] = combine(collector.determineFollowSets(atn.ruleToStartState[i],
+					atn.ruleToStopState[i]));
+		}
+		log.debug("Built follow sets for {} rules of {} in {}ms", ruleFollowSets.length,
+				parser.getClass().getName(), (System.nanoTime() - start) / 1000000);
+		return new AntlrFollowSets(ruleFollowSets);
+	}
+
+	/**
+	 * Follow sets of a single rule.
+	 */
+	static class RuleFollowSets {
+
+		final List<FollowSetWithPath> sets;
+		final IntervalSet combined;
+
+		RuleFollowSets(List<FollowSetWithPath> sets, IntervalSet combined) {
+			this.sets = sets;
+			this.combined = combined;
+		}
+	}
+
+	/**
+	 * Single follow set with its rule path.
+	 */
+	static class FollowSetWithPath {
+
+		final IntervalSet intervals;
+		final int[] path;
+		final List<Integer> following;
+
+		FollowSetWithPath(IntervalSet intervals, List<Integer> path, List<Integer> following) {
+			this(intervals, path.stream().mapToInt(Integer::intValue).toArray(), following);
+		}
+
+		FollowSetWithPath(IntervalSet intervals, int[] path, List<Integer> following) {
+			intervals.setReadonly(true);
+			this.intervals = intervals;
+			this.path = path;
+			this.following = following != null ? Collections.unmodifiableList(following) : null;
+		}
+	}
+
+	private static class FollowSetsCollector {
+
+		private final Parser parser;
+		private final ATN atn;
+		private final Set<Integer> ignoredTokens;
+
+		FollowSetsCollector(Parser parser, Set<Integer> ignoredTokens) {
+			this.parser = parser;
+			this.atn = parser.getATN();
+			this.ignoredTokens = ignoredTokens;
+		}
+
+		List<FollowSetWithPath> determineFollowSets(ATNState start, ATNState stop) {
+			List<FollowSetWithPath> result = new ArrayList<>();
+			Set<ATNState> seen = new HashSet<>();
+			LinkedList<Integer> ruleStack = new LinkedList<>();
+			collectFollowSets(start, stop, result, seen, ruleStack);
+			return result;
+		}
+
+		private void collectFollowSets(ATNState s, ATNState stopState, List<FollowSetWithPath> followSets,
+				Set<ATNState> seen, LinkedList<Integer> ruleStack) {
+
+			if (!seen.add(s)) {
+				return;
+			}
+
+			if (s.equals(stopState) || s.getStateType() == ATNState.RULE_STOP) {
+				followSets.add(new FollowSetWithPath(IntervalSet.of(Token.EPSILON), ruleStack, null));
+				return;
+			}
+
+			for (Transition transition : s.getTransitions()) {
+				if (transition.getSerializationType() == Transition.RULE) {
+					RuleTransition ruleTransition = (RuleTransition) transition;
+					if (ruleStack.indexOf(ruleTransition.target.ruleIndex) != -1) {
+						continue;
+					}
+					ruleStack.addLast(ruleTransition.target.ruleIndex);
+					collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
+					ruleStack.removeLast();
+
+				} else if (transition.getSerializationType() == Transition.PREDICATE) {
+					if (checkPredicate((PredicateTransition) transition)) {
+						collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
+					}
+				} else if (transition.isEpsilon()) {
+					collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
+				} else if (transition.getSerializationType() == Transition.WILDCARD) {
+					followSets.add(new FollowSetWithPath(IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, atn.maxTokenType),
+							ruleStack, null));
+				} else {
+					IntervalSet label = transition.label();
+					if (label != null && label.size() > 0) {
+						if (transition.getSerializationType() == Transition.NOT_SET) {
+							label = label.complement(IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, atn.maxTokenType));
+						} else {
+							// transition labels are owned by the ATN, never share those
+							label = new IntervalSet(label);
+						}
+						followSets.add(new FollowSetWithPath(label, ruleStack, getFollowingTokens(transition)));
+					}
+				}
+			}
+		}
+
+		private List<Integer> getFollowingTokens(Transition initialTransition) {
+			List<Integer> result = new ArrayList<>();
+			LinkedList<ATNState> pipeline = new LinkedList<>();
+			pipeline.add(initialTransition.target);
+
+			while (!pipeline.isEmpty()) {
+				ATNState state = pipeline.removeLast();
+
+				for (Transition transition : state.getTransitions()) {
+					if (transition.getSerializationType() == Transition.ATOM) {
+						if (!transition.isEpsilon()) {
+							List<Integer> list = transition.label().toList();
+							if (list.size() == 1 && !ignoredTokens.contains(list.get(0))) {
+								result.add(list.get(0));
+								pipeline.addLast(transition.target);
+							}
+						} else {
+							pipeline.addLast(transition.target);
+						}
+					}
+				}
+			}
+
+			return result;
+		}
+
+		private boolean checkPredicate(PredicateTransition transition) {
+			return transition.getPredicate().eval(parser, ParserRuleContext.EMPTY);
+		}
+	}
+
+	private static class CacheKey {
+
+		private final ATN atn;
+		private final Set<Integer> ignoredTokens;
+
+		CacheKey(ATN atn, Set<Integer> ignoredTokens) {
+			this.atn = atn;
+			this.ignoredTokens = ignoredTokens != null ? Collections.unmodifiableSet(new HashSet<>(ignoredTokens))
+					: Collections.emptySet();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(atn) + ignoredTokens.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			CacheKey other = (CacheKey) obj;
+			return atn == other.atn && ignoredTokens.equals(other.ignoredTokens);
+		}
+	}
+}
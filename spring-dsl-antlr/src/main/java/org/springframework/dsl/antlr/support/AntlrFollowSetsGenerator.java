@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenStream;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Build time generator for {@link AntlrFollowSets} resources. Follow sets of
+ * given parser classes are computed and written into a given output directory
+ * using a package structure of a parser, which when added to a classpath are
+ * picked up by {@link AntlrFollowSets} instead of computing those at runtime.
+ * <p>
+ * Usage: {@code AntlrFollowSetsGenerator <outputDir> <parserClass>...}, i.e.
+ * from a gradle {@code JavaExec} task having generated parsers on its
+ * classpath.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrFollowSetsGenerator {
+
+	/**
+	 * Generate follow set resources.
+	 *
+	 * @param args the output directory followed by parser class names
+	 * @throws Exception if generation fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Assert.isTrue(args.length > 1, "Usage: AntlrFollowSetsGenerator <outputDir> <parserClass>...");
+		File outputDir = new File(args[0]);
+		for (int i = 1; i < args.length; i++) {
+			generate(outputDir, args[i]);
+		}
+	}
+
+	/**
+	 * Generate follow set resource for a given parser class.
+	 *
+	 * @param outputDir the output directory
+	 * @param parserClassName the parser class name
+	 * @return the generated file
+	 * @throws Exception if generation fails
+	 */
+	public static File generate(File outputDir, String parserClassName) throws Exception {
+		Class<?> parserClass = ClassUtils.forName(parserClassName, AntlrFollowSetsGenerator.class.getClassLoader());
+		Assert.isTrue(Parser.class.isAssignableFrom(parserClass), "Class " + parserClassName + " is not a Parser");
+		TokenStream tokenStream = new CommonTokenStream(new ListTokenSource(Collections.emptyList()));
+		Parser parser = (Parser) parserClass.getConstructor(TokenStream.class).newInstance(tokenStream);
+		// always computed, an existing resource on a classpath may be stale
+		AntlrFollowSets followSets = AntlrFollowSets.build(parser, Collections.emptySet());
+
+		String packagePath = ClassUtils.getPackageName(parserClass).replace('.', File.separatorChar);
+		File file = new File(new File(outputDir, packagePath),
+				parserClass.getSimpleName() + AntlrFollowSets.RESOURCE_SUFFIX);
+		Files.createDirectories(file.getParentFile().toPath());
+		write(followSets, parser, file);
+		return file;
+	}
+
+	private static void write(AntlrFollowSets followSets, Parser parser, File file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			followSets.write(parser, out);
+		}
+	}
+}
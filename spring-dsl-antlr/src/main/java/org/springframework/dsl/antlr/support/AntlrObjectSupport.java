@@ -20,6 +20,8 @@ import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Parser;
 import org.springframework.dsl.antlr.AntlrFactory;
+import org.springframework.dsl.antlr.AntlrTokenIndex;
+import org.springframework.dsl.document.Document;
 import org.springframework.util.Assert;
 
 /**
@@ -34,6 +36,8 @@ import org.springframework.util.Assert;
 public abstract class AntlrObjectSupport<L extends Lexer, P extends Parser> {
 
 	private final AntlrFactory<L, P> antlrFactory;
+	private AntlrParseProfiler parseProfiler;
+	private AntlrParseGuard parseGuard;
 
 	/**
 	 * Instantiates a new abstract antlr linter.
@@ -54,6 +58,44 @@ public abstract class AntlrObjectSupport<L extends Lexer, P extends Parser> {
 		return antlrFactory;
 	}
 
+	/**
+	 * Sets the parse profiler used to profile sampled parsers created via
+	 * {@link #getParser(CharStream)}.
+	 *
+	 * @param parseProfiler the parse profiler
+	 */
+	public void setParseProfiler(AntlrParseProfiler parseProfiler) {
+		this.parseProfiler = parseProfiler;
+	}
+
+	/**
+	 * Gets the parse profiler.
+	 *
+	 * @return the parse profiler
+	 */
+	protected AntlrParseProfiler getParseProfiler() {
+		return parseProfiler;
+	}
+
+	/**
+	 * Sets the parse guard used to guard parsers created via
+	 * {@link #getParser(CharStream)}. Parsers are not guarded by default.
+	 *
+	 * @param parseGuard the parse guard
+	 */
+	public void setParseGuard(AntlrParseGuard parseGuard) {
+		this.parseGuard = parseGuard;
+	}
+
+	/**
+	 * Gets the parse guard.
+	 *
+	 * @return the parse guard
+	 */
+	protected AntlrParseGuard getParseGuard() {
+		return parseGuard;
+	}
+
 	/**
 	 * Gets the parser.
 	 *
@@ -63,6 +105,26 @@ public abstract class AntlrObjectSupport<L extends Lexer, P extends Parser> {
 	protected P getParser(CharStream input) {
 		L lexer = getAntlrFactory().createLexer(input);
 		Assert.notNull(lexer, "Lexer must be set in AntlrFactory");
-		return getAntlrFactory().createParser(new CommonTokenStream(lexer));
+		P parser = getAntlrFactory().createParser(new CommonTokenStream(lexer));
+		if (parseProfiler != null) {
+			parseProfiler.profile(parser);
+		}
+		if (parseGuard != null) {
+			parseGuard.guard(parser);
+		}
+		return parser;
+	}
+
+	/**
+	 * Gets the lexer only token index of a document.
+	 *
+	 * @param document the document
+	 * @return the token index
+	 */
+	public AntlrTokenIndex getTokenIndex(Document document) {
+		L lexer = getAntlrFactory().createLexer(AntlrUtils.documentToCharStream(document));
+		Assert.notNull(lexer, "Lexer must be set in AntlrFactory");
+		lexer.removeErrorListeners();
+		return AntlrTokenIndex.of(lexer);
 	}
 }
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.antlr.AntlrParseResult;
+import org.springframework.dsl.domain.FoldingRange;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.service.reconcile.DefaultReconcileProblem;
+import org.springframework.dsl.service.reconcile.ReconcileProblem;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guard protecting a parse from pathological input. A guarded parse is
+ * stopped when a number of syntax errors, a parse time or a number of tokens
+ * exceeds configured limits. Instead of a parse result, a lexer only result is
+ * then returned which reports a reason for stopping and unbalanced brackets as
+ * problems and provides folding ranges from bracket pairs.
+ * <p>
+ * Guarding adds a parse listener to a parser which starts a clock when an
+ * outermost rule is entered and checks limits on every rule and token, and
+ * wraps a {@link BufferedTokenStream} of a parser so that a parse time is
+ * also checked while a parser predicts alternatives. Checks are done only
+ * while an outermost rule is being parsed, thus a parser can be used
+ * afterwards i.e. for completion. Syntax errors are counted from a parser
+ * itself, so replacing its error strategy or listeners keeps them counted.
+ * <p>
+ * {@link AntlrObjectSupport} guards parsers it creates if a guard is set and
+ * {@link DefaultAntlrParseService} and {@link AbstractAntlrParseResultFunction}
+ * turn a stopped parse into a lexer only result via {@link #fallback(Throwable)}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrParseGuard {
+
+	private static final Logger log = LoggerFactory.getLogger(AntlrParseGuard.class);
+	private static final int DEFAULT_MAX_RECOVERY_ATTEMPTS = 1000;
+	private static final Duration DEFAULT_MAX_PARSE_TIME = Duration.ofSeconds(10);
+	private static final int DEFAULT_MAX_TOKENS = 1000000;
+	private static final int DEADLINE_CHECK_MASK = 0x3f;
+	private final int maxRecoveryAttempts;
+	private final Duration maxParseTime;
+	private final int maxTokens;
+
+	/**
+	 * Instantiates a new antlr parse guard with default limits of 1000 error
+	 * recoveries, 10 seconds and a million tokens.
+	 */
+	public AntlrParseGuard() {
+		this(DEFAULT_MAX_RECOVERY_ATTEMPTS, DEFAULT_MAX_PARSE_TIME, DEFAULT_MAX_TOKENS);
+	}
+
+	/**
+	 * Instantiates a new antlr parse guard.
+	 *
+	 * @param maxRecoveryAttempts the max error recovery attempts
+	 * @param maxParseTime the max parse time
+	 * @param maxTokens the max number of tokens
+	 */
+	public AntlrParseGuard(int maxRecoveryAttempts, Duration maxParseTime, int maxTokens) {
+		Assert.isTrue(maxRecoveryAttempts >= 0, "Max recovery attempts cannot be negative");
+		Assert.notNull(maxParseTime, "Max parse time must be set");
+		Assert.isTrue(maxTokens > 0, "Max tokens must be positive");
+		this.maxRecoveryAttempts = maxRecoveryAttempts;
+		this.maxParseTime = maxParseTime;
+		this.maxTokens = maxTokens;
+	}
+
+	/**
+	 * Run a given parse function for a parser within limits of this guard,
+	 * returning a lexer only result if any of the limits is reached.
+	 *
+	 * @param parser the parser
+	 * @param function the function doing a parse
+	 * @return the parse result
+	 * @param <P> the type of parser
+	 * @param <T> the type of a result in {@link AntlrParseResult}
+	 */
+	public <P extends Parser, T> AntlrParseResult<T> parse(P parser, Function<P, AntlrParseResult<T>> function) {
+		try {
+			guard(parser);
+			return function.apply(parser);
+		} catch (AntlrParseGuardException e) {
+			log.debug("Parse stopped, falling back to lexer only result: {}", e.getMessage());
+			return lexerOnlyResult(e.getTokenStream(), e);
+		}
+	}
+
+	/**
+	 * Guard a given parser which is about to parse. A parser stopped later
+	 * throws a {@link ParseCancellationException} from its rule methods which
+	 * can be turned into a lexer only result with {@link #fallback(Throwable)}.
+	 * A parse time is measured from a moment an outermost rule is entered.
+	 *
+	 * @param parser the parser
+	 * @throws ParseCancellationException if parser already has too many tokens
+	 */
+	public void guard(Parser parser) {
+		Assert.notNull(parser, "Parser must be set");
+		TokenStream tokenStream = parser.getInputStream();
+		checkTokens(tokenStream);
+		GuardListener listener = new GuardListener(parser, tokenStream);
+		if (tokenStream instanceof BufferedTokenStream) {
+			parser.setTokenStream(new GuardedTokenStream((BufferedTokenStream) tokenStream, listener));
+		}
+		parser.addParseListener(listener);
+	}
+
+	/**
+	 * Resume from an error of a guarded parse. A parse stopped by a guard is
+	 * resumed with a lexer only result, other errors are passed through.
+	 *
+	 * @param error the parse error
+	 * @return the lexer only result or a given error
+	 * @param <T> the type of a result in {@link AntlrParseResult}
+	 */
+	public static <T> Mono<AntlrParseResult<T>> fallback(Throwable error) {
+		if (error instanceof AntlrParseGuardException) {
+			AntlrParseGuardException e = (AntlrParseGuardException) error;
+			log.debug("Parse stopped, falling back to lexer only result: {}", e.getMessage());
+			return Mono.just(lexerOnlyResult(e.getTokenStream(), e));
+		}
+		return Mono.error(error);
+	}
+
+	private void checkTokens(TokenStream tokenStream) {
+		if (tokenStream instanceof BufferedTokenStream) {
+			BufferedTokenStream buffered = (BufferedTokenStream) tokenStream;
+			buffered.fill();
+			if (buffered.size() > maxTokens) {
+				throw new AntlrParseGuardException("Document has more than " + maxTokens + " tokens", null,
+						tokenStream);
+			}
+		}
+	}
+
+	private static <T> AntlrParseResult<T> lexerOnlyResult(TokenStream tokenStream, AntlrParseGuardException e) {
+		List<ReconcileProblem> problems = new ArrayList<>();
+		List<FoldingRange> foldingRanges = new ArrayList<>();
+		Token stopToken = e.getToken();
+		Range stopRange = stopToken != null ? tokenRange(stopToken) : Range.from(0, 0, 0, 0);
+		problems.add(new DefaultReconcileProblem("Parsing stopped: " + e.getMessage(), stopRange));
+
+		if (tokenStream instanceof BufferedTokenStream) {
+			Deque<Token> open = new ArrayDeque<>();
+			for (Token token : ((BufferedTokenStream) tokenStream).getTokens()) {
+				String text = token.getType() != Token.EOF ? token.getText() : null;
+				if (text == null || text.length() != 1) {
+					continue;
+				}
+				char c = text.charAt(0);
+				if (c == '{' || c == '(' || c == '[') {
+					open.push(token);
+				} else if (c == '}' || c == ')' || c == ']') {
+					Token start = open.peek();
+					if (start == null || !isPair(start.getText().charAt(0), c)) {
+						problems.add(new DefaultReconcileProblem("Unbalanced '" + c + "'", tokenRange(token)));
+						continue;
+					}
+					open.pop();
+					if (token.getLine() > start.getLine()) {
+						foldingRanges.add(new FoldingRange(start.getLine() - 1, null, token.getLine() - 1, null, null));
+					}
+				}
+			}
+			for (Token token : open) {
+				problems.add(new DefaultReconcileProblem("Unbalanced '" + token.getText() + "'", tokenRange(token)));
+			}
+		}
+
+		List<ReconcileProblem> unmodifiableProblems = Collections.unmodifiableList(problems);
+		List<FoldingRange> unmodifiableFoldingRanges = Collections.unmodifiableList(foldingRanges);
+		return new AbstractAntlrParseResult<T>() {
+
+			@Override
+			protected Flux<ReconcileProblem> createReconcileProblems() {
+				return Flux.fromIterable(unmodifiableProblems);
+			}
+
+			@Override
+			public Flux<FoldingRange> getFoldingRanges() {
+				return Flux.fromIterable(unmodifiableFoldingRanges);
+			}
+		};
+	}
+
+	private static boolean isPair(char open, char close) {
+		return (open == '{' && close == '}') || (open == '(' && close == ')') || (open == '[' && close == ']');
+	}
+
+	private static Range tokenRange(Token token) {
+		int line = Math.max(0, token.getLine() - 1);
+		int start = Math.max(0, token.getCharPositionInLine());
+		int length = token.getText() != null && token.getType() != Token.EOF ? token.getText().length() : 0;
+		return Range.from(line, start, line, start + length);
+	}
+
+	/**
+	 * Listener checking limits while an outermost rule is being parsed.
+	 */
+	private class GuardListener implements ParseTreeListener {
+
+		private final Parser parser;
+		private final TokenStream tokenStream;
+		private boolean active;
+		private long deadline;
+		private int syntaxErrors;
+		private int accesses;
+
+		GuardListener(Parser parser, TokenStream tokenStream) {
+			this.parser = parser;
+			this.tokenStream = tokenStream;
+		}
+
+		@Override
+		public void enterEveryRule(ParserRuleContext ctx) {
+			if (!active && ctx.getParent() == null) {
+				active = true;
+				deadline = System.nanoTime() + maxParseTime.toNanos();
+				syntaxErrors = parser.getNumberOfSyntaxErrors();
+			}
+			checkLimits();
+		}
+
+		@Override
+		public void exitEveryRule(ParserRuleContext ctx) {
+			if (ctx.getParent() == null) {
+				active = false;
+			}
+		}
+
+		@Override
+		public void visitTerminal(TerminalNode node) {
+			checkLimits();
+		}
+
+		@Override
+		public void visitErrorNode(ErrorNode node) {
+			checkLimits();
+		}
+
+		/**
+		 * Check a deadline on every few token accesses, which covers a
+		 * prediction looking ahead as it doesn't notify listeners.
+		 */
+		void checkTokenAccess() {
+			if (active && (++accesses & DEADLINE_CHECK_MASK) == 0) {
+				checkDeadline();
+			}
+		}
+
+		private void checkLimits() {
+			if (!active) {
+				return;
+			}
+			if (parser.getNumberOfSyntaxErrors() - syntaxErrors > maxRecoveryAttempts) {
+				throw new AntlrParseGuardException("More than " + maxRecoveryAttempts + " error recoveries",
+						tokenStream.LT(1), tokenStream);
+			}
+			checkDeadline();
+		}
+
+		private void checkDeadline() {
+			if (System.nanoTime() - deadline > 0) {
+				throw new AntlrParseGuardException("Parse took longer than " + maxParseTime.toMillis() + "ms",
+						tokenStream.LT(1), tokenStream);
+			}
+		}
+	}
+
+	/**
+	 * Token stream passing everything to an original stream and checking a
+	 * deadline on token accesses. Being a {@link BufferedTokenStream} itself
+	 * it can be used like an original stream after a parse.
+	 */
+	private static class GuardedTokenStream extends BufferedTokenStream {
+
+		private final BufferedTokenStream delegate;
+		private final GuardListener listener;
+
+		GuardedTokenStream(BufferedTokenStream delegate, GuardListener listener) {
+			super(delegate.getTokenSource());
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public void consume() {
+			listener.checkTokenAccess();
+			delegate.consume();
+		}
+
+		@Override
+		public int LA(int i) {
+			listener.checkTokenAccess();
+			return delegate.LA(i);
+		}
+
+		@Override
+		public Token LT(int k) {
+			listener.checkTokenAccess();
+			return delegate.LT(k);
+		}
+
+		@Override
+		public TokenSource getTokenSource() {
+			return delegate.getTokenSource();
+		}
+
+		@Override
+		public void setTokenSource(TokenSource tokenSource) {
+			delegate.setTokenSource(tokenSource);
+		}
+
+		@Override
+		public int index() {
+			return delegate.index();
+		}
+
+		@Override
+		public int mark() {
+			return delegate.mark();
+		}
+
+		@Override
+		public void release(int marker) {
+			delegate.release(marker);
+		}
+
+		@Override
+		public void reset() {
+			delegate.reset();
+		}
+
+		@Override
+		public void seek(int index) {
+			delegate.seek(index);
+		}
+
+		@Override
+		public int size() {
+			return delegate.size();
+		}
+
+		@Override
+		public Token get(int i) {
+			return delegate.get(i);
+		}
+
+		@Override
+		public List<Token> get(int start, int stop) {
+			return delegate.get(start, stop);
+		}
+
+		@Override
+		public List<Token> getTokens() {
+			return delegate.getTokens();
+		}
+
+		@Override
+		public List<Token> getTokens(int start, int stop) {
+			return delegate.getTokens(start, stop);
+		}
+
+		@Override
+		public List<Token> getTokens(int start, int stop, Set<Integer> types) {
+			return delegate.getTokens(start, stop, types);
+		}
+
+		@Override
+		public List<Token> getTokens(int start, int stop, int ttype) {
+			return delegate.getTokens(start, stop, ttype);
+		}
+
+		@Override
+		public List<Token> getHiddenTokensToRight(int tokenIndex, int channel) {
+			return delegate.getHiddenTokensToRight(tokenIndex, channel);
+		}
+
+		@Override
+		public List<Token> getHiddenTokensToRight(int tokenIndex) {
+			return delegate.getHiddenTokensToRight(tokenIndex);
+		}
+
+		@Override
+		public List<Token> getHiddenTokensToLeft(int tokenIndex, int channel) {
+			return delegate.getHiddenTokensToLeft(tokenIndex, channel);
+		}
+
+		@Override
+		public List<Token> getHiddenTokensToLeft(int tokenIndex) {
+			return delegate.getHiddenTokensToLeft(tokenIndex);
+		}
+
+		@Override
+		public String getSourceName() {
+			return delegate.getSourceName();
+		}
+
+		@Override
+		public String getText() {
+			return delegate.getText();
+		}
+
+		@Override
+		public String getText(Interval interval) {
+			return delegate.getText(interval);
+		}
+
+		@Override
+		public String getText(RuleContext ctx) {
+			return delegate.getText(ctx);
+		}
+
+		@Override
+		public String getText(Token start, Token stop) {
+			return delegate.getText(start, stop);
+		}
+
+		@Override
+		public void fill() {
+			delegate.fill();
+		}
+	}
+
+	/**
+	 * Exception thrown from a guarded parse when a limit is reached.
+	 */
+	private static class AntlrParseGuardException extends ParseCancellationException {
+
+		private static final long serialVersionUID = 1L;
+		private final transient Token token;
+		private final transient TokenStream tokenStream;
+
+		AntlrParseGuardException(String message, Token token, TokenStream tokenStream) {
+			super(message);
+			this.token = token;
+			this.tokenStream = tokenStream;
+		}
+
+		Token getToken() {
+			return token;
+		}
+
+		TokenStream getTokenStream() {
+			return tokenStream;
+		}
+	}
+}
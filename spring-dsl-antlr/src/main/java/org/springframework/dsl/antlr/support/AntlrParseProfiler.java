@@ -0,0 +1,288 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.antlr.v4.runtime.atn.ParseInfo;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Opt-in profiler for {@code ANTLR} parsers. A sampled fraction of parsers
+ * given to {@link #profile(Parser)} run with a {@code ProfilingATNSimulator}
+ * and after an outermost rule of such a parser exits, its {@link DecisionInfo}s
+ * are aggregated per grammar decision. Parsers not sampled are left untouched
+ * and a profiler not set into {@link AntlrObjectSupport} costs nothing.
+ * <p>
+ * Decisions taking most of a prediction time are available via
+ * {@link #getTopDecisions(int)} and {@link #logReport(int)}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrParseProfiler {
+
+	private static final Logger log = LoggerFactory.getLogger(AntlrParseProfiler.class);
+	private final double sampleRate;
+	private final ConcurrentMap<String, DecisionStats> stats = new ConcurrentHashMap<>();
+	private final AtomicLong profiledParses = new AtomicLong();
+
+	/**
+	 * Instantiates a new antlr parse profiler.
+	 *
+	 * @param sampleRate the fraction of parsers to profile, between 0 and 1
+	 */
+	public AntlrParseProfiler(double sampleRate) {
+		Assert.isTrue(sampleRate >= 0 && sampleRate <= 1, "Sample rate must be between 0 and 1");
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Enable profiling for a given {@link Parser} if it is sampled.
+	 *
+	 * @param parser the parser
+	 * @return true, if parser is profiled
+	 */
+	public boolean profile(Parser parser) {
+		if (sampleRate == 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return false;
+		}
+		parser.setProfile(true);
+		parser.addParseListener(new RecordingListener(parser));
+		return true;
+	}
+
+	/**
+	 * Gets the number of profiled parses.
+	 *
+	 * @return the profiled parse count
+	 */
+	public long getProfiledParses() {
+		return profiledParses.get();
+	}
+
+	/**
+	 * Gets decisions ordered by a total time spent in a prediction.
+	 *
+	 * @param count the max number of decisions
+	 * @return the top decisions
+	 */
+	public List<DecisionStats> getTopDecisions(int count) {
+		return stats.values().stream()
+				.sorted(Comparator.comparingLong(DecisionStats::getTimeInPrediction).reversed())
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Log a report of top decisions.
+	 *
+	 * @param count the max number of decisions
+	 */
+	public void logReport(int count) {
+		List<DecisionStats> top = getTopDecisions(count);
+		StringBuilder buf = new StringBuilder();
+		buf.append("Top ").append(top.size()).append(" decisions from ").append(profiledParses.get())
+				.append(" profiled parses:");
+		for (DecisionStats decision : top) {
+			buf.append("\n  ").append(decision);
+		}
+		log.info(buf.toString());
+	}
+
+	/**
+	 * Clear aggregated statistics.
+	 */
+	public void reset() {
+		stats.clear();
+		profiledParses.set(0);
+	}
+
+	private void record(Parser parser) {
+		ParseInfo parseInfo = parser.getParseInfo();
+		if (parseInfo == null) {
+			return;
+		}
+		profiledParses.incrementAndGet();
+		String grammar = parser.getGrammarFileName();
+		String[] ruleNames = parser.getRuleNames();
+		for (DecisionInfo info : parseInfo.getDecisionInfo()) {
+			if (info.invocations == 0) {
+				continue;
+			}
+			String key = grammar + "#" + info.decision;
+			DecisionStats decisionStats = stats.computeIfAbsent(key, k -> {
+				DecisionState state = parser.getATN().getDecisionState(info.decision);
+				return new DecisionStats(grammar, info.decision, ruleNames[state.ruleIndex]);
+			});
+			decisionStats.add(info);
+		}
+	}
+
+	/**
+	 * Records decision info when an outermost rule exits and then switches a
+	 * parser back to a normal simulator.
+	 */
+	private class RecordingListener implements ParseTreeListener {
+
+		private final Parser parser;
+
+		RecordingListener(Parser parser) {
+			this.parser = parser;
+		}
+
+		@Override
+		public void exitEveryRule(ParserRuleContext ctx) {
+			if (ctx.getParent() == null) {
+				parser.removeParseListener(this);
+				record(parser);
+				parser.setProfile(false);
+			}
+		}
+
+		@Override
+		public void enterEveryRule(ParserRuleContext ctx) {
+		}
+
+		@Override
+		public void visitTerminal(TerminalNode node) {
+		}
+
+		@Override
+		public void visitErrorNode(ErrorNode node) {
+		}
+	}
+
+	/**
+	 * Aggregated statistics of a single grammar decision.
+	 */
+	public static class DecisionStats {
+
+		private final String grammar;
+		private final int decision;
+		private final String ruleName;
+		private long invocations;
+		private long timeInPrediction;
+		private long sllTotalLook;
+		private long sllMaxLook;
+		private long llFallback;
+		private long llTotalLook;
+		private long llMaxLook;
+		private long ambiguities;
+		private long contextSensitivities;
+		private long errors;
+
+		DecisionStats(String grammar, int decision, String ruleName) {
+			this.grammar = grammar;
+			this.decision = decision;
+			this.ruleName = ruleName;
+		}
+
+		synchronized void add(DecisionInfo info) {
+			invocations += info.invocations;
+			timeInPrediction += info.timeInPrediction;
+			sllTotalLook += info.SLL_TotalLook;
+			sllMaxLook = Math.max(sllMaxLook, info.SLL_MaxLook);
+			llFallback += info.LL_Fallback;
+			llTotalLook += info.LL_TotalLook;
+			llMaxLook = Math.max(llMaxLook, info.LL_MaxLook);
+			ambiguities += info.ambiguities.size();
+			contextSensitivities += info.contextSensitivities.size();
+			errors += info.errors.size();
+		}
+
+		public String getGrammar() {
+			return grammar;
+		}
+
+		public int getDecision() {
+			return decision;
+		}
+
+		public String getRuleName() {
+			return ruleName;
+		}
+
+		public synchronized long getInvocations() {
+			return invocations;
+		}
+
+		/**
+		 * Gets the total time spent in a prediction in nanoseconds.
+		 *
+		 * @return the time in prediction
+		 */
+		public synchronized long getTimeInPrediction() {
+			return timeInPrediction;
+		}
+
+		public synchronized long getSllTotalLook() {
+			return sllTotalLook;
+		}
+
+		public synchronized long getSllMaxLook() {
+			return sllMaxLook;
+		}
+
+		public synchronized long getLlFallback() {
+			return llFallback;
+		}
+
+		public synchronized long getLlTotalLook() {
+			return llTotalLook;
+		}
+
+		public synchronized long getLlMaxLook() {
+			return llMaxLook;
+		}
+
+		public synchronized long getAmbiguities() {
+			return ambiguities;
+		}
+
+		public synchronized long getContextSensitivities() {
+			return contextSensitivities;
+		}
+
+		public synchronized long getErrors() {
+			return errors;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return grammar + " decision " + decision + " (" + ruleName + "): invocations=" + invocations
+					+ ", timeMs=" + (timeInPrediction / 1000000.0) + ", sllMaxLook=" + sllMaxLook
+					+ ", llFallback=" + llFallback + ", llMaxLook=" + llMaxLook + ", ambiguities=" + ambiguities
+					+ ", contextSensitivities=" + contextSensitivities + ", errors=" + errors;
+		}
+	}
+}
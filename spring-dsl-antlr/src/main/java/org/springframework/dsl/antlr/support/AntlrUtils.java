@@ -15,12 +15,10 @@
  */
 package org.springframework.dsl.antlr.support;
 
-import java.io.IOException;
-import java.io.StringReader;
-
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
-import org.springframework.dsl.DslException;
+import org.springframework.dsl.document.Document;
+import org.springframework.util.Assert;
 
 /**
  * Utility functions for {@code ANTLR}.
@@ -37,10 +35,37 @@ public abstract class AntlrUtils {
 	 * @return the char stream
 	 */
 	public static CharStream stringToCharStream(String content) {
-		try {
-			return CharStreams.fromReader(new StringReader(content));
-		} catch (IOException e) {
-			throw new DslException(e);
+		return textToCharStream(content, null);
+	}
+
+	/**
+	 * Convert a {@link Document} content to a {@link CharStream} without copying
+	 * it into a {@link String} if content only has {@code BMP} characters.
+	 *
+	 * @param document the document
+	 * @return the char stream
+	 */
+	public static CharStream documentToCharStream(Document document) {
+		Assert.notNull(document, "Document must be set");
+		return textToCharStream(document.content(), document.uri());
+	}
+
+	/**
+	 * Convert a {@link CharSequence} to a {@link CharStream}. Content with only
+	 * {@code BMP} characters is read directly via a
+	 * {@link DocumentTextCharStream}, other content is copied into a code point
+	 * based stream.
+	 *
+	 * @param content the content
+	 * @param sourceName the source name
+	 * @return the char stream
+	 */
+	public static CharStream textToCharStream(CharSequence content, String sourceName) {
+		Assert.notNull(content, "Content must be set");
+		if (DocumentTextCharStream.isBmp(content)) {
+			return new DocumentTextCharStream(content, sourceName);
 		}
+		return sourceName != null ? CharStreams.fromString(content.toString(), sourceName)
+				: CharStreams.fromString(content.toString());
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2018 the original author or authors.
+ * Copyright 2018-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,39 +15,60 @@
  */
 package org.springframework.dsl.antlr.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.IntStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.Vocabulary;
 import org.antlr.v4.runtime.atn.ATN;
 import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.AtomTransition;
 import org.antlr.v4.runtime.atn.PredicateTransition;
-import org.antlr.v4.runtime.atn.RuleStopState;
 import org.antlr.v4.runtime.atn.RuleTransition;
 import org.antlr.v4.runtime.atn.Transition;
+import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.misc.IntervalSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dsl.antlr.AntlrCompletionEngine;
+import org.springframework.dsl.antlr.AntlrCompletionLimits;
 import org.springframework.dsl.antlr.AntlrCompletionResult;
+import org.springframework.dsl.antlr.support.AntlrFollowSets.FollowSetWithPath;
+import org.springframework.dsl.antlr.support.AntlrFollowSets.RuleFollowSets;
 import org.springframework.dsl.domain.Position;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * Default implementation of a {@link AntlrCompletionEngine}.
  * <p>
  * This is mostly based on a generic implementation from
  * https://github.com/mike-lischke/antlr4-c3 and has been modified to suit our
- * needs.
+ * needs. Internally an {@code ATN} walk is kept on primitive structures, token
+ * types are in an {@code int} array, call stack and state pipeline are array
+ * backed stacks and token positions where rules end are kept in sorted
+ * {@code int} arrays, so that only collected candidates are boxed into a
+ * {@link AntlrCompletionResult}.
+ * <p>
+ * A walk can be bounded with {@link AntlrCompletionLimits}, which are checked
+ * between processed states. Once a limit is reached, candidates collected so
+ * far are returned as a partial result.
+ * <p>
+ * With a {@link AntlrCompletionResultCache}, a walk is skipped when a same
+ * document has been completed before with same tokens before a caret.
  *
  * @author Janne Valkealahti
  *
@@ -55,18 +76,29 @@ import org.springframework.util.ObjectUtils;
 public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 
 	private static final Logger log = LoggerFactory.getLogger(DefaultAntlrCompletionEngine.class);
-	private final static Map<String, Map<Integer, FollowSetsHolder>> followSetsByATN = new HashMap<>();
+	private static final int[] NO_POSITIONS = new int[0];
+	private static final int[] NO_PATH = new int[0];
 	private final Set<Integer> ignoredTokens;
-	private final Set<Integer> preferredRules;
-	private final Map<Integer, Map<Integer, Set<Integer>>> shortcutMap = new HashMap<>();
+	private final BitSet ignoredTokenTypes = new BitSet();
+	private final BitSet preferredRules = new BitSet();
+	private final ShortcutMap shortcutMap = new ShortcutMap();
+	private final IntStack callStack = new IntStack();
+	private final StatePipeline statePipeline = new StatePipeline();
 	private final CandidatesCollection candidates = new CandidatesCollection();
+	private final AntlrFollowSets followSets;
+	private final IntervalSet vocabularySet;
 	private Parser parser;
 	private ATN atn;
 	private Vocabulary vocabulary;
 	private String[] ruleNames;
-	private List<Token> tokens;
+	private int[] tokens = new int[16];
+	private int tokenCount = 0;
 	private int tokenStartIndex = 0;
 	private int statesProcessed = 0;
+	private AntlrCompletionLimits limits = AntlrCompletionLimits.unlimited();
+	private AntlrCompletionResultCache resultCache;
+	private AntlrCompletionResultCache.Config resultCacheConfig;
+	private long deadline;
 
 	/**
 	 * Instantiates a new default antlr completion engine.
@@ -90,31 +122,71 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		this.vocabulary = parser.getVocabulary();
 		this.ruleNames = parser.getRuleNames();
 		this.ignoredTokens = ignoredTokens != null ? ignoredTokens : new HashSet<>();
-		this.preferredRules = preferredRules != null ? preferredRules : new HashSet<>();
+		for (Integer token : this.ignoredTokens) {
+			if (token >= 0) {
+				this.ignoredTokenTypes.set(token);
+			}
+		}
+		if (preferredRules != null) {
+			for (Integer rule : preferredRules) {
+				this.preferredRules.set(rule);
+			}
+		}
+		this.vocabularySet = IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType);
+		this.vocabularySet.setReadonly(true);
+		this.followSets = AntlrFollowSets.of(parser, this.ignoredTokens);
+	}
+
+	/**
+	 * Sets the completion result cache shared with other engines. Results are
+	 * cached per a source name of a parser input, meaning caching only happens
+	 * if input has a source name.
+	 *
+	 * @param resultCache the completion result cache
+	 */
+	public void setResultCache(AntlrCompletionResultCache resultCache) {
+		this.resultCache = resultCache;
+		this.resultCacheConfig = resultCache != null
+				? new AntlrCompletionResultCache.Config(this.followSets, this.preferredRules)
+				: null;
 	}
 
 	@Override
 	public AntlrCompletionResult collectResults(Position position, ParserRuleContext context) {
+		return collectResults(position, context, AntlrCompletionLimits.unlimited());
+	}
+
+	@Override
+	public AntlrCompletionResult collectResults(Position position, ParserRuleContext context,
+			AntlrCompletionLimits limits) {
+		Assert.notNull(limits, "Limits must be set");
 		int line = position.getLine() + 1;
 		int charPositionInLine = position.getCharacter();
 		this.shortcutMap.clear();
+		this.callStack.clear();
+		this.statePipeline.clear();
 		this.candidates.rules.clear();
 		this.candidates.tokens.clear();
+		this.candidates.partial = false;
 		this.statesProcessed = 0;
+		this.limits = limits;
+		this.deadline = limits.getTimeout() != null ? System.nanoTime() + limits.getTimeout().toNanos() : 0;
 
 		this.tokenStartIndex = context != null ? context.start.getTokenIndex() : 0;
 		TokenStream tokenStream = this.parser.getInputStream();
 
 		int currentIndex = tokenStream.index();
 		tokenStream.seek(this.tokenStartIndex);
-		this.tokens = new LinkedList<>();
+		this.tokenCount = 0;
 		int offset = 1;
 		boolean lineMatch = false;
 		while (true) {
 			Token token = tokenStream.LT(offset++);
-			this.tokens.add(token);
-			log.debug("TOKEN {} l {} p {} tl {} tp {}", token.getText(), line, charPositionInLine, token.getLine(),
-					token.getCharPositionInLine());
+			addToken(token.getType());
+			if (log.isDebugEnabled()) {
+				log.debug("TOKEN {} l {} p {} tl {} tp {}", token.getText(), line, charPositionInLine,
+						token.getLine(), token.getCharPositionInLine());
+			}
 			// TODO: polish or rewrite below if/else mess
 			if (token.getType() == Token.EOF) {
 				break;
@@ -136,19 +208,78 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		}
 		tokenStream.seek(currentIndex);
 
-		LinkedList<Integer> callStack = new LinkedList<>();
 		int startRule = context != null ? context.getRuleIndex() : 0;
-		this.processRule(this.atn.ruleToStartState[startRule], 0, callStack, "");
+
+		// Type of a token at a caret is never matched, only tokens before it matter.
+		String sourceName = this.resultCache != null ? tokenStream.getSourceName() : null;
+		boolean cacheable = StringUtils.hasText(sourceName) && !IntStream.UNKNOWN_SOURCE_NAME.equals(sourceName);
+		if (cacheable) {
+			AntlrCompletionResult cached = this.resultCache.get(sourceName, this.resultCacheConfig, startRule,
+					this.tokens, this.tokenCount - 1);
+			if (cached != null) {
+				log.debug("Using cached completion result for {}", sourceName);
+				return cached;
+			}
+		}
+
+		this.processRule(this.atn.ruleToStartState[startRule], 0, 0);
+		if (this.candidates.partial) {
+			log.debug("Collection stopped after {} states, returning partial results", this.statesProcessed);
+		}
 
 		debugPrintResults();
+		if (cacheable && !this.candidates.partial) {
+			return this.resultCache.put(sourceName, this.resultCacheConfig, startRule, this.tokens,
+					this.tokenCount - 1, this.candidates);
+		}
 		return this.candidates;
 	}
 
+	private void addToken(int type) {
+		if (this.tokenCount == this.tokens.length) {
+			this.tokens = Arrays.copyOf(this.tokens, this.tokens.length * 2);
+		}
+		this.tokens[this.tokenCount++] = type;
+	}
+
+	private boolean isIgnored(int token) {
+		return token >= 0 ? this.ignoredTokenTypes.get(token) : this.ignoredTokens.contains(token);
+	}
+
+	/**
+	 * Checks if any of the limits has been reached. State count is checked on
+	 * every call, cancellation and time budget only on every {@code 64} states
+	 * to keep the check cheap.
+	 *
+	 * @return true, if walk should stop
+	 */
+	private boolean isLimitReached() {
+		if (this.candidates.partial) {
+			return true;
+		}
+		if (this.statesProcessed >= this.limits.getMaxStates()) {
+			this.candidates.partial = true;
+		} else if ((this.statesProcessed & 63) == 0) {
+			if (this.limits.isCancelled()
+					|| (this.limits.getTimeout() != null && System.nanoTime() - this.deadline >= 0)) {
+				this.candidates.partial = true;
+			}
+		}
+		return this.candidates.partial;
+	}
+
 	private boolean checkPredicate(PredicateTransition transition) {
 		return transition.getPredicate().eval(this.parser, ParserRuleContext.EMPTY);
 	}
 
-	private boolean translateToRuleIndex(List<Integer> ruleStack) {
+	/**
+	 * Translate rule path formed by a current call stack followed by a given path
+	 * into a preferred rule candidate.
+	 *
+	 * @param path the path appended to a call stack
+	 * @return true, if preferred rule was found from a path
+	 */
+	private boolean translateToRuleIndex(int[] path) {
 		if (this.preferredRules.isEmpty()) {
 			return false;
 		}
@@ -156,27 +287,20 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		// Loop over the rule stack from highest to lowest rule level. This way we
 		// properly handle the higher rule
 		// if it contains a lower one that is also a preferred rule.
-		for (int i = 0; i < ruleStack.size(); ++i) {
-			if (this.preferredRules.contains(ruleStack.get(i))) {
+		int size = this.callStack.size() + path.length;
+		for (int i = 0; i < size; ++i) {
+			int rule = ruleAt(path, i);
+			if (this.preferredRules.get(rule)) {
 				// Add the rule to our candidates list along with the current rule path,
 				// but only if there isn't already an entry like that.
-				List<Integer> path = new LinkedList<>(ruleStack.subList(0, i));
-				boolean addNew = true;
-				for (Map.Entry<Integer, List<Integer>> entry : this.candidates.rules.entrySet()) {
-					if (!entry.getKey().equals(ruleStack.get(i)) || entry.getValue().size() != path.size()) {
-						continue;
-					}
-					// Found an entry for this rule. Same path? If so don't add a new (duplicate)
-					// entry.
-					if (path.equals(entry.getValue())) {
-						addNew = false;
-						break;
+				List<Integer> existing = this.candidates.rules.get(rule);
+				if (existing == null || !isPathPrefix(existing, path, i)) {
+					List<Integer> rulePath = new ArrayList<>(i);
+					for (int j = 0; j < i; j++) {
+						rulePath.add(ruleAt(path, j));
 					}
-				}
-
-				if (addNew) {
-					this.candidates.rules.put(ruleStack.get(i), path);
-					log.debug("=====> collected: {}", this.ruleNames[i]);
+					this.candidates.rules.put(rule, rulePath);
+					log.debug("=====> collected: {}", this.ruleNames[rule]);
 				}
 				return true;
 			}
@@ -185,25 +309,38 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		return false;
 	}
 
+	private int ruleAt(int[] path, int index) {
+		int stackSize = this.callStack.size();
+		return index < stackSize ? this.callStack.get(index) : path[index - stackSize];
+	}
+
+	private boolean isPathPrefix(List<Integer> rulePath, int[] path, int length) {
+		if (rulePath.size() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (rulePath.get(i) != ruleAt(path, i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private List<Integer> getFollowingTokens(Transition initialTransition) {
-		LinkedList<Integer> result = new LinkedList<>();
-//        LinkedList<ATNState> seen = new LinkedList<>(); // unused but in orig
-		LinkedList<ATNState> pipeline = new LinkedList<>();
-		pipeline.add(initialTransition.target);
+		List<Integer> result = new ArrayList<>();
+		StatePipeline pipeline = new StatePipeline();
+		pipeline.push(initialTransition.target, 0);
 
-		while (!pipeline.isEmpty()) {
-			ATNState state = pipeline.removeLast();
+		while (pipeline.size() > 0) {
+			ATNState state = pipeline.peekState();
+			pipeline.pop();
 
 			for (Transition transition : state.getTransitions()) {
 				if (transition.getSerializationType() == Transition.ATOM) {
-					if (!transition.isEpsilon()) {
-						List<Integer> list = transition.label().toList();
-						if (list.size() == 1 && !this.ignoredTokens.contains(list.get(0))) {
-							result.addLast(list.get(0));
-							pipeline.addLast(transition.target);
-						}
-					} else {
-						pipeline.addLast(transition.target);
+					int label = ((AtomTransition) transition).label;
+					if (!isIgnored(label)) {
+						result.add(label);
+						pipeline.push(transition.target, 0);
 					}
 				}
 			}
@@ -212,90 +349,27 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		return result;
 	}
 
-	private LinkedList<FollowSetWithPath> determineFollowSets(ATNState start, ATNState stop) {
-		LinkedList<FollowSetWithPath> result = new LinkedList<>();
-		Set<ATNState> seen = new HashSet<>();
-		LinkedList<Integer> ruleStack = new LinkedList<>();
-
-		this.collectFollowSets(start, stop, result, seen, ruleStack);
-
-		return result;
-	}
-
-	private void collectFollowSets(ATNState s, ATNState stopState, LinkedList<FollowSetWithPath> followSets,
-			Set<ATNState> seen, LinkedList<Integer> ruleStack) {
-
-		if (seen.contains(s)) {
-			return;
-		}
-
-		seen.add(s);
-
-		if (s.equals(stopState) || s.getStateType() == ATNState.RULE_STOP) {
-			FollowSetWithPath set = new FollowSetWithPath();
-			set.intervals = IntervalSet.of(Token.EPSILON);
-			set.path = new LinkedList<Integer>(ruleStack);
-			followSets.addLast(set);
-			return;
-		}
-
-		for (Transition transition : s.getTransitions()) {
-			if (transition.getSerializationType() == Transition.RULE) {
-				RuleTransition ruleTransition = (RuleTransition) transition;
-				if (ruleStack.indexOf(ruleTransition.target.ruleIndex) != -1) {
-					continue;
-				}
-				ruleStack.addLast(ruleTransition.target.ruleIndex);
-				this.collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
-				ruleStack.removeLast();
-
-			} else if (transition.getSerializationType() == Transition.PREDICATE) {
-				if (this.checkPredicate((PredicateTransition) transition)) {
-					this.collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
-				}
-			} else if (transition.isEpsilon()) {
-				this.collectFollowSets(transition.target, stopState, followSets, seen, ruleStack);
-			} else if (transition.getSerializationType() == Transition.WILDCARD) {
-				FollowSetWithPath set = new FollowSetWithPath();
-				set.intervals = IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType);
-				set.path = new LinkedList<Integer>(ruleStack);
-				followSets.addLast(set);
-			} else {
-				IntervalSet label = transition.label();
-				if (label != null && label.size() > 0) {
-					if (transition.getSerializationType() == Transition.NOT_SET) {
-						label = label.complement(IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType));
-					}
-					FollowSetWithPath set = new FollowSetWithPath();
-					set.intervals = label;
-					set.path = new LinkedList<Integer>(ruleStack);
-					set.following = this.getFollowingTokens(transition);
-					followSets.addLast(set);
-				}
-			}
+	private void collectToken(int symbol, List<Integer> following) {
+		if (!isIgnored(symbol)) {
+			log.debug("=====> collected: {}", this.vocabulary.getDisplayName(symbol));
+			this.candidates.tokens.put(symbol, following);
+		} else {
+			log.debug("====> collected: Ignoring token: {}", symbol);
 		}
 	}
 
-	private Set<Integer> processRule(ATNState startState, int tokenIndex, LinkedList<Integer> callStack,
-			String indentation) {
+	private int[] processRule(ATNState startState, int tokenIndex, int depth) {
 
 		// Start with rule specific handling before going into the ATN walk.
 
 		// Check first if we've taken this path with the same input before.
-		Map<Integer, Set<Integer>> positionMap = this.shortcutMap.get(startState.ruleIndex);
-		if (positionMap == null) {
-			positionMap = new HashMap<>();
-			this.shortcutMap.put(startState.ruleIndex, positionMap);
-		} else {
-			if (positionMap.containsKey(tokenIndex)) {
-				log.debug("=====> shortcut");
-				return positionMap.get(tokenIndex);
-			}
+		int[] shortcut = this.shortcutMap.get(startState.ruleIndex, tokenIndex);
+		if (shortcut != null) {
+			log.debug("=====> shortcut");
+			return shortcut;
 		}
 
-		Set<Integer> result = new HashSet<>();
-
-		// For rule start states we determine and cache the follow set, which gives us 3
+		// For rule start states we use precomputed follow sets, which gives us 3
 		// advantages:
 		// 1) We can quickly check if a symbol would be matched when we follow that
 		// rule. We can so check in advance
@@ -307,69 +381,47 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		// in non trivial grammars, especially with (recursive) expressions and of
 		// course when invoking code completion
 		// multiple times.
-		Map<Integer, FollowSetsHolder> setsPerState = followSetsByATN.get(this.parser.getClass().getName());
-		if (setsPerState == null) {
-			setsPerState = new HashMap<>();
-			followSetsByATN.put(this.parser.getClass().getName(), setsPerState);
-		}
-
-		FollowSetsHolder followSets = setsPerState.get(startState.stateNumber);
-		if (followSets == null) {
-			followSets = new FollowSetsHolder();
-			setsPerState.put(startState.stateNumber, followSets);
-			RuleStopState stop = this.atn.ruleToStopState[startState.ruleIndex];
-			followSets.sets = this.determineFollowSets(startState, stop);
-
-			// Sets are split by path to allow translating them to preferred rules. But for
-			// quick hit tests
-			// it is also useful to have a set with all symbols combined.
-			IntervalSet combined = new IntervalSet();
-			for (FollowSetWithPath set : followSets.sets) {
-				combined.addAll(set.intervals);
-			}
-			followSets.combined = combined;
-		}
+		RuleFollowSets followSets = this.followSets.getRuleFollowSets(startState.ruleIndex);
 
-		callStack.addLast(startState.ruleIndex);
-		int currentSymbol = this.tokens.get(tokenIndex).getType();
+		this.callStack.push(startState.ruleIndex);
+		int currentSymbol = this.tokens[tokenIndex];
 
-		if (tokenIndex >= this.tokens.size() - 1) { // At caret?
-			if (this.preferredRules.contains(startState.ruleIndex)) {
+		if (tokenIndex >= this.tokenCount - 1) { // At caret?
+			if (this.preferredRules.get(startState.ruleIndex)) {
 				// No need to go deeper when collecting entries and we reach a rule that we want
 				// to collect anyway.
-				this.translateToRuleIndex(callStack);
+				this.translateToRuleIndex(NO_PATH);
 			} else {
 				// Convert all follow sets to either single symbols or their associated
 				// preferred rule and add
 				// the result to our candidates list.
 				for (FollowSetWithPath set : followSets.sets) {
-					LinkedList<Integer> fullPath = new LinkedList<>(callStack);
-					fullPath.addAll(set.path);
-					if (!this.translateToRuleIndex(fullPath)) {
-						for (int symbol : set.intervals.toList()) {
-							if (!this.ignoredTokens.contains(symbol)) {
-								log.debug("=====> collected: {}", this.vocabulary.getDisplayName(symbol));
-								if (!this.candidates.tokens.containsKey(symbol))
-
-									this.candidates.tokens.put(symbol, set.following); // Following is empty if there is
-																						// more than one entry in the
-																						// set.
-								else {
-									// More than one following list for the same symbol.
-									if (!ObjectUtils.nullSafeEquals(this.candidates.tokens.get(symbol), set.following)) {
-										this.candidates.tokens.put(symbol, new LinkedList<Integer>());
+					if (!this.translateToRuleIndex(set.path)) {
+						List<Interval> intervals = set.intervals.getIntervals();
+						for (int i = 0; i < intervals.size(); i++) {
+							Interval interval = intervals.get(i);
+							for (int symbol = interval.a; symbol <= interval.b; symbol++) {
+								if (!this.isIgnored(symbol)) {
+									log.debug("=====> collected: {}", this.vocabulary.getDisplayName(symbol));
+									List<Integer> following = this.candidates.tokens.get(symbol);
+									if (following == null && !this.candidates.tokens.containsKey(symbol)) {
+										// Following is empty if there is more than one entry in the set.
+										this.candidates.tokens.put(symbol, set.following);
+									} else if (!ObjectUtils.nullSafeEquals(following, set.following)) {
+										// More than one following list for the same symbol.
+										this.candidates.tokens.put(symbol, Collections.emptyList());
 									}
+								} else {
+									log.debug("====> collection: Ignoring token: {}", symbol);
 								}
-							} else {
-								log.debug("====> collection: Ignoring token: {}", symbol);
 							}
 						}
 					}
 				}
 			}
 
-			callStack.removeLast();
-			return result;
+			this.callStack.pop();
+			return NO_POSITIONS;
 
 		} else {
 			// Process the rule if we either could pass it without consuming anything
@@ -378,44 +430,52 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 			// point.
 			// Otherwise stop here.
 			if (!followSets.combined.contains(Token.EPSILON) && !followSets.combined.contains(currentSymbol)) {
-				callStack.removeLast();
-				return result;
+				this.callStack.pop();
+				return NO_POSITIONS;
 			}
 		}
 
+		IntSet result = new IntSet();
+
 		// The current state execution pipeline contains all yet-to-be-processed ATN
-		// states in this rule.
+		// states in this rule. Pipeline is shared with nested rules which only
+		// process entries above its size at a time nested rule is entered.
 		// For each such state we store the token index + a list of rules that lead to
 		// it.
-		LinkedList<PipelineEntry> statePipeline = new LinkedList<>();
-		PipelineEntry currentEntry;
+		StatePipeline statePipeline = this.statePipeline;
+		int pipelineBase = statePipeline.size();
 
 		// Bootstrap the pipeline.
-		statePipeline.add(new PipelineEntry(startState, tokenIndex));
+		statePipeline.push(startState, tokenIndex);
 
-		while (!statePipeline.isEmpty()) {
-			currentEntry = statePipeline.removeLast();
+		while (statePipeline.size() > pipelineBase) {
+			if (this.isLimitReached()) {
+				// Leave remaining states unprocessed, pipeline is cleared on next run.
+				break;
+			}
+			ATNState state = statePipeline.peekState();
+			int entryTokenIndex = statePipeline.peekTokenIndex();
+			statePipeline.pop();
 			++this.statesProcessed;
 
-			currentSymbol = this.tokens.get(currentEntry.tokenIndex).getType();
+			currentSymbol = this.tokens[entryTokenIndex];
 
-			boolean atCaret = currentEntry.tokenIndex >= this.tokens.size() - 1;
+			boolean atCaret = entryTokenIndex >= this.tokenCount - 1;
 			if (log.isDebugEnabled()) {
-				debugPrintDescription(indentation, currentEntry.state, this.debugGenerateBaseDescription(currentEntry.state),
-						currentEntry.tokenIndex);
+				debugPrintDescription(depth, state, this.debugGenerateBaseDescription(state), entryTokenIndex);
 				if (log.isTraceEnabled()) {
-					debugPrintRuleState(callStack);
+					debugPrintRuleState();
 				}
 			}
 
-			switch (currentEntry.state.getStateType()) {
+			switch (state.getStateType()) {
 			case ATNState.RULE_START: // Happens only for the first state in this rule, not subrules.
-				indentation += "  ";
+				depth++;
 				break;
 
 			case ATNState.RULE_STOP: {
 				// Record the token index we are at, to report it to the caller.
-				result.add(currentEntry.tokenIndex);
+				result.add(entryTokenIndex);
 				continue;
 			}
 
@@ -423,37 +483,36 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 				break;
 			}
 
-			Transition[] transitions = currentEntry.state.getTransitions();
+			Transition[] transitions = state.getTransitions();
 			for (Transition transition : transitions) {
 				switch (transition.getSerializationType()) {
 				case Transition.RULE: {
-					Set<Integer> endStatus = this.processRule(transition.target, currentEntry.tokenIndex, callStack,
-							indentation);
-					for (Integer position : endStatus) {
-						statePipeline.addLast(new PipelineEntry(((RuleTransition) transition).followState, position));
+					int[] endStatus = this.processRule(transition.target, entryTokenIndex, depth);
+					ATNState followState = ((RuleTransition) transition).followState;
+					for (int position : endStatus) {
+						statePipeline.push(followState, position);
 					}
 					break;
 				}
 
 				case Transition.PREDICATE: {
 					if (this.checkPredicate((PredicateTransition) transition)) {
-						statePipeline.addLast(new PipelineEntry(transition.target, currentEntry.tokenIndex));
+						statePipeline.push(transition.target, entryTokenIndex);
 					}
 					break;
 				}
 
 				case Transition.WILDCARD: {
 					if (atCaret) {
-						if (!this.translateToRuleIndex(callStack)) {
-							for (Integer token : IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType)
-									.toList()) {
-								if (!this.ignoredTokens.contains(token)) {
-									this.candidates.tokens.put(token, new LinkedList<Integer>());
+						if (!this.translateToRuleIndex(NO_PATH)) {
+							for (int token = Token.MIN_USER_TOKEN_TYPE; token <= this.atn.maxTokenType; token++) {
+								if (!this.isIgnored(token)) {
+									this.candidates.tokens.put(token, Collections.emptyList());
 								}
 							}
 						}
 					} else {
-						statePipeline.addLast(new PipelineEntry(transition.target, currentEntry.tokenIndex + 1));
+						statePipeline.push(transition.target, entryTokenIndex + 1);
 					}
 					break;
 				}
@@ -461,54 +520,49 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 				default: {
 					if (transition.isEpsilon()) {
 						if (atCaret) {
-							this.translateToRuleIndex(callStack);
+							this.translateToRuleIndex(NO_PATH);
 						}
 						// Jump over simple states with a single outgoing epsilon transition.
-						statePipeline.addLast(new PipelineEntry(transition.target, currentEntry.tokenIndex));
+						statePipeline.push(transition.target, entryTokenIndex);
 						continue;
 					}
 
-					IntervalSet set = transition.label();
-					if (set != null && set.size() > 0) {
-						if (transition.getSerializationType() == Transition.NOT_SET) {
-							set = set.complement(IntervalSet.of(Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType));
-						}
-						if (atCaret) {
-							if (!this.translateToRuleIndex(callStack)) {
-								List<Integer> list = set.toList();
-								boolean addFollowing = list.size() == 1;
-								for (Integer symbol : list) {
-									if (!this.ignoredTokens.contains(symbol)) {
-										log.debug("=====> collected: {}", this.vocabulary.getDisplayName(symbol));
-										if (addFollowing) {
-											this.candidates.tokens.put(symbol, this.getFollowingTokens(transition));
-										} else {
-											this.candidates.tokens.put(symbol, new LinkedList<>());
-										}
-									} else {
-										log.debug("====> collected: Ignoring token: {}", symbol);
+					if (atCaret) {
+						IntervalSet set = transition.label();
+						if (set != null && set.size() > 0 && !this.translateToRuleIndex(NO_PATH)) {
+							if (transition.getSerializationType() == Transition.NOT_SET) {
+								set = set.complement(this.vocabularySet);
+							}
+							if (set.size() == 1) {
+								this.collectToken(set.getMinElement(), this.getFollowingTokens(transition));
+							} else {
+								List<Interval> intervals = set.getIntervals();
+								for (int i = 0; i < intervals.size(); i++) {
+									Interval interval = intervals.get(i);
+									for (int symbol = interval.a; symbol <= interval.b; symbol++) {
+										this.collectToken(symbol, Collections.emptyList());
 									}
 								}
 							}
-						} else {
-							if (set.contains(currentSymbol)) {
-								log.debug("=====> consumed: {}", this.vocabulary.getDisplayName(currentSymbol));
-								statePipeline
-										.addLast(new PipelineEntry(transition.target, currentEntry.tokenIndex + 1));
-							}
 						}
+					} else if (transition.matches(currentSymbol, Token.MIN_USER_TOKEN_TYPE, this.atn.maxTokenType)) {
+						log.debug("=====> consumed: {}", this.vocabulary.getDisplayName(currentSymbol));
+						statePipeline.push(transition.target, entryTokenIndex + 1);
 					}
 				}
 				}
 			}
 		}
 
-		callStack.removeLast();
+		this.callStack.pop();
 
 		// Cache the result, for later lookup to avoid duplicate walks.
-		positionMap.put(tokenIndex, result);
+		int[] positions = result.toSortedArray();
+		if (!this.candidates.partial) {
+			this.shortcutMap.put(startState.ruleIndex, tokenIndex, positions);
+		}
 
-		return result;
+		return positions;
 	}
 
 	private String[] atnStateTypeMap = new String[] { "invalid", "basic", "rule start", "block start",
@@ -522,8 +576,13 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 				+ this.ruleNames[state.ruleIndex];
 	}
 
-	private void debugPrintDescription(String currentIndent, ATNState state, String baseDescription, int tokenIndex) {
+	private void debugPrintDescription(int depth, ATNState state, String baseDescription, int tokenIndex) {
 
+		StringBuilder indent = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			indent.append("  ");
+		}
+		String currentIndent = indent.toString();
 		StringBuilder output = new StringBuilder();
 		output.append("\n");
 		output.append(currentIndent);
@@ -532,7 +591,8 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		if (log.isDebugEnabled()) {
 			for (Transition transition : state.getTransitions()) {
 				StringBuilder labels = new StringBuilder();
-				List<Integer> symbols = (transition.label() != null) ? transition.label().toList() : new LinkedList<>();
+				List<Integer> symbols = (transition.label() != null) ? transition.label().toList()
+						: Collections.emptyList();
 				if (symbols.size() > 2) {
 					// Only print start and end symbols to avoid large lists in debug output.
 					labels.append(this.vocabulary.getDisplayName(symbols.get(0)) + " .. "
@@ -554,7 +614,7 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 						.append(this.ruleNames[transition.target.ruleIndex]);
 			}
 
-			if (tokenIndex >= this.tokens.size() - 1) {
+			if (tokenIndex >= this.tokenCount - 1) {
 				output.append("<<").append(this.tokenStartIndex + tokenIndex).append(">> ");
 			} else {
 				output.append("<").append(this.tokenStartIndex + tokenIndex).append("> ");
@@ -563,14 +623,14 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		}
 	}
 
-	private void debugPrintRuleState(LinkedList<Integer> stack) {
-		if (stack.isEmpty()) {
+	private void debugPrintRuleState() {
+		if (this.callStack.size() == 0) {
 			log.debug("<empty stack>");
 			return;
 		}
 		StringBuilder sb = new StringBuilder();
-		for (Integer rule : stack) {
-			sb.append("  ").append(this.ruleNames[rule]).append("\n");
+		for (int i = 0; i < this.callStack.size(); i++) {
+			sb.append("  ").append(this.ruleNames[this.callStack.get(i)]).append("\n");
 		}
 		log.debug(sb.toString());
 	}
@@ -604,30 +664,189 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		}
 	}
 
-	private static class FollowSetWithPath {
-		IntervalSet intervals;
-		List<Integer> path;
-		List<Integer> following;
+	/**
+	 * Growable stack of {@code int} values.
+	 */
+	private static class IntStack {
+
+		int[] values = new int[16];
+		int size;
+
+		void push(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		void pop() {
+			size--;
+		}
+
+		int get(int index) {
+			return values[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+	}
+
+	/**
+	 * Small growable set of {@code int} values. Sets are expected to have only a
+	 * few values, so linear lookup is cheaper than hashing.
+	 */
+	private static class IntSet {
+
+		int[] values = new int[4];
+		int size;
+
+		void add(int value) {
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value) {
+					return;
+				}
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toSortedArray() {
+			if (size == 0) {
+				return NO_POSITIONS;
+			}
+			int[] sorted = Arrays.copyOf(values, size);
+			Arrays.sort(sorted);
+			return sorted;
+		}
 	}
 
-	private static class FollowSetsHolder {
-		List<FollowSetWithPath> sets;
-		IntervalSet combined;
+	/**
+	 * Growable stack of pending {@link ATNState}s with their token indexes kept in
+	 * parallel arrays.
+	 */
+	private static class StatePipeline {
+
+		ATNState[] states = new ATNState[16];
+		int[] tokenIndexes = new int[16];
+		int size;
+
+		void push(ATNState state, int tokenIndex) {
+			if (size == states.length) {
+				states = Arrays.copyOf(states, size * 2);
+				tokenIndexes = Arrays.copyOf(tokenIndexes, size * 2);
+			}
+			states[size] = state;
+			tokenIndexes[size] = tokenIndex;
+			size++;
+		}
+
+		ATNState peekState() {
+			return states[size - 1];
+		}
+
+		int peekTokenIndex() {
+			return tokenIndexes[size - 1];
+		}
+
+		void pop() {
+			states[--size] = null;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			Arrays.fill(states, 0, size, null);
+			size = 0;
+		}
 	}
 
-	private static class PipelineEntry {
-		ATNState state;
-		Integer tokenIndex;
+	/**
+	 * Open addressing map from a rule index and a token index into a walk result.
+	 */
+	private static class ShortcutMap {
+
+		long[] keys = new long[64];
+		int[][] values = new int[64][];
+		int size;
+
+		int[] get(int ruleIndex, int tokenIndex) {
+			long key = key(ruleIndex, tokenIndex);
+			int mask = keys.length - 1;
+			for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return null;
+		}
+
+		void put(int ruleIndex, int tokenIndex, int[] value) {
+			if ((size + 1) * 2 > keys.length) {
+				resize();
+			}
+			long key = key(ruleIndex, tokenIndex);
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (values[i] != null) {
+				if (keys[i] == key) {
+					values[i] = value;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+			size++;
+		}
+
+		void clear() {
+			if (size > 0) {
+				Arrays.fill(values, null);
+				size = 0;
+			}
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			int[][] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldValues.length * 2][];
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldValues[j] != null) {
+					int i = hash(oldKeys[j]) & mask;
+					while (values[i] != null) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+
+		private static long key(int ruleIndex, int tokenIndex) {
+			return ((long) ruleIndex << 32) | (tokenIndex & 0xffffffffL);
+		}
 
-		PipelineEntry(ATNState state, Integer tokenIndex) {
-			this.state = state;
-			this.tokenIndex = tokenIndex;
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
 		}
 	}
 
 	private static class CandidatesCollection implements AntlrCompletionResult {
 		Map<Integer, List<Integer>> tokens = new HashMap<>();
 		Map<Integer, List<Integer>> rules = new HashMap<>();
+		boolean partial;
 
 		@Override
 		public Map<Integer, List<Integer>> getTokens() {
@@ -638,5 +857,10 @@ public class DefaultAntlrCompletionEngine implements AntlrCompletionEngine {
 		public Map<Integer, List<Integer>> getRules() {
 			return rules;
 		}
+
+		@Override
+		public boolean isPartial() {
+			return partial;
+		}
 	}
 }
@@ -15,36 +15,111 @@
  */
 package org.springframework.dsl.antlr.support;
 
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dsl.DslSystemConstants;
 import org.springframework.dsl.antlr.AntlrParseResult;
 import org.springframework.dsl.antlr.AntlrParseService;
+import org.springframework.dsl.antlr.AntlrTokenIndex;
 import org.springframework.dsl.document.Document;
+import org.springframework.util.Assert;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import reactor.cache.CacheMono;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
 
 /**
  * Default implementation of a {@link AntlrParseService}.
+ * <p>
+ * Parses are run on a dedicated bounded {@link Scheduler} instead of a
+ * subscribing thread which usually is a network event loop. Parses exceeding
+ * a queue size are rejected with an error. When a parse for a newer version of
+ * a document starts, a parse for an older version of a same document is
+ * cancelled and completes empty, meaning a parse not yet started is never run
+ * and a running parse result is dropped. A parse stopped by an
+ * {@link AntlrParseGuard} completes with a lexer only result.
+ * <p>
+ * Lexer only {@link AntlrTokenIndex} is cached beside a parse for a latest
+ * known version of a document, so that token level features don't need to
+ * wait for parses. It's built on a same scheduler as parses. Indexes are kept
+ * for a bounded number of documents and dropped when not accessed for a while
+ * or when invalidated via {@link #invalidateTokenIndex(String)}.
+ * <p>
+ * If a subscriber context has a {@link Scheduler} with a key
+ * {@link DslSystemConstants#CONTEXT_SCHEDULER_KEY}, work is run on it
+ * instead, i.e. so that bulk symbolization is bounded by a pool of a caller.
  *
  * @author Janne Valkealahti
  *
  * @param <T> the type of a result in {@link AntlrParseResult}
  */
-public class DefaultAntlrParseService<T> implements AntlrParseService<T> {
+public class DefaultAntlrParseService<T> implements AntlrParseService<T>, DisposableBean {
 
+	private static final int DEFAULT_QUEUE_SIZE = 256;
+	private static final int DEFAULT_MAXIMUM_TOKEN_INDEXES = 100;
+	private static final Duration DEFAULT_TOKEN_INDEX_EXPIRY = Duration.ofMinutes(10);
 	private final Cache<CacheKey, Signal<? extends AntlrParseResult<T>>> cache;
+	private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+	private final Cache<String, VersionedTokenIndex> tokenIndexes;
+	private final Scheduler scheduler;
+	private final boolean ownScheduler;
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicLong parseCount = new AtomicLong();
+	private final AtomicLong parseTime = new AtomicLong();
+	private final AtomicLong maxParseTime = new AtomicLong();
 
 	/**
-	 * Instantiates a new default antlr parse service.
+	 * Instantiates a new default antlr parse service with parallelism of
+	 * available processors.
 	 */
 	public DefaultAntlrParseService() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_SIZE);
+	}
+
+	/**
+	 * Instantiates a new default antlr parse service.
+	 *
+	 * @param parallelism the max number of concurrent parses
+	 * @param queueSize the max number of parses waiting to be run
+	 */
+	public DefaultAntlrParseService(int parallelism, int queueSize) {
+		this(Schedulers.newBoundedElastic(parallelism, queueSize, "antlr-parse", 60, true), true);
+	}
+
+	/**
+	 * Instantiates a new default antlr parse service running parses on a given
+	 * {@link Scheduler}. Scheduler is not disposed by this service.
+	 *
+	 * @param scheduler the scheduler
+	 */
+	public DefaultAntlrParseService(Scheduler scheduler) {
+		this(scheduler, false);
+	}
+
+	private DefaultAntlrParseService(Scheduler scheduler, boolean ownScheduler) {
+		Assert.notNull(scheduler, "Scheduler must be set");
 		this.cache = Caffeine.newBuilder().build();
+		this.tokenIndexes = Caffeine.newBuilder()
+				.maximumSize(DEFAULT_MAXIMUM_TOKEN_INDEXES)
+				.expireAfterAccess(DEFAULT_TOKEN_INDEX_EXPIRY)
+				.build();
+		this.scheduler = scheduler;
+		this.ownScheduler = ownScheduler;
 	}
 
 	@Override
@@ -52,10 +127,139 @@ public class DefaultAntlrParseService<T> implements AntlrParseService<T> {
 			Function<Document, ? extends Mono<? extends AntlrParseResult<T>>> function) {
 		return CacheMono
 				.lookup(reader(cache), new CacheKey(document))
-				.onCacheMissResume(Mono.defer(() -> function.apply(document)))
+				.onCacheMissResume(Mono.defer(() -> scheduledParse(document, function)))
 				.andWriteWith(writer(cache));
 	}
 
+	@Override
+	public Mono<AntlrTokenIndex> getTokenIndex(Document document, Function<Document, AntlrTokenIndex> function) {
+		return Mono.defer(() -> {
+			VersionedTokenIndex cached = tokenIndexes.getIfPresent(document.uri());
+			if (cached != null && cached.version == document.getVersion()) {
+				return Mono.just(cached.index);
+			}
+			return Mono.subscriberContext()
+					.flatMap(context -> Mono.fromCallable(() -> function.apply(document))
+							.subscribeOn(getScheduler(context)))
+					.map(index -> publishTokenIndex(document, index));
+		});
+	}
+
+	/**
+	 * Invalidate a cached token index of a document, i.e. when a document is
+	 * closed.
+	 *
+	 * @param uri the document uri
+	 */
+	public void invalidateTokenIndex(String uri) {
+		tokenIndexes.invalidate(uri);
+	}
+
+	@Override
+	public void destroy() {
+		if (ownScheduler) {
+			scheduler.dispose();
+		}
+	}
+
+	/**
+	 * Gets the number of parses waiting for a free thread.
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * Gets the number of finished parses.
+	 *
+	 * @return the parse count
+	 */
+	public long getParseCount() {
+		return parseCount.get();
+	}
+
+	/**
+	 * Gets the average latency of finished parses.
+	 *
+	 * @return the average parse latency
+	 */
+	public Duration getAverageParseLatency() {
+		long count = parseCount.get();
+		return count > 0 ? Duration.ofNanos(parseTime.get() / count) : Duration.ZERO;
+	}
+
+	/**
+	 * Gets the max latency of finished parses.
+	 *
+	 * @return the max parse latency
+	 */
+	public Duration getMaxParseLatency() {
+		return Duration.ofNanos(maxParseTime.get());
+	}
+
+	private Scheduler getScheduler(Context context) {
+		return context.getOrDefault(DslSystemConstants.CONTEXT_SCHEDULER_KEY, scheduler);
+	}
+
+	private Mono<AntlrParseResult<T>> scheduledParse(Document document,
+			Function<Document, ? extends Mono<? extends AntlrParseResult<T>>> function) {
+		InFlight current = track(document);
+		if (current == null) {
+			// newer version already being parsed
+			return Mono.empty();
+		}
+		AtomicBoolean started = new AtomicBoolean();
+		queueDepth.incrementAndGet();
+		Mono<AntlrParseResult<T>> parse = Mono.defer(() -> {
+			if (started.compareAndSet(false, true)) {
+				queueDepth.decrementAndGet();
+			}
+			long start = System.nanoTime();
+			return function.apply(document)
+					.<AntlrParseResult<T>>map(r -> r)
+					.onErrorResume(AntlrParseGuard::fallback)
+					.doFinally(s -> recordLatency(System.nanoTime() - start));
+		});
+		return Mono.subscriberContext()
+				.flatMap(context -> parse.subscribeOn(getScheduler(context)))
+				.takeUntilOther(current.superseded)
+				.doFinally(s -> {
+					if (started.compareAndSet(false, true)) {
+						queueDepth.decrementAndGet();
+					}
+					inFlight.remove(document.uri(), current);
+				});
+	}
+
+	private AntlrTokenIndex publishTokenIndex(Document document, AntlrTokenIndex index) {
+		// index for an older version than already known is returned but never
+		// replaces a newer one, for a same version a first published index wins
+		VersionedTokenIndex published = tokenIndexes.asMap().merge(document.uri(),
+				new VersionedTokenIndex(document.getVersion(), index),
+				(old, cur) -> old.version >= cur.version ? old : cur);
+		return published.version == document.getVersion() ? published.index : index;
+	}
+
+	private InFlight track(Document document) {
+		InFlight candidate = new InFlight(document.getVersion());
+		InFlight current = inFlight.merge(document.uri(), candidate, (old, cur) -> {
+			if (old.version < cur.version) {
+				old.superseded.onComplete();
+				return cur;
+			}
+			return old;
+		});
+		return current.version == document.getVersion() ? current : null;
+	}
+
+	private void recordLatency(long nanos) {
+		parseCount.incrementAndGet();
+		parseTime.addAndGet(nanos);
+		maxParseTime.accumulateAndGet(nanos, Math::max);
+	}
+
 	private static <K, V> Function<K, Mono<Signal<? extends AntlrParseResult<V>>>> reader(
 			Cache<K, ? extends Signal<? extends AntlrParseResult<V>>> cache) {
 		return key -> Mono.justOrEmpty(cache.getIfPresent(key));
@@ -63,7 +267,33 @@ public class DefaultAntlrParseService<T> implements AntlrParseService<T> {
 
 	private static <K, V> BiFunction<K, Signal<? extends AntlrParseResult<V>>, Mono<Void>> writer(
 			Cache<K, ? super Signal<? extends AntlrParseResult<V>>> cache) {
-		return (key, value) -> Mono.fromRunnable(() -> cache.put(key, value));
+		return (key, value) -> Mono.fromRunnable(() -> {
+			// only cache results, empty result from a superseded parse is not
+			// worth caching and errors like a rejected parse from a full queue
+			// must not stick for a document version
+			if (value.isOnNext()) {
+				cache.put(key, value);
+			}
+		});
+	}
+
+	private static class VersionedTokenIndex {
+		private final int version;
+		private final AntlrTokenIndex index;
+
+		VersionedTokenIndex(int version, AntlrTokenIndex index) {
+			this.version = version;
+			this.index = index;
+		}
+	}
+
+	private static class InFlight {
+		private final int version;
+		private final MonoProcessor<Void> superseded = MonoProcessor.create();
+
+		InFlight(int version) {
+			this.version = version;
+		}
 	}
 
 	private static class CacheKey {
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.springframework.dsl.document.DocumentText;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link CharStream} reading directly from a {@link CharSequence} like
+ * {@link DocumentText} without copying a whole content into a {@link String}
+ * and then into a code point buffer. Characters are read in small chunks which
+ * keeps random access into a {@link DocumentText} cheap.
+ * <p>
+ * As stream indexes are char indexes, content must only contain characters
+ * from a {@code BMP}, which can be checked with {@link #isBmp(CharSequence)}.
+ * {@link AntlrUtils#textToCharStream(CharSequence, String)} does this check and
+ * falls back to a code point based stream if needed.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DocumentTextCharStream implements CharStream {
+
+	private static final int CHUNK_SIZE = 1024;
+	private final CharSequence content;
+	private final String sourceName;
+	private final int size;
+	private final char[] chunk = new char[CHUNK_SIZE];
+	private int chunkStart = 0;
+	private int chunkEnd = 0;
+	private int position = 0;
+
+	/**
+	 * Instantiates a new document text char stream.
+	 *
+	 * @param content the content
+	 * @param sourceName the source name
+	 */
+	public DocumentTextCharStream(CharSequence content, String sourceName) {
+		Assert.notNull(content, "Content must be set");
+		this.content = content;
+		this.sourceName = sourceName;
+		this.size = content.length();
+	}
+
+	/**
+	 * Checks if a given content only has characters from a {@code BMP}, meaning
+	 * there are no surrogate pairs and char index equals code point index.
+	 *
+	 * @param content the content
+	 * @return true, if content is {@code BMP} only
+	 */
+	public static boolean isBmp(CharSequence content) {
+		Assert.notNull(content, "Content must be set");
+		char[] buf = new char[CHUNK_SIZE];
+		int length = content.length();
+		for (int start = 0; start < length; start += CHUNK_SIZE) {
+			int end = Math.min(length, start + CHUNK_SIZE);
+			getChars(content, start, end, buf);
+			for (int i = 0; i < end - start; i++) {
+				if (Character.isSurrogate(buf[i])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void consume() {
+		if (position >= size) {
+			throw new IllegalStateException("cannot consume EOF");
+		}
+		position++;
+	}
+
+	@Override
+	public int LA(int i) {
+		int index;
+		if (i > 0) {
+			index = position + i - 1;
+		} else if (i < 0) {
+			index = position + i;
+		} else {
+			// undefined
+			return 0;
+		}
+		if (index < 0 || index >= size) {
+			return IntStream.EOF;
+		}
+		if (index < chunkStart || index >= chunkEnd) {
+			chunkStart = index - (index % CHUNK_SIZE);
+			chunkEnd = Math.min(size, chunkStart + CHUNK_SIZE);
+			getChars(content, chunkStart, chunkEnd, chunk);
+		}
+		return chunk[index - chunkStart];
+	}
+
+	@Override
+	public int mark() {
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return position;
+	}
+
+	@Override
+	public void seek(int index) {
+		position = index;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String getSourceName() {
+		return StringUtils.hasText(sourceName) ? sourceName : IntStream.UNKNOWN_SOURCE_NAME;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		int start = Math.min(interval.a, size);
+		int length = Math.min(interval.b - interval.a + 1, size - start);
+		if (length <= 0) {
+			return "";
+		}
+		return content.subSequence(start, start + length).toString();
+	}
+
+	@Override
+	public String toString() {
+		return getText(Interval.of(0, size - 1));
+	}
+
+	private static void getChars(CharSequence content, int start, int end, char[] dest) {
+		if (content instanceof DocumentText) {
+			((DocumentText) content).getChars(start, end, dest, 0);
+		} else if (content instanceof String) {
+			((String) content).getChars(start, end, dest, 0);
+		} else {
+			for (int i = start; i < end; i++) {
+				dest[i - start] = content.charAt(i);
+			}
+		}
+	}
+}
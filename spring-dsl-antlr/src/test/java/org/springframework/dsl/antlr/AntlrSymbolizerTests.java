@@ -15,25 +15,44 @@
  */
 package org.springframework.dsl.antlr;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
-import static org.junit.Assert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.dsl.antlr.support.DefaultAntlrParseService;
+import org.springframework.dsl.document.Document;
 import org.springframework.dsl.document.TextDocument;
 import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.model.LanguageId;
 import org.springframework.dsl.service.DslContext;
+import org.springframework.dsl.symboltable.SymbolTable;
+import org.springframework.dsl.symboltable.support.CompactSymbolTable;
+import org.springframework.dsl.symboltable.support.SymbolTableSnapshotStore;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class AntlrSymbolizerTests {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void testTest2Empty() {
 		String input = "";
@@ -48,6 +67,84 @@ public class AntlrSymbolizerTests {
 				"org.springframework.statemachine.transition.Transition", "S1"));
 	}
 
+	@Test
+	public void testTest2SymbolTableSnapshot() throws IOException {
+		String input = TestResourceUtils.resourceAsString(getClass(), "1.test2");
+		TextDocument document = new TextDocument("uri", LanguageId.TXT, 0, input);
+		DslContext context = DslContext.builder().document(document).build();
+		SymbolTableSnapshotStore store = new SymbolTableSnapshotStore(folder.getRoot().toPath());
+		store.setScheduler(Schedulers.immediate());
+		AtomicInteger parses = new AtomicInteger();
+
+		Test2AntlrParseResultFunction function1 = new CountingTest2AntlrParseResultFunction(parses, null);
+		function1.setSymbolTableSnapshotStore(store);
+		DefaultAntlrParseService<Object> service1 = new DefaultAntlrParseService<>();
+		List<String> parsed = symbolNames(
+				new Test2AntlrSymbolizer(service1, function1).symbolInformations(context));
+		assertThat(parses.get(), is(1));
+		service1.destroy();
+
+		// a new function like after a restart doesn't parse a same content
+		Test2AntlrParseResultFunction function2 = new CountingTest2AntlrParseResultFunction(parses, null);
+		function2.setSymbolTableSnapshotStore(store);
+		DefaultAntlrParseService<Object> service2 = new DefaultAntlrParseService<>();
+		Test2AntlrSymbolizer symbolizer2 = new Test2AntlrSymbolizer(service2, function2);
+		List<String> loaded = symbolNames(symbolizer2.symbolInformations(context));
+		assertThat(parses.get(), is(1));
+		assertThat(loaded, is(parsed));
+
+		// full symbol table is always parsed
+		SymbolTable symbolTable = service2.parse(document, function2).flatMap(r -> Mono.from(r.getSymbolTable()))
+				.block();
+		assertThat(parses.get(), is(2));
+		assertThat(symbolTable, not(instanceOf(CompactSymbolTable.class)));
+
+		TextDocument changed = new TextDocument("uri", LanguageId.TXT, 1, input + "\n");
+		symbolNames(symbolizer2.symbolInformations(DslContext.builder().document(changed).build()));
+		assertThat(parses.get(), is(3));
+		service2.destroy();
+	}
+
+	@Test
+	public void testTest2ParsedOnParseScheduler() throws IOException {
+		String input = TestResourceUtils.resourceAsString(getClass(), "1.test2");
+		TextDocument document = new TextDocument("uri", LanguageId.TXT, 0, input);
+		AtomicReference<String> thread = new AtomicReference<>();
+		DefaultAntlrParseService<Object> service = new DefaultAntlrParseService<>(1, 10);
+		AtomicInteger parses = new AtomicInteger();
+		Test2AntlrParseResultFunction function = new CountingTest2AntlrParseResultFunction(parses, thread);
+
+		AntlrParseResult<Object> result = service.parse(document, function).block();
+		assertThat(thread.get(), startsWith("antlr-parse"));
+		assertThat(Mono.from(result.getSymbolTable()).block(), notNullValue());
+		assertThat(parses.get(), is(1));
+		service.destroy();
+	}
+
+	private static List<String> symbolNames(Flux<SymbolInformation> symbolInformations) {
+		return symbolInformations.map(SymbolInformation::getName).collectList().block();
+	}
+
+	private static class CountingTest2AntlrParseResultFunction extends Test2AntlrParseResultFunction {
+
+		private final AtomicInteger parses;
+		private final AtomicReference<String> thread;
+
+		CountingTest2AntlrParseResultFunction(AtomicInteger parses, AtomicReference<String> thread) {
+			this.parses = parses;
+			this.thread = thread;
+		}
+
+		@Override
+		protected Mono<AntlrParseResult<Object>> parse(Document document) {
+			parses.incrementAndGet();
+			if (thread != null) {
+				thread.set(Thread.currentThread().getName());
+			}
+			return super.parse(document);
+		}
+	}
+
 	private static void assertTest2Symbols(String input, List<String> expect) {
 		TextDocument document = new TextDocument("", LanguageId.TXT, 0, input);
 
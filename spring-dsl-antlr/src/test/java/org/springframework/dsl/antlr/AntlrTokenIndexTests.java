@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+import org.springframework.dsl.Test2Lexer;
+
+/**
+ * Tests for {@link AntlrTokenIndex}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrTokenIndexTests {
+
+	@Test
+	public void testTokenAtOffset() {
+		// 0123456789
+		// state S1 {
+		AntlrTokenIndex index = AntlrTokenIndex.of(new Test2Lexer(CharStreams.fromString("state S1 {")));
+
+		assertThat(index.size()).isEqualTo(5);
+		assertThat(index.getType(0)).isEqualTo(Test2Lexer.STATE);
+		assertThat(index.getStart(0)).isEqualTo(0);
+		assertThat(index.getLength(0)).isEqualTo(5);
+		assertThat(index.getChannel(1)).isEqualTo(Token.HIDDEN_CHANNEL);
+
+		assertThat(index.tokenAt(0)).isEqualTo(0);
+		assertThat(index.tokenAt(4)).isEqualTo(0);
+		assertThat(index.tokenAt(5)).isEqualTo(1);
+		assertThat(index.getType(index.tokenAt(7))).isEqualTo(Test2Lexer.ID);
+		assertThat(index.getType(index.tokenAt(9))).isEqualTo(Test2Lexer.LBRACE);
+		assertThat(index.tokenAt(10)).isEqualTo(-1);
+		assertThat(index.tokenAt(-1)).isEqualTo(-1);
+		assertThat(index.tokenAtOrBefore(100)).isEqualTo(4);
+	}
+
+	@Test
+	public void testEmpty() {
+		AntlrTokenIndex index = AntlrTokenIndex.of(new Test2Lexer(CharStreams.fromString("")));
+		assertThat(index.size()).isEqualTo(0);
+		assertThat(index.tokenAt(0)).isEqualTo(-1);
+	}
+}
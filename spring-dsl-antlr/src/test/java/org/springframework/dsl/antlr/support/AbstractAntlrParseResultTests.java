@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.Hover;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.service.reconcile.DefaultReconcileProblem;
+import org.springframework.dsl.service.reconcile.ReconcileProblem;
+import org.springframework.dsl.service.symbol.SymbolizeInfo;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link AbstractAntlrParseResult}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AbstractAntlrParseResultTests {
+
+	@Test
+	public void testArtifactsComputedOnce() {
+		AtomicInteger resultCount = new AtomicInteger();
+		AtomicInteger problemCount = new AtomicInteger();
+		AtomicInteger symbolCount = new AtomicInteger();
+		AbstractAntlrParseResult<String> result = new AbstractAntlrParseResult<String>() {
+
+			@Override
+			protected Mono<String> createResult() {
+				return Mono.fromCallable(() -> "hi" + resultCount.incrementAndGet());
+			}
+
+			@Override
+			protected Flux<ReconcileProblem> createReconcileProblems() {
+				return Flux.defer(() -> {
+					problemCount.incrementAndGet();
+					return Flux.just(new DefaultReconcileProblem("error", Range.from(0, 0, 0, 1)));
+				});
+			}
+
+			@Override
+			protected SymbolizeInfo createSymbolizeInfo() {
+				Flux<DocumentSymbol> symbols = Flux.defer(() -> {
+					symbolCount.incrementAndGet();
+					return Flux.just(DocumentSymbol.documentSymbol()
+							.name("symbol")
+							.range(Range.from(0, 0, 0, 5))
+							.build());
+				});
+				return SymbolizeInfo.of(symbols, Flux.empty());
+			}
+		};
+
+		assertThat(result.getResult().block()).isEqualTo("hi1");
+		assertThat(result.getResult().block()).isEqualTo("hi1");
+		assertThat(resultCount.get()).isEqualTo(1);
+
+		assertThat(result.getReconcileProblems().collectList().block()).hasSize(1);
+		assertThat(result.getReconcileProblems().collectList().block()).hasSize(1);
+		assertThat(problemCount.get()).isEqualTo(1);
+
+		Hover hover = result.getHover(new Position(0, 2)).block();
+		assertThat(hover).isNotNull();
+		assertThat(hover.getContents().getValue()).isEqualTo("symbol");
+		assertThat(result.getHover(new Position(1, 0)).block()).isNull();
+		assertThat(result.getSymbolizeInfo().documentSymbols().collectList().block()).hasSize(1);
+		assertThat(symbolCount.get()).isEqualTo(1);
+		assertThat(result.getSymbolTable().block()).isNull();
+	}
+}
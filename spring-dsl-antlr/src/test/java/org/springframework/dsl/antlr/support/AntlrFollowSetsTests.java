@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dsl.Test1Lexer;
+import org.springframework.dsl.Test1Parser;
+import org.springframework.dsl.Test2Grammar;
+import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.AntlrCompletionResult;
+import org.springframework.dsl.antlr.TestAntrlUtils;
+import org.springframework.dsl.domain.Position;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Tests for {@link AntlrFollowSets}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrFollowSetsTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testWarmUpSharedWithParser() {
+		AntlrFollowSets warmed = AntlrFollowSets.warmUp(TestAntrlUtils.TEST2_ANTRL_FACTORY);
+		Test2Grammar parser = createParser("");
+		assertThat(AntlrFollowSets.of(parser, null)).isSameAs(warmed);
+		assertThat(AntlrFollowSets.of(parser, Collections.emptySet())).isSameAs(warmed);
+		assertThat(AntlrFollowSets.of(parser, Collections.singleton(Test2Lexer.ID))).isNotSameAs(warmed);
+		assertThat(warmed.getRuleFollowSets(Test2Grammar.RULE_definitions).combined
+				.contains(Test2Lexer.STATEMACHINE)).isTrue();
+	}
+
+	@Test
+	public void testConcurrentCompletion() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<AntlrCompletionResult>> tasks = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				tasks.add(() -> {
+					Test2Grammar parser = createParser("statemachine M1 { state S1 {");
+					parser.definitions();
+					return new DefaultAntlrCompletionEngine(parser).collectResults(new Position(0, 28), null);
+				});
+			}
+			for (Future<AntlrCompletionResult> future : executor.invokeAll(tasks)) {
+				AntlrCompletionResult candidates = future.get();
+				assertThat(candidates.getTokens().size()).isEqualTo(3);
+				assertThat(candidates.getTokens().containsKey(Test2Lexer.INITIAL)).isTrue();
+				assertThat(candidates.getTokens().containsKey(Test2Lexer.END)).isTrue();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		Test2Grammar parser = createParser("");
+		AntlrFollowSets followSets = AntlrFollowSets.of(parser, Collections.singleton(Test2Lexer.ID));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		followSets.write(parser, out);
+
+		AntlrFollowSets read = AntlrFollowSets.read(parser, ByteBuffer.wrap(out.toByteArray()));
+		assertThat(read).isNotNull();
+		for (int i = 0; i < parser.getRuleNames().length; i++) {
+			AntlrFollowSets.RuleFollowSets expected = followSets.getRuleFollowSets(i);
+			AntlrFollowSets.RuleFollowSets actual = read.getRuleFollowSets(i);
+			assertThat(actual.combined).isEqualTo(expected.combined);
+			assertThat(actual.sets).hasSameSizeAs(expected.sets);
+			for (int j = 0; j < expected.sets.size(); j++) {
+				assertThat(actual.sets.get(j).intervals).isEqualTo(expected.sets.get(j).intervals);
+				assertThat(actual.sets.get(j).path).isEqualTo(expected.sets.get(j).path);
+				assertThat(actual.sets.get(j).following).isEqualTo(expected.sets.get(j).following);
+			}
+		}
+	}
+
+	@Test
+	public void testGeneratedResourceMatchesParser() throws Exception {
+		File folder = temporaryFolder.newFolder();
+		File file = AntlrFollowSetsGenerator.generate(folder, Test2Grammar.class.getName());
+		assertThat(file.getName()).isEqualTo("Test2Grammar.followsets");
+		assertThat(file.getParentFile()).isEqualTo(new File(folder, "org/springframework/dsl"));
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+		assertThat(AntlrFollowSets.read(createParser(""), buffer.duplicate())).isNotNull();
+		Test1Parser test1Parser = TestAntrlUtils.TEST1_ANTRL_FACTORY
+				.createParser(new CommonTokenStream(new Test1Lexer(CharStreams.fromString(""))));
+		assertThat(AntlrFollowSets.read(test1Parser, buffer.duplicate())).isNull();
+	}
+
+	@Test
+	public void testLoadedFromClasspathResource() throws Exception {
+		Test2Grammar parser = createParser("");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AntlrFollowSets.build(parser, Collections.emptySet()).write(parser, out);
+		// start of a first interval of a first rule changed to tell loaded sets apart
+		ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+		assertThat(buffer.getInt(16)).isPositive();
+		assertThat(buffer.getInt(20)).isPositive();
+		int changed = buffer.getInt(24) - 100;
+		buffer.putInt(24, changed);
+		Parser reloaded = reloadTest2Grammar(followSetsResource(buffer.array()));
+
+		AntlrFollowSets loaded = AntlrFollowSets.of(reloaded, null);
+		assertThat(loaded.getRuleFollowSets(0).combined.contains(changed)).isTrue();
+		assertThat(AntlrFollowSets.build(reloaded, Collections.emptySet()).getRuleFollowSets(0).combined
+				.contains(changed)).isFalse();
+	}
+
+	@Test
+	public void testFingerprintMismatchComputed() throws Exception {
+		Test1Parser test1Parser = TestAntrlUtils.TEST1_ANTRL_FACTORY
+				.createParser(new CommonTokenStream(new Test1Lexer(CharStreams.fromString(""))));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AntlrFollowSets.of(test1Parser, null).write(test1Parser, out);
+		Parser reloaded = reloadTest2Grammar(followSetsResource(out.toByteArray()));
+
+		AntlrFollowSets computed = AntlrFollowSets.of(reloaded, null);
+		assertThat(combined(computed, reloaded))
+				.isEqualTo(combined(AntlrFollowSets.build(reloaded, Collections.emptySet()), reloaded));
+	}
+
+	private File followSetsResource(byte[] bytes) throws Exception {
+		File folder = temporaryFolder.newFolder();
+		File file = new File(new File(folder, "org/springframework/dsl"), "Test2Grammar.followsets");
+		Files.createDirectories(file.getParentFile().toPath());
+		Files.write(file.toPath(), bytes);
+		return folder;
+	}
+
+	private static Parser reloadTest2Grammar(File resources) throws Exception {
+		// parser class defined again by a loader seeing resources, has its own ATN
+		ClassLoader classLoader = new ReloadingClassLoader(Test2Grammar.class.getName(), resources);
+		Class<?> parserClass = classLoader.loadClass(Test2Grammar.class.getName());
+		assertThat(parserClass).isNotSameAs(Test2Grammar.class);
+		TokenStream tokenStream = new CommonTokenStream(new ListTokenSource(Collections.emptyList()));
+		return (Parser) parserClass.getConstructor(TokenStream.class).newInstance(tokenStream);
+	}
+
+	private static List<String> combined(AntlrFollowSets followSets, Parser parser) {
+		List<String> combined = new ArrayList<>();
+		for (int i = 0; i < parser.getRuleNames().length; i++) {
+			for (AntlrFollowSets.FollowSetWithPath set : followSets.getRuleFollowSets(i).sets) {
+				combined.add(i + " " + set.intervals + " " + Arrays.toString(set.path) + " " + set.following);
+			}
+		}
+		return combined;
+	}
+
+	private static class ReloadingClassLoader extends ClassLoader {
+
+		private final String className;
+		private final File resources;
+
+		ReloadingClassLoader(String className, File resources) {
+			super(AntlrFollowSetsTests.class.getClassLoader());
+			this.className = className;
+			this.resources = resources;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(className)) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> clazz = findLoadedClass(name);
+				if (clazz == null) {
+					try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+						byte[] bytes = StreamUtils.copyToByteArray(in);
+						clazz = defineClass(name, bytes, 0, bytes.length);
+					} catch (IOException e) {
+						throw new ClassNotFoundException(name, e);
+					}
+				}
+				return clazz;
+			}
+		}
+
+		@Override
+		public URL getResource(String name) {
+			File file = new File(resources, name);
+			if (file.isFile()) {
+				try {
+					return file.toURI().toURL();
+				} catch (MalformedURLException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return super.getResource(name);
+		}
+	}
+
+	private static Test2Grammar createParser(String input) {
+		Test2Lexer lexer = TestAntrlUtils.TEST2_ANTRL_FACTORY.createLexer(CharStreams.fromString(input));
+		return TestAntrlUtils.TEST2_ANTRL_FACTORY.createParser(new CommonTokenStream(lexer));
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenStream;
+import org.junit.Test;
+import org.springframework.dsl.Test2Grammar;
+import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.AntlrParseResult;
+import org.springframework.dsl.antlr.TestAntrlUtils;
+import org.springframework.dsl.document.TextDocument;
+import org.springframework.dsl.domain.FoldingRange;
+import org.springframework.dsl.model.LanguageId;
+import org.springframework.dsl.service.reconcile.ReconcileProblem;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link AntlrParseGuard}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrParseGuardTests {
+
+	@Test
+	public void testWithinLimits() {
+		AntlrParseGuard guard = new AntlrParseGuard(10, Duration.ofMinutes(1), 1000);
+		AntlrParseResult<String> result = guard.parse(createParser("state S1 {\n  initial\n}"), p -> {
+			p.definitions();
+			return AntlrParseResult.from("parsed");
+		});
+		assertThat(result.getResult().block()).isEqualTo("parsed");
+	}
+
+	@Test
+	public void testTooManyTokens() {
+		AntlrParseGuard guard = new AntlrParseGuard(10, Duration.ofMinutes(1), 5);
+		AntlrParseResult<String> result = guard.parse(createParser("state S1 {\n  initial\n}\nstate S2 {"), p -> {
+			p.definitions();
+			return AntlrParseResult.from("parsed");
+		});
+		assertThat(result.getResult().block()).isNull();
+		List<ReconcileProblem> problems = result.getReconcileProblems().collectList().block();
+		assertThat(problems).hasSize(2);
+		assertThat(problems.get(0).getMessage()).contains("tokens");
+		assertThat(problems.get(1).getMessage()).isEqualTo("Unbalanced '{'");
+		assertThat(problems.get(1).getRange().getStart().getLine()).isEqualTo(3);
+		List<FoldingRange> foldingRanges = result.getFoldingRanges().collectList().block();
+		assertThat(foldingRanges).hasSize(1);
+		assertThat(foldingRanges.get(0).getStartLine()).isEqualTo(0);
+		assertThat(foldingRanges.get(0).getEndLine()).isEqualTo(2);
+	}
+
+	@Test
+	public void testTooManyRecoveries() {
+		AntlrParseGuard guard = new AntlrParseGuard(1, Duration.ofMinutes(1), 1000);
+		Test2Grammar parser = createParser("state { } state { } state { }");
+		parser.removeErrorListeners();
+		AntlrParseResult<String> result = guard.parse(parser, p -> {
+			p.definitions();
+			return AntlrParseResult.from("parsed");
+		});
+		assertThat(result.getResult().block()).isNull();
+		assertThat(result.getReconcileProblems().blockFirst().getMessage()).contains("error recoveries");
+	}
+
+	@Test
+	public void testParseTimeWithoutErrors() {
+		AntlrParseGuard guard = new AntlrParseGuard(10, Duration.ZERO, 1000);
+		AntlrParseResult<String> result = guard.parse(createParser("state S1 {\n  initial\n}"), p -> {
+			p.definitions();
+			return AntlrParseResult.from("parsed");
+		});
+		assertThat(result.getResult().block()).isNull();
+		assertThat(result.getReconcileProblems().blockFirst().getMessage()).contains("took longer");
+	}
+
+	@Test
+	public void testRecoveriesCountedWithUserErrorHandler() {
+		AntlrParseGuard guard = new AntlrParseGuard(1, Duration.ofMinutes(1), 1000);
+		Test2Grammar parser = createParser("state { } state { } state { }");
+		parser.removeErrorListeners();
+		AntlrParseResult<String> result = guard.parse(parser, p -> {
+			p.setErrorHandler(new DefaultErrorStrategy());
+			p.definitions();
+			return AntlrParseResult.from("parsed");
+		});
+		assertThat(result.getResult().block()).isNull();
+		assertThat(result.getReconcileProblems().blockFirst().getMessage()).contains("error recoveries");
+	}
+
+	@Test
+	public void testParseTimeOnlyWithinOutermostRule() throws InterruptedException {
+		createParser("state S1 {\n  initial\n}").definitions();
+		AntlrParseGuard guard = new AntlrParseGuard(10, Duration.ofMillis(500), 1000);
+		Test2Grammar parser = createParser("state S1 {\n  initial\n}");
+		guard.guard(parser);
+		Thread.sleep(600);
+		parser.definitions();
+		Thread.sleep(600);
+
+		assertThat(parser.getInputStream()).isInstanceOf(BufferedTokenStream.class);
+		TokenStream tokenStream = parser.getInputStream();
+		for (int i = 0; i < 1000; i++) {
+			tokenStream.seek(0);
+			assertThat(tokenStream.LT(1).getText()).isEqualTo("state");
+		}
+	}
+
+	@Test
+	public void testNotGuardedByDefault() {
+		AntlrObjectSupport<Test2Lexer, Test2Grammar> support = new AntlrObjectSupport<Test2Lexer, Test2Grammar>(
+				TestAntrlUtils.TEST2_ANTRL_FACTORY) {
+		};
+		assertThat(support.getParseGuard()).isNull();
+	}
+
+	@Test
+	public void testGuardedParserInParseService() {
+		AntlrObjectSupport<Test2Lexer, Test2Grammar> support = new AntlrObjectSupport<Test2Lexer, Test2Grammar>(
+				TestAntrlUtils.TEST2_ANTRL_FACTORY) {
+		};
+		support.setParseGuard(new AntlrParseGuard(10, Duration.ofMinutes(1), 5));
+		TextDocument document = new TextDocument("uri", LanguageId.TXT, 0, "state S1 {\n  initial\n}");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>();
+
+		AntlrParseResult<String> result = service.parse(document, d -> Mono.fromCallable(() -> {
+			support.getParser(AntlrUtils.documentToCharStream(d)).definitions();
+			return AntlrParseResult.from("parsed");
+		})).block();
+
+		assertThat(result.getResult().block()).isNull();
+		assertThat(result.getReconcileProblems().blockFirst().getMessage()).contains("tokens");
+		assertThat(result.getFoldingRanges().collectList().block()).hasSize(1);
+		service.destroy();
+	}
+
+	private static Test2Grammar createParser(String input) {
+		Test2Lexer lexer = TestAntrlUtils.TEST2_ANTRL_FACTORY.createLexer(CharStreams.fromString(input));
+		return TestAntrlUtils.TEST2_ANTRL_FACTORY.createParser(new CommonTokenStream(lexer));
+	}
+}
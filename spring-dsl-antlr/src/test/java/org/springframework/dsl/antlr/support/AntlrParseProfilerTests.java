@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.atn.ProfilingATNSimulator;
+import org.junit.Test;
+import org.springframework.dsl.Test2Grammar;
+import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.TestAntrlUtils;
+import org.springframework.dsl.antlr.support.AntlrParseProfiler.DecisionStats;
+
+/**
+ * Tests for {@link AntlrParseProfiler}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class AntlrParseProfilerTests {
+
+	@Test
+	public void testProfiledParseAggregated() {
+		AntlrParseProfiler profiler = new AntlrParseProfiler(1);
+		TestObjectSupport support = new TestObjectSupport();
+		support.setParseProfiler(profiler);
+
+		for (int i = 0; i < 2; i++) {
+			Test2Grammar parser = support.getParser(CharStreams.fromString("state S1 { initial } state S2 { end }"));
+			assertThat(parser.getInterpreter()).isInstanceOf(ProfilingATNSimulator.class);
+			parser.definitions();
+			assertThat(parser.getInterpreter()).isNotInstanceOf(ProfilingATNSimulator.class);
+		}
+
+		assertThat(profiler.getProfiledParses()).isEqualTo(2);
+		List<DecisionStats> top = profiler.getTopDecisions(3);
+		assertThat(top).isNotEmpty();
+		assertThat(top.size()).isLessThanOrEqualTo(3);
+		assertThat(top.get(0).getGrammar()).isEqualTo("Test2Grammar.g4");
+		assertThat(top.get(0).getInvocations()).isGreaterThan(0);
+		assertThat(top.get(0).getTimeInPrediction()).isGreaterThanOrEqualTo(top.get(top.size() - 1).getTimeInPrediction());
+		profiler.logReport(3);
+	}
+
+	@Test
+	public void testNotSampled() {
+		AntlrParseProfiler profiler = new AntlrParseProfiler(0);
+		TestObjectSupport support = new TestObjectSupport();
+		support.setParseProfiler(profiler);
+
+		Test2Grammar parser = support.getParser(CharStreams.fromString("state S1 { initial }"));
+		assertThat(parser.getInterpreter()).isNotInstanceOf(ProfilingATNSimulator.class);
+		parser.definitions();
+		assertThat(profiler.getProfiledParses()).isEqualTo(0);
+		assertThat(profiler.getTopDecisions(3)).isEmpty();
+	}
+
+	private static class TestObjectSupport extends AntlrObjectSupport<Test2Lexer, Test2Grammar> {
+
+		TestObjectSupport() {
+			super(TestAntrlUtils.TEST2_ANTRL_FACTORY);
+		}
+	}
+}
@@ -17,6 +17,8 @@ package org.springframework.dsl.antlr.support;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -28,6 +30,7 @@ import org.springframework.dsl.Test1Lexer;
 import org.springframework.dsl.Test1Parser;
 import org.springframework.dsl.Test2Grammar;
 import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.AntlrCompletionLimits;
 import org.springframework.dsl.antlr.AntlrCompletionResult;
 import org.springframework.dsl.antlr.AntlrFactory;
 import org.springframework.dsl.antlr.support.DefaultAntlrCompletionEngine;
@@ -240,4 +243,73 @@ public class DefaultAntlrCompletionEngineTests {
 		// currently for this plain invalid input we don't get anything
 		assertThat(candidates.getTokens().size()).isEqualTo(0);
 	}
+
+	@Test
+	public void testMaxStatesReturnsPartial() {
+		String input = "statemachine M1 { state S1 {";
+
+		Test2Lexer lexer = test2AntlrFactory.createLexer(CharStreams.fromString(input));
+		Test2Grammar parser = test2AntlrFactory.createParser(new CommonTokenStream(lexer));
+
+		parser.definitions();
+
+		DefaultAntlrCompletionEngine core = new DefaultAntlrCompletionEngine(parser);
+		AntlrCompletionResult candidates = core.collectResults(new Position(0, 28), null,
+				AntlrCompletionLimits.unlimited().withMaxStates(5));
+
+		assertThat(candidates.isPartial()).isTrue();
+		assertThat(candidates.getTokens().size()).isEqualTo(0);
+
+		candidates = core.collectResults(new Position(0, 28), null,
+				AntlrCompletionLimits.unlimited().withMaxStates(10000).withTimeout(Duration.ofMinutes(1)));
+
+		assertThat(candidates.isPartial()).isFalse();
+		assertThat(candidates.getTokens().size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testCancelledReturnsPartial() {
+		String input = "statemachine M1 { state S1 {";
+
+		Test2Lexer lexer = test2AntlrFactory.createLexer(CharStreams.fromString(input));
+		Test2Grammar parser = test2AntlrFactory.createParser(new CommonTokenStream(lexer));
+
+		parser.definitions();
+
+		DefaultAntlrCompletionEngine core = new DefaultAntlrCompletionEngine(parser);
+		AntlrCompletionResult candidates = core.collectResults(new Position(0, 28), null,
+				AntlrCompletionLimits.unlimited().withCancellation(() -> true));
+		assertThat(candidates.isPartial()).isTrue();
+
+		candidates = core.collectResults(new Position(0, 28), null,
+				AntlrCompletionLimits.unlimited().withTimeout(Duration.ZERO));
+		assertThat(candidates.isPartial()).isTrue();
+	}
+
+	@Test
+	public void testResultCache() {
+		AntlrCompletionResultCache cache = new AntlrCompletionResultCache();
+
+		AntlrCompletionResult candidates1 = complete(cache, "statemachine M1 { state S1 {", 28);
+		assertThat(candidates1.getTokens().size()).isEqualTo(3);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+
+		// caret at a start of a token being typed, tokens before it unchanged
+		AntlrCompletionResult candidates2 = complete(cache, "statemachine M1 { state S1 { in", 29);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(candidates2).isSameAs(candidates1);
+
+		AntlrCompletionResult candidates3 = complete(cache, "statemachine M1 { state S1 { initial ", 37);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+		assertThat(candidates3).isNotSameAs(candidates1);
+	}
+
+	private AntlrCompletionResult complete(AntlrCompletionResultCache cache, String input, int character) {
+		Test2Lexer lexer = test2AntlrFactory.createLexer(new DocumentTextCharStream(input, "uri"));
+		Test2Grammar parser = test2AntlrFactory.createParser(new CommonTokenStream(lexer));
+		parser.definitions();
+		DefaultAntlrCompletionEngine core = new DefaultAntlrCompletionEngine(parser);
+		core.setResultCache(cache);
+		return core.collectResults(new Position(0, character), null);
+	}
 }
@@ -16,15 +16,32 @@
 package org.springframework.dsl.antlr.support;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 
 import org.junit.Test;
+import org.springframework.dsl.Test2Grammar;
+import org.springframework.dsl.Test2Lexer;
 import org.springframework.dsl.antlr.AntlrParseResult;
+import org.springframework.dsl.antlr.AntlrTokenIndex;
+import org.springframework.dsl.antlr.TestAntrlUtils;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.document.TextDocument;
+import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.model.LanguageId;
 import org.springframework.dsl.service.reconcile.ReconcileProblem;
+import org.springframework.dsl.service.symbol.WorkspaceSymbolIndex;
+import org.springframework.dsl.service.symbol.WorkspaceSymbolIndexer;
 import org.springframework.dsl.symboltable.SymbolTable;
 
 import reactor.core.publisher.Flux;
@@ -66,6 +83,148 @@ public class DefaultAntlrParseServiceTests {
 		assertThat(mono1.block()).isNotSameAs(mono3.block());
 	}
 
+	@Test
+	public void testParsesOnSchedulerWithMetrics() {
+		TextDocument document = new TextDocument("", LanguageId.TXT, 0, "");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>(1, 10);
+		AtomicReference<String> thread = new AtomicReference<>();
+
+		AntlrParseResult<String> result = service.parse(document, d -> {
+			thread.set(Thread.currentThread().getName());
+			return Mono.just(a1);
+		}).block();
+
+		assertThat(result).isSameAs(a1);
+		assertThat(thread.get()).startsWith("antlr-parse");
+		assertThat(service.getParseCount()).isEqualTo(1);
+		assertThat(service.getQueueDepth()).isEqualTo(0);
+		assertThat(service.getMaxParseLatency()).isGreaterThanOrEqualTo(service.getAverageParseLatency());
+		service.destroy();
+	}
+
+	@Test
+	public void testParsesOnWorkspaceSymbolIndexerPool() {
+		WorkspaceSymbolIndexer indexer = new WorkspaceSymbolIndexer(2);
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>();
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			documents.add(new TextDocument("uri" + i, LanguageId.TXT, 0, ""));
+		}
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		List<Document> indexed = indexer.index(documents, document -> service.parse(document, d -> {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			threads.add(Thread.currentThread().getName());
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+			active.decrementAndGet();
+			return Mono.just(a1);
+		}).map(r -> SymbolInformation.symbolInformation().name(document.uri()).build()), index)
+			.collectList().block();
+
+		assertThat(indexed).hasSize(20);
+		assertThat(index.size()).isEqualTo(20);
+		assertThat(maxActive.get()).isBetween(1, 2);
+		assertThat(threads).allMatch(name -> name.startsWith("dsl-symbolize-"));
+		service.destroy();
+		indexer.destroy();
+	}
+
+	@Test
+	public void testSupersededParseCancelled() throws Exception {
+		TextDocument document1 = new TextDocument("uri", LanguageId.TXT, 0, "");
+		TextDocument document2 = new TextDocument("uri", LanguageId.TXT, 1, "");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>(2, 10);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Mono<AntlrParseResult<String>> mono1 = service.parse(document1, d -> Mono.fromCallable(() -> {
+			started.countDown();
+			release.await(2, TimeUnit.SECONDS);
+			return a1;
+		}));
+		CountDownLatch done1 = new CountDownLatch(1);
+		AtomicReference<AntlrParseResult<String>> result1 = new AtomicReference<>();
+		mono1.doFinally(s -> done1.countDown()).subscribe(result1::set);
+		assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+		AntlrParseResult<String> result2 = service.parse(document2, s2).block();
+		assertThat(result2).isSameAs(a2);
+		assertThat(done1.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(result1.get()).isNull();
+		release.countDown();
+		service.destroy();
+	}
+
+	@Test
+	public void testFailedParseNotCached() {
+		TextDocument document = new TextDocument("uri", LanguageId.TXT, 0, "");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>();
+
+		assertThatThrownBy(() -> service.parse(document, d -> Mono.error(new IllegalStateException("fail"))).block())
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(service.parse(document, s1).block()).isSameAs(a1);
+		assertThat(service.parse(document, s2).block()).isSameAs(a1);
+		service.destroy();
+	}
+
+	@Test
+	public void testTokenIndexCachedPerVersion() {
+		TextDocument document1 = new TextDocument("uri", LanguageId.TXT, 0, "state S1 {");
+		TextDocument document2 = new TextDocument("uri", LanguageId.TXT, 1, "state S1 { initial");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>();
+		AntlrObjectSupport<Test2Lexer, Test2Grammar> support = new AntlrObjectSupport<Test2Lexer, Test2Grammar>(
+				TestAntrlUtils.TEST2_ANTRL_FACTORY) {
+		};
+
+		AntlrTokenIndex index1 = service.getTokenIndex(document1, support::getTokenIndex).block();
+		assertThat(index1.size()).isEqualTo(5);
+		assertThat(service.getTokenIndex(document1, support::getTokenIndex).block()).isSameAs(index1);
+		AntlrTokenIndex index2 = service.getTokenIndex(document2, support::getTokenIndex).block();
+		assertThat(index2.size()).isEqualTo(7);
+		service.destroy();
+	}
+
+	@Test
+	public void testTokenIndexInvalidated() {
+		TextDocument document = new TextDocument("uri", LanguageId.TXT, 0, "state S1 {");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>();
+		AntlrObjectSupport<Test2Lexer, Test2Grammar> support = new AntlrObjectSupport<Test2Lexer, Test2Grammar>(
+				TestAntrlUtils.TEST2_ANTRL_FACTORY) {
+		};
+
+		AntlrTokenIndex index1 = service.getTokenIndex(document, support::getTokenIndex).block();
+		service.invalidateTokenIndex("uri");
+		AntlrTokenIndex index2 = service.getTokenIndex(document, support::getTokenIndex).block();
+		assertThat(index2).isNotSameAs(index1);
+		assertThat(index2.size()).isEqualTo(5);
+		service.destroy();
+	}
+
+	@Test
+	public void testTokenIndexBuiltOnSchedulerAndNeverStale() {
+		TextDocument document1 = new TextDocument("uri", LanguageId.TXT, 0, "state S1 {");
+		TextDocument document2 = new TextDocument("uri", LanguageId.TXT, 1, "state S1 { initial");
+		DefaultAntlrParseService<String> service = new DefaultAntlrParseService<>(1, 10);
+		AntlrObjectSupport<Test2Lexer, Test2Grammar> support = new AntlrObjectSupport<Test2Lexer, Test2Grammar>(
+				TestAntrlUtils.TEST2_ANTRL_FACTORY) {
+		};
+		AtomicReference<String> thread = new AtomicReference<>();
+
+		AntlrTokenIndex index2 = service.getTokenIndex(document2, d -> {
+			thread.set(Thread.currentThread().getName());
+			return support.getTokenIndex(d);
+		}).block();
+		assertThat(thread.get()).startsWith("antlr-parse");
+
+		AntlrTokenIndex index1 = service.getTokenIndex(document1, support::getTokenIndex).block();
+		assertThat(index1.size()).isEqualTo(5);
+		assertThat(service.getTokenIndex(document2, support::getTokenIndex).block()).isSameAs(index2);
+		service.destroy();
+	}
+
 	private Function<Document, ? extends Mono<? extends AntlrParseResult<String>>> s1 = (document) -> {
 		return Mono.just(a1);
 	};
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.antlr.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.Test;
+import org.springframework.dsl.Test2Lexer;
+import org.springframework.dsl.antlr.TestAntrlUtils;
+import org.springframework.dsl.document.DocumentText;
+import org.springframework.dsl.document.TextDocument;
+import org.springframework.dsl.model.LanguageId;
+
+/**
+ * Tests for {@link DocumentTextCharStream}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DocumentTextCharStreamTests {
+
+	@Test
+	public void testStreamOperations() {
+		CharStream stream = new DocumentTextCharStream(DocumentText.from("abc"), "uri");
+		assertThat(stream.size()).isEqualTo(3);
+		assertThat(stream.getSourceName()).isEqualTo("uri");
+		assertThat(stream.LA(1)).isEqualTo('a');
+		assertThat(stream.LA(-1)).isEqualTo(IntStream.EOF);
+		stream.consume();
+		assertThat(stream.index()).isEqualTo(1);
+		assertThat(stream.LA(1)).isEqualTo('b');
+		assertThat(stream.LA(-1)).isEqualTo('a');
+		assertThat(stream.LA(3)).isEqualTo(IntStream.EOF);
+		assertThat(stream.getText(Interval.of(1, 5))).isEqualTo("bc");
+		stream.seek(3);
+		assertThat(stream.LA(1)).isEqualTo(IntStream.EOF);
+		assertThat(stream.toString()).isEqualTo("abc");
+	}
+
+	@Test
+	public void testSameTokensAsCodePointStream() {
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			buf.append("state S").append(i).append(" {\n  initial\n}\n");
+		}
+		String content = buf.toString();
+		DocumentText text = DocumentText.from(content.substring(0, 100))
+				.insert(100, DocumentText.from(content.substring(100)));
+
+		assertThat(tokens(new DocumentTextCharStream(text, null))).isEqualTo(tokens(CharStreams.fromString(content)));
+	}
+
+	@Test
+	public void testFallbackOutsideBmp() {
+		String content = "state 😀 {";
+		assertThat(DocumentTextCharStream.isBmp(content)).isFalse();
+		assertThat(DocumentTextCharStream.isBmp("state S1 {")).isTrue();
+		assertThat(AntlrUtils.textToCharStream(content, null)).isNotInstanceOf(DocumentTextCharStream.class);
+		assertThat(AntlrUtils.documentToCharStream(new TextDocument("uri", LanguageId.TXT, 0, "state S1 {")))
+				.isInstanceOf(DocumentTextCharStream.class);
+	}
+
+	private static List<String> tokens(CharStream input) {
+		Test2Lexer lexer = TestAntrlUtils.TEST2_ANTRL_FACTORY.createLexer(input);
+		CommonTokenStream stream = new CommonTokenStream(lexer);
+		stream.fill();
+		return stream.getTokens().stream().map(Token::toString).collect(Collectors.toList());
+	}
+}
@@ -48,12 +48,15 @@ public class LspServerAutoConfigurationTests {
 	public void autoConfigProperties() {
 		this.contextRunner
 				.withUserConfiguration(DslAutoConfiguration.class, LanguageServerControllerAutoConfiguration.class)
-				.withPropertyValues("spring.dsl.lsp.server.mode=PROCESS")
+				.withPropertyValues("spring.dsl.lsp.server.mode=PROCESS",
+						"spring.dsl.lsp.server.workspace.max-symbols=5")
 				.run((context) -> {
 					assertThat(context).hasSingleBean(ReactiveAdapterRegistry.class);
 					assertThat(context).hasSingleBean(RootLanguageServerController.class);
 					assertThat(context).hasSingleBean(TextDocumentLanguageServerController.class);
 					assertThat(context).hasSingleBean(WorkspaceLanguageServerController.class);
+					assertThat(context.getBean(DslConfigurationProperties.class).getLsp().getServer().getWorkspace()
+							.getMaxSymbols()).isEqualTo(5);
 				});
 		this.contextRunner
 				.withUserConfiguration(DslAutoConfiguration.class, LanguageServerControllerAutoConfiguration.class)
@@ -22,4 +22,10 @@ package org.springframework.dsl;
  *
  */
 public final class DslSystemConstants {
+
+	/**
+	 * Subscriber context key of a {@link reactor.core.scheduler.Scheduler}
+	 * services should run their work on instead of their own scheduler.
+	 */
+	public final static String CONTEXT_SCHEDULER_KEY = "dslScheduler";
 }
@@ -128,6 +128,19 @@ public final class DocumentText implements CharSequence {
 		}
 	}
 
+	/**
+	 * Copies characters from this text into a destination character array
+	 * without going through an intermediate {@link String}.
+	 *
+	 * @param start the index of the first character to copy
+	 * @param end the index after the last character to copy
+	 * @param dest the destination array
+	 * @param destPos the start offset in the destination array
+	 */
+	public void getChars(int start, int end, char[] dest, int destPos) {
+		this.text.getChars(start, end, dest, destPos);
+	}
+
 	@Override
 	public char charAt(int index) {
 		return this.text.charAt(index);
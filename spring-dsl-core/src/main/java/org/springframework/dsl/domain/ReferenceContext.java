@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.domain;
+
+import org.springframework.dsl.support.AbstractDomainBuilder;
+import org.springframework.dsl.support.DomainBuilder;
+
+/**
+ * {@code LSP} domain object for a specification {@code ReferenceContext}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class ReferenceContext {
+
+	private boolean includeDeclaration;
+
+	/**
+	 * Instantiates a new reference context.
+	 */
+	public ReferenceContext() {
+	}
+
+	/**
+	 * Instantiates a new reference context.
+	 *
+	 * @param includeDeclaration the include declaration flag
+	 */
+	public ReferenceContext(boolean includeDeclaration) {
+		this.includeDeclaration = includeDeclaration;
+	}
+
+	public boolean isIncludeDeclaration() {
+		return includeDeclaration;
+	}
+
+	public void setIncludeDeclaration(boolean includeDeclaration) {
+		this.includeDeclaration = includeDeclaration;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (includeDeclaration ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ReferenceContext other = (ReferenceContext) obj;
+		if (includeDeclaration != other.includeDeclaration) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ReferenceContext [includeDeclaration=" + includeDeclaration + "]";
+	}
+
+	/**
+	 * Builder interface for {@link ReferenceContext}.
+	 *
+	 * @param <P> the parent builder type
+	 */
+	public interface ReferenceContextBuilder<P> extends DomainBuilder<ReferenceContext, P> {
+
+		/**
+		 * Sets if declaration should be included.
+		 *
+		 * @param includeDeclaration the include declaration flag
+		 * @return the builder for chaining
+		 */
+		ReferenceContextBuilder<P> includeDeclaration(boolean includeDeclaration);
+	}
+
+	/**
+	 * Gets a builder for {@link ReferenceContext}
+	 *
+	 * @return the reference context builder
+	 */
+	public static <P> ReferenceContextBuilder<P> referenceContext() {
+		return new InternalReferenceContextBuilder<>(null);
+	}
+
+	protected static <P> ReferenceContextBuilder<P> referenceContext(P parent) {
+		return new InternalReferenceContextBuilder<>(parent);
+	}
+
+	private static class InternalReferenceContextBuilder<P> extends AbstractDomainBuilder<ReferenceContext, P>
+			implements ReferenceContextBuilder<P> {
+
+		private boolean includeDeclaration;
+
+		InternalReferenceContextBuilder(P parent) {
+			super(parent);
+		}
+
+		@Override
+		public ReferenceContextBuilder<P> includeDeclaration(boolean includeDeclaration) {
+			this.includeDeclaration = includeDeclaration;
+			return this;
+		}
+
+		@Override
+		public ReferenceContext build() {
+			return new ReferenceContext(includeDeclaration);
+		}
+	}
+}
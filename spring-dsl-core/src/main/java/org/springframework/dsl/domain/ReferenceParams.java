@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.domain;
+
+import org.springframework.dsl.domain.Position.PositionBuilder;
+import org.springframework.dsl.domain.ReferenceContext.ReferenceContextBuilder;
+import org.springframework.dsl.domain.TextDocumentIdentifier.TextDocumentIdentifierBuilder;
+import org.springframework.dsl.support.AbstractDomainBuilder;
+import org.springframework.dsl.support.DomainBuilder;
+
+/**
+ * {@code LSP} domain object for a specification {@code ReferenceParams}.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class ReferenceParams {
+
+	private TextDocumentIdentifier textDocument;
+	private Position position;
+	private ReferenceContext context;
+
+	/**
+	 * Instantiates a new reference params.
+	 */
+	public ReferenceParams() {
+	}
+
+	public TextDocumentIdentifier getTextDocument() {
+		return textDocument;
+	}
+
+	public void setTextDocument(TextDocumentIdentifier textDocument) {
+		this.textDocument = textDocument;
+	}
+
+	public Position getPosition() {
+		return position;
+	}
+
+	public void setPosition(Position position) {
+		this.position = position;
+	}
+
+	public ReferenceContext getContext() {
+		return context;
+	}
+
+	public void setContext(ReferenceContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((context == null) ? 0 : context.hashCode());
+		result = prime * result + ((position == null) ? 0 : position.hashCode());
+		result = prime * result + ((textDocument == null) ? 0 : textDocument.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ReferenceParams other = (ReferenceParams) obj;
+		if (context == null) {
+			if (other.context != null) {
+				return false;
+			}
+		} else if (!context.equals(other.context)) {
+			return false;
+		}
+		if (position == null) {
+			if (other.position != null) {
+				return false;
+			}
+		} else if (!position.equals(other.position)) {
+			return false;
+		}
+		if (textDocument == null) {
+			if (other.textDocument != null) {
+				return false;
+			}
+		} else if (!textDocument.equals(other.textDocument)) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ReferenceParams [textDocument=" + textDocument + ", position=" + position + ", context=" + context
+				+ "]";
+	}
+
+	/**
+	 * Builder interface for {@link ReferenceParams}.
+	 *
+	 * @param <P> the parent builder type
+	 */
+	public interface ReferenceParamsBuilder<P> extends DomainBuilder<ReferenceParams, P> {
+
+		/**
+		 * Gets a text document identifier builder.
+		 *
+		 * @return the builder for chaining
+		 */
+		TextDocumentIdentifierBuilder<ReferenceParamsBuilder<P>> textDocument();
+
+		/**
+		 * Gets a position builder.
+		 *
+		 * @return the builder for chaining
+		 */
+		PositionBuilder<ReferenceParamsBuilder<P>> position();
+
+		/**
+		 * Gets a reference context builder.
+		 *
+		 * @return the builder for chaining
+		 */
+		ReferenceContextBuilder<ReferenceParamsBuilder<P>> context();
+	}
+
+	/**
+	 * Gets a builder for {@link ReferenceParams}
+	 *
+	 * @return the reference params builder
+	 */
+	public static <P> ReferenceParamsBuilder<P> referenceParams() {
+		return new InternalReferenceParamsBuilder<>(null);
+	}
+
+	protected static <P> ReferenceParamsBuilder<P> referenceParams(P parent) {
+		return new InternalReferenceParamsBuilder<>(parent);
+	}
+
+	private static class InternalReferenceParamsBuilder<P> extends AbstractDomainBuilder<ReferenceParams, P>
+			implements ReferenceParamsBuilder<P> {
+
+		private TextDocumentIdentifierBuilder<ReferenceParamsBuilder<P>> textDocument;
+		private PositionBuilder<ReferenceParamsBuilder<P>> position;
+		private ReferenceContextBuilder<ReferenceParamsBuilder<P>> context;
+
+		InternalReferenceParamsBuilder(P parent) {
+			super(parent);
+		}
+
+		@Override
+		public TextDocumentIdentifierBuilder<ReferenceParamsBuilder<P>> textDocument() {
+			this.textDocument = TextDocumentIdentifier.textDocumentIdentifier(this);
+			return textDocument;
+		}
+
+		@Override
+		public PositionBuilder<ReferenceParamsBuilder<P>> position() {
+			this.position = Position.position(this);
+			return position;
+		}
+
+		@Override
+		public ReferenceContextBuilder<ReferenceParamsBuilder<P>> context() {
+			this.context = ReferenceContext.referenceContext(this);
+			return context;
+		}
+
+		@Override
+		public ReferenceParams build() {
+			ReferenceParams referenceParams = new ReferenceParams();
+			if (textDocument != null) {
+				referenceParams.setTextDocument(textDocument.build());
+			}
+			if (position != null) {
+				referenceParams.setPosition(position.build());
+			}
+			if (context != null) {
+				referenceParams.setContext(context.build());
+			}
+			return referenceParams;
+		}
+	}
+}
@@ -46,6 +46,8 @@ public class ServerCapabilities {
 	// TODO actual type is boolean | FoldingRangeProviderOptions |
 	//      (FoldingRangeProviderOptions & TextDocumentRegistrationOptions & StaticRegistrationOptions)
 	private Boolean foldingRangeProvider;
+	private Boolean definitionProvider;
+	private Boolean referencesProvider;
 
 	public ServerCapabilities() {
 	}
@@ -130,6 +132,22 @@ public class ServerCapabilities {
 		this.foldingRangeProvider = foldingRangeProvider;
 	}
 
+	public Boolean getDefinitionProvider() {
+		return definitionProvider;
+	}
+
+	public void setDefinitionProvider(Boolean definitionProvider) {
+		this.definitionProvider = definitionProvider;
+	}
+
+	public Boolean getReferencesProvider() {
+		return referencesProvider;
+	}
+
+	public void setReferencesProvider(Boolean referencesProvider) {
+		this.referencesProvider = referencesProvider;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -143,6 +161,8 @@ public class ServerCapabilities {
 		result = prime * result + ((codeLensProvider == null) ? 0 : codeLensProvider.hashCode());
 		result = prime * result + ((workspaceSymbolProvider == null) ? 0 : workspaceSymbolProvider.hashCode());
 		result = prime * result + ((foldingRangeProvider == null) ? 0 : foldingRangeProvider.hashCode());
+		result = prime * result + ((definitionProvider == null) ? 0 : definitionProvider.hashCode());
+		result = prime * result + ((referencesProvider == null) ? 0 : referencesProvider.hashCode());
 		return result;
 	}
 
@@ -217,6 +237,20 @@ public class ServerCapabilities {
 		} else if (!foldingRangeProvider.equals(other.foldingRangeProvider)) {
 			return false;
 		}
+		if (definitionProvider == null) {
+			if (other.definitionProvider != null) {
+				return false;
+			}
+		} else if (!definitionProvider.equals(other.definitionProvider)) {
+			return false;
+		}
+		if (referencesProvider == null) {
+			if (other.referencesProvider != null) {
+				return false;
+			}
+		} else if (!referencesProvider.equals(other.referencesProvider)) {
+			return false;
+		}
 		return true;
 	}
 
@@ -319,6 +353,22 @@ public class ServerCapabilities {
 		ServerCapabilitiesBuilder<P> workspaceSymbolProvider(Boolean workspaceSymbolProvider);
 
 		ServerCapabilitiesBuilder<P> foldingRangeProvider(Boolean foldingRangeProvider);
+
+		/**
+		 * Sets if {@code definitionProvider} is enabled.
+		 *
+		 * @param definitionProvider the provider enabler flag
+		 * @return the builder for chaining
+		 */
+		ServerCapabilitiesBuilder<P> definitionProvider(Boolean definitionProvider);
+
+		/**
+		 * Sets if {@code referencesProvider} is enabled.
+		 *
+		 * @param referencesProvider the provider enabler flag
+		 * @return the builder for chaining
+		 */
+		ServerCapabilitiesBuilder<P> referencesProvider(Boolean referencesProvider);
 	}
 
 	/**
@@ -346,6 +396,8 @@ public class ServerCapabilities {
 		private CodeLensOptionsBuilder<ServerCapabilitiesBuilder<P>> codeLensProvider;
 		private Boolean workspaceSymbolProvider;
 		private Boolean foldingRangeProvider;
+		private Boolean definitionProvider;
+		private Boolean referencesProvider;
 
 		InternalServerCapabilitiesBuilder(P parent) {
 			super(parent);
@@ -433,6 +485,18 @@ public class ServerCapabilities {
 			return this;
 		}
 
+		@Override
+		public ServerCapabilitiesBuilder<P> definitionProvider(Boolean definitionProvider) {
+			this.definitionProvider = definitionProvider;
+			return this;
+		}
+
+		@Override
+		public ServerCapabilitiesBuilder<P> referencesProvider(Boolean referencesProvider) {
+			this.referencesProvider = referencesProvider;
+			return this;
+		}
+
 		@Override
 		public ServerCapabilities build() {
 			ServerCapabilities serverCapabilities = new ServerCapabilities();
@@ -454,6 +518,8 @@ public class ServerCapabilities {
 				serverCapabilities.setWorkspaceSymbolProvider(workspaceSymbolProvider);
 			}
 			serverCapabilities.setFoldingRangeProvider(foldingRangeProvider);
+			serverCapabilities.setDefinitionProvider(definitionProvider);
+			serverCapabilities.setReferencesProvider(referencesProvider);
 			return serverCapabilities;
 		}
 	}
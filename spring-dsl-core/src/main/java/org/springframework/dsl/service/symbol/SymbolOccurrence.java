@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import org.springframework.dsl.domain.Range;
+import org.springframework.util.Assert;
+
+/**
+ * Occurrence of a symbol in a document, either a declaration or a reference to
+ * it. Symbols are identified by a {@code key} which is expected to be same for
+ * all occurrences of a symbol within a document and unique among its symbols,
+ * for example a qualified name together with a position of a declaration.
+ *
+ * @author Janne Valkealahti
+ * @see SymbolOccurrenceIndex
+ *
+ */
+public final class SymbolOccurrence {
+
+	private final String key;
+	private final Range range;
+	private final boolean declaration;
+
+	private SymbolOccurrence(String key, Range range, boolean declaration) {
+		Assert.notNull(key, "key must be set");
+		Assert.notNull(range, "range must be set");
+		this.key = key;
+		this.range = range;
+		this.declaration = declaration;
+	}
+
+	/**
+	 * Create an occurrence declaring a symbol.
+	 *
+	 * @param key the symbol key
+	 * @param range the range
+	 * @return the symbol occurrence
+	 */
+	public static SymbolOccurrence declaration(String key, Range range) {
+		return new SymbolOccurrence(key, range, true);
+	}
+
+	/**
+	 * Create an occurrence referencing a symbol.
+	 *
+	 * @param key the symbol key
+	 * @param range the range
+	 * @return the symbol occurrence
+	 */
+	public static SymbolOccurrence reference(String key, Range range) {
+		return new SymbolOccurrence(key, range, false);
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public Range getRange() {
+		return range;
+	}
+
+	public boolean isDeclaration() {
+		return declaration;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (declaration ? 1231 : 1237);
+		result = prime * result + key.hashCode();
+		result = prime * result + range.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		SymbolOccurrence other = (SymbolOccurrence) obj;
+		return declaration == other.declaration && key.equals(other.key) && range.equals(other.range);
+	}
+
+	@Override
+	public String toString() {
+		return "SymbolOccurrence [key=" + key + ", range=" + range + ", declaration=" + declaration + "]";
+	}
+}
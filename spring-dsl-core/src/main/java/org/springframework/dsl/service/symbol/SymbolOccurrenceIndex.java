@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.dsl.domain.Location;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.util.Assert;
+
+/**
+ * Index of {@link SymbolOccurrence}s of documents mapping symbols to their
+ * declarations and references. Occurrences of a document are replaced as a
+ * whole together with a version of a document they were created from so that
+ * only changed documents need to be processed again.
+ * <p>
+ * Symbol keys are local to a document, thus same key in different documents
+ * never refers to a same symbol. Finding an occurrence at a position is a
+ * binary search within a document.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class SymbolOccurrenceIndex {
+
+	private final ConcurrentMap<String, DocumentOccurrences> documents = new ConcurrentHashMap<>();
+
+	/**
+	 * Checks if occurrences of a document with a given version are indexed.
+	 *
+	 * @param uri the document uri
+	 * @param version the document version
+	 * @return true, if document is indexed with a same version
+	 */
+	public boolean isIndexed(String uri, int version) {
+		DocumentOccurrences occurrences = documents.get(uri);
+		return occurrences != null && occurrences.version == version;
+	}
+
+	/**
+	 * Replace occurrences of a document.
+	 *
+	 * @param uri the document uri
+	 * @param version the document version
+	 * @param occurrences the symbol occurrences
+	 */
+	public void update(String uri, int version, Collection<SymbolOccurrence> occurrences) {
+		Assert.notNull(uri, "uri must be set");
+		Assert.notNull(occurrences, "occurrences must be set");
+		documents.put(uri, new DocumentOccurrences(version, occurrences));
+	}
+
+	/**
+	 * Remove occurrences of a document.
+	 *
+	 * @param uri the document uri
+	 */
+	public void remove(String uri) {
+		documents.remove(uri);
+	}
+
+	/**
+	 * Remove occurrences of all documents not in a given uris.
+	 *
+	 * @param uris the document uris to retain
+	 */
+	public void retain(Collection<String> uris) {
+		documents.keySet().retainAll(uris);
+	}
+
+	/**
+	 * Find an occurrence at a given position in a document. If occurrences
+	 * overlap, one starting last is returned.
+	 *
+	 * @param uri the document uri
+	 * @param position the position
+	 * @return the symbol occurrence or {@code null} if there is none
+	 */
+	public SymbolOccurrence getOccurrence(String uri, Position position) {
+		Assert.notNull(position, "position must be set");
+		DocumentOccurrences occurrences = documents.get(uri);
+		return occurrences != null ? occurrences.at(key(position)) : null;
+	}
+
+	/**
+	 * Gets locations where a symbol is declared in a document.
+	 *
+	 * @param uri the document uri
+	 * @param key the symbol key
+	 * @return the declaration locations
+	 */
+	public List<Location> getDeclarations(String uri, String key) {
+		return getLocations(uri, key, true, false);
+	}
+
+	/**
+	 * Gets locations where a symbol is referenced in a document.
+	 *
+	 * @param uri the document uri
+	 * @param key the symbol key
+	 * @param includeDeclaration if declarations should be included
+	 * @return the reference locations
+	 */
+	public List<Location> getReferences(String uri, String key, boolean includeDeclaration) {
+		return getLocations(uri, key, includeDeclaration, true);
+	}
+
+	/**
+	 * Gets ranges of all occurrences of a symbol in a document, for example to
+	 * build edits for renaming a symbol.
+	 *
+	 * @param uri the document uri
+	 * @param key the symbol key
+	 * @return the occurrence ranges
+	 */
+	public List<Range> getRanges(String uri, String key) {
+		List<Range> ranges = new ArrayList<>();
+		for (SymbolOccurrence occurrence : getOccurrences(uri, key)) {
+			ranges.add(occurrence.getRange());
+		}
+		return ranges;
+	}
+
+	private List<Location> getLocations(String uri, String key, boolean declarations, boolean references) {
+		List<Location> locations = new ArrayList<>();
+		for (SymbolOccurrence occurrence : getOccurrences(uri, key)) {
+			if (occurrence.isDeclaration() ? declarations : references) {
+				locations.add(new Location(uri, occurrence.getRange()));
+			}
+		}
+		return locations;
+	}
+
+	private List<SymbolOccurrence> getOccurrences(String uri, String key) {
+		DocumentOccurrences occurrences = documents.get(uri);
+		List<SymbolOccurrence> list = occurrences != null ? occurrences.byKey.get(key) : null;
+		return list != null ? list : Collections.emptyList();
+	}
+
+	private static long key(Position position) {
+		return ((long) position.getLine() << 32) | (position.getCharacter() & 0xffffffffL);
+	}
+
+	private static class DocumentOccurrences {
+
+		final int version;
+		final Map<String, List<SymbolOccurrence>> byKey = new HashMap<>();
+		final SymbolOccurrence[] sorted;
+		final long[] starts;
+		final long[] ends;
+		// max end of occurrences up to an index, bounds a backward scan
+		final long[] maxEnds;
+
+		DocumentOccurrences(int version, Collection<SymbolOccurrence> occurrences) {
+			this.version = version;
+			this.sorted = occurrences.toArray(new SymbolOccurrence[0]);
+			Arrays.sort(sorted, (a, b) -> Long.compare(key(a.getRange().getStart()), key(b.getRange().getStart())));
+			this.starts = new long[sorted.length];
+			this.ends = new long[sorted.length];
+			this.maxEnds = new long[sorted.length];
+			for (int i = 0; i < sorted.length; i++) {
+				starts[i] = key(sorted[i].getRange().getStart());
+				ends[i] = key(sorted[i].getRange().getEnd());
+				maxEnds[i] = i > 0 ? Math.max(maxEnds[i - 1], ends[i]) : ends[i];
+				byKey.computeIfAbsent(sorted[i].getKey(), k -> new ArrayList<>()).add(sorted[i]);
+			}
+		}
+
+		SymbolOccurrence at(long position) {
+			int low = 0;
+			int high = starts.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (starts[mid] <= position) {
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			for (int i = high; i >= 0 && maxEnds[i] >= position; i--) {
+				if (ends[i] >= position) {
+					return sorted[i];
+				}
+			}
+			return null;
+		}
+	}
+}
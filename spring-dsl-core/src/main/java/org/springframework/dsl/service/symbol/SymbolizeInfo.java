@@ -54,6 +54,16 @@ public interface SymbolizeInfo {
 		return Flux.empty();
 	}
 
+	/**
+	 * Return a flux of symbol occurrences, declarations and references of
+	 * symbols in a document. Defaults to empty flux.
+	 *
+	 * @return the flux of symbol occurrences
+	 */
+	default Flux<SymbolOccurrence> occurrences() {
+		return Flux.empty();
+	}
+
 	/**
 	 * Helper method to build {@code SymbolizeInfo} as just using default methods.
 	 *
@@ -87,6 +97,37 @@ public interface SymbolizeInfo {
 		};
 	}
 
+	/**
+	 * Helper method to build {@code SymbolizeInfo} out from flux's for
+	 * {@link DocumentSymbol}, {@link SymbolInformation} and
+	 * {@link SymbolOccurrence}.
+	 *
+	 * @param documentSymbols    the document symbols
+	 * @param symbolInformations the symbol informations
+	 * @param occurrences        the symbol occurrences
+	 * @return the symbolize info
+	 */
+	public static SymbolizeInfo of(Flux<DocumentSymbol> documentSymbols, Flux<SymbolInformation> symbolInformations,
+			Flux<SymbolOccurrence> occurrences) {
+		return new SymbolizeInfo() {
+
+			@Override
+			public Flux<DocumentSymbol> documentSymbols() {
+				return documentSymbols;
+			}
+
+			@Override
+			public Flux<SymbolInformation> symbolInformations() {
+				return symbolInformations;
+			}
+
+			@Override
+			public Flux<SymbolOccurrence> occurrences() {
+				return occurrences;
+			}
+		};
+	}
+
 	/**
 	 * Helper method to build {@code SymbolizeInfo} out from flux for
 	 * {@link DocumentSymbol}.
@@ -15,9 +15,12 @@
  */
 package org.springframework.dsl.service.symbol;
 
+import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.service.DslContext;
 import org.springframework.dsl.service.DslService;
 
+import reactor.core.publisher.Flux;
+
 /**
  * Strategy interface providing {@link SymbolizeInfo} for a document.
  *
@@ -46,4 +49,29 @@ public interface Symbolizer extends DslService {
 	default SymbolizeInfo symbolize(DslContext context, String query) {
 		return symbolize(context);
 	};
+
+	/**
+	 * Provide symbol informations for a given document for callers which only
+	 * need names, kinds and ranges of symbols, like workspace symbols.
+	 * Implementations may provide those from a cheaper source than a full
+	 * symbolize, i.e. a snapshot. This method defaults to symbol informations
+	 * of {@link #symbolize(DslContext)}.
+	 *
+	 * @param context the dsl context
+	 * @return a flux of symbol informations
+	 */
+	default Flux<SymbolInformation> symbolInformations(DslContext context) {
+		return symbolize(context).symbolInformations();
+	}
+
+	/**
+	 * Return information if this symbolizer provides symbol occurrences via
+	 * {@link SymbolizeInfo#occurrences()}, needed for finding definitions and
+	 * references. Defaults to {@code FALSE}.
+	 *
+	 * @return if symbol occurrences are supported
+	 */
+	default boolean isOccurrencesSupported() {
+		return false;
+	}
 }
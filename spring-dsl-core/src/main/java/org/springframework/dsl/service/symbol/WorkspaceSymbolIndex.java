@@ -0,0 +1,282 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.dsl.domain.SymbolInformation;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of {@link SymbolInformation}s across documents of a workspace. Symbols
+ * of a document are replaced as a whole when a document changes and a version
+ * of a document they were created from is kept so that only changed documents
+ * need to be symbolized again.
+ * <p>
+ * Queries match symbol names ignoring case and rank matches so that an exact
+ * match comes before a prefix match, a prefix match before a camel-case match
+ * like {@code fB} for {@code fooBar}, a camel-case match before a substring
+ * match and a substring match before a fuzzy match where query characters
+ * appear in order. Only a requested number of best matches is kept while
+ * scanning and names are pre-filtered by a character mask.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WorkspaceSymbolIndex {
+
+	private static final int SCORE_EXACT = 1000;
+	private static final int SCORE_PREFIX = 800;
+	private static final int SCORE_CAMEL_CASE = 600;
+	private static final int SCORE_SUBSTRING = 400;
+	private static final int SCORE_FUZZY = 200;
+	private static final Comparator<Match> RANKING = Comparator.comparingInt((Match m) -> m.score).reversed()
+			.thenComparingInt(m -> m.name.length())
+			.thenComparing(m -> m.name);
+	private final ConcurrentMap<String, DocumentSymbols> documents = new ConcurrentHashMap<>();
+
+	/**
+	 * Checks if symbols of a document with a given version are indexed.
+	 *
+	 * @param uri the document uri
+	 * @param version the document version
+	 * @return true, if document is indexed with a same version
+	 */
+	public boolean isIndexed(String uri, int version) {
+		DocumentSymbols symbols = documents.get(uri);
+		return symbols != null && symbols.version == version;
+	}
+
+	/**
+	 * Replace symbols of a document. Symbols of an older version never replace
+	 * symbols of a newer version already indexed.
+	 *
+	 * @param uri the document uri
+	 * @param version the document version
+	 * @param symbolInformations the symbol informations
+	 */
+	public void update(String uri, int version, Collection<SymbolInformation> symbolInformations) {
+		Assert.notNull(uri, "uri must be set");
+		Assert.notNull(symbolInformations, "symbolInformations must be set");
+		documents.merge(uri, new DocumentSymbols(version, symbolInformations),
+				(old, cur) -> old.version > cur.version ? old : cur);
+	}
+
+	/**
+	 * Remove symbols of a document.
+	 *
+	 * @param uri the document uri
+	 */
+	public void remove(String uri) {
+		documents.remove(uri);
+	}
+
+	/**
+	 * Remove symbols of all documents not in a given uris.
+	 *
+	 * @param uris the document uris to retain
+	 */
+	public void retain(Collection<String> uris) {
+		documents.keySet().retainAll(uris);
+	}
+
+	/**
+	 * Gets the number of indexed symbols.
+	 *
+	 * @return the number of symbols
+	 */
+	public int size() {
+		int size = 0;
+		for (DocumentSymbols symbols : documents.values()) {
+			size += symbols.symbols.length;
+		}
+		return size;
+	}
+
+	/**
+	 * Find best matching symbols for a query. An empty query matches all
+	 * symbols.
+	 *
+	 * @param query the query
+	 * @param limit the max number of symbols to return
+	 * @return the matching symbols, best match first
+	 */
+	public List<SymbolInformation> query(String query, int limit) {
+		Assert.isTrue(limit > 0, "limit must be positive");
+		String q = StringUtils.hasText(query) ? query.trim() : "";
+		String lowerQuery = q.toLowerCase(Locale.ROOT);
+		long queryMask = mask(lowerQuery);
+		PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+
+		for (DocumentSymbols symbols : documents.values()) {
+			for (int i = 0; i < symbols.symbols.length; i++) {
+				if ((queryMask & ~symbols.masks[i]) != 0) {
+					continue;
+				}
+				String name = symbols.names[i];
+				int score = score(q, lowerQuery, name, symbols.lowerNames[i]);
+				if (score <= 0) {
+					continue;
+				}
+				Match match = new Match(score, name, symbols.symbols[i]);
+				if (best.size() < limit) {
+					best.add(match);
+				} else if (RANKING.compare(match, best.peek()) < 0) {
+					best.poll();
+					best.add(match);
+				}
+			}
+		}
+
+		List<Match> matches = new ArrayList<>(best);
+		matches.sort(RANKING);
+		List<SymbolInformation> result = new ArrayList<>(matches.size());
+		for (Match match : matches) {
+			result.add(match.symbol);
+		}
+		return result;
+	}
+
+	private static int score(String query, String lowerQuery, String name, String lowerName) {
+		if (lowerQuery.isEmpty()) {
+			return 1;
+		}
+		if (lowerName.startsWith(lowerQuery)) {
+			if (lowerName.length() == lowerQuery.length()) {
+				return SCORE_EXACT + (name.equals(query) ? 1 : 0);
+			}
+			return SCORE_PREFIX + (name.startsWith(query) ? 1 : 0);
+		}
+		if (isCamelCaseMatch(lowerQuery, name, lowerName)) {
+			return SCORE_CAMEL_CASE;
+		}
+		if (lowerName.contains(lowerQuery)) {
+			return SCORE_SUBSTRING;
+		}
+		int gaps = fuzzyGaps(lowerQuery, lowerName);
+		if (gaps >= 0) {
+			return Math.max(1, SCORE_FUZZY - gaps);
+		}
+		return 0;
+	}
+
+	/**
+	 * Query matches if its characters can be consumed from a start of a name
+	 * either continuing a current match or jumping to a start of a next word.
+	 */
+	private static boolean isCamelCaseMatch(String lowerQuery, String name, String lowerName) {
+		if (lowerName.isEmpty() || lowerQuery.charAt(0) != lowerName.charAt(0)) {
+			return false;
+		}
+		int j = 1;
+		int last = 0;
+		for (int i = 1; i < lowerName.length() && j < lowerQuery.length(); i++) {
+			if (lowerName.charAt(i) == lowerQuery.charAt(j) && (i == last + 1 || isWordStart(name, i))) {
+				last = i;
+				j++;
+			}
+		}
+		return j == lowerQuery.length();
+	}
+
+	private static boolean isWordStart(String name, int index) {
+		char c = name.charAt(index);
+		char prev = name.charAt(index - 1);
+		if (!Character.isLetterOrDigit(prev)) {
+			return Character.isLetterOrDigit(c);
+		}
+		return Character.isUpperCase(c) && !Character.isUpperCase(prev);
+	}
+
+	private static int fuzzyGaps(String lowerQuery, String lowerName) {
+		int gaps = 0;
+		int j = 0;
+		int last = -1;
+		for (int i = 0; i < lowerName.length() && j < lowerQuery.length(); i++) {
+			if (lowerName.charAt(i) == lowerQuery.charAt(j)) {
+				if (last >= 0) {
+					gaps += i - last - 1;
+				}
+				last = i;
+				j++;
+			}
+		}
+		return j == lowerQuery.length() ? gaps : -1;
+	}
+
+	private static long mask(String lower) {
+		long mask = 0;
+		for (int i = 0; i < lower.length(); i++) {
+			char c = lower.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				mask |= 1L << (c - 'a');
+			} else if (c >= '0' && c <= '9') {
+				mask |= 1L << (26 + c - '0');
+			}
+		}
+		return mask;
+	}
+
+	private static class DocumentSymbols {
+
+		final int version;
+		final SymbolInformation[] symbols;
+		final String[] names;
+		final String[] lowerNames;
+		final long[] masks;
+
+		DocumentSymbols(int version, Collection<SymbolInformation> symbolInformations) {
+			this.version = version;
+			List<SymbolInformation> named = new ArrayList<>(symbolInformations.size());
+			for (SymbolInformation symbolInformation : symbolInformations) {
+				if (symbolInformation.getName() != null) {
+					named.add(symbolInformation);
+				}
+			}
+			int size = named.size();
+			this.symbols = named.toArray(new SymbolInformation[size]);
+			this.names = new String[size];
+			this.lowerNames = new String[size];
+			this.masks = new long[size];
+			for (int i = 0; i < size; i++) {
+				names[i] = symbols[i].getName();
+				lowerNames[i] = names[i].toLowerCase(Locale.ROOT);
+				masks[i] = mask(lowerNames[i]);
+			}
+		}
+	}
+
+	private static class Match {
+
+		final int score;
+		final String name;
+		final SymbolInformation symbol;
+
+		Match(int score, String name, SymbolInformation symbol) {
+			this.score = score;
+			this.name = name;
+			this.symbol = symbol;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dsl.DslSystemConstants;
+import org.springframework.dsl.document.Document;
+import org.springframework.dsl.domain.SymbolInformation;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+/**
+ * Symbolizes many documents in parallel and merges their symbols into a
+ * {@link WorkspaceSymbolIndex} as each document finishes. Documents are
+ * symbolized on a work-stealing {@link ForkJoinPool} so that a few large
+ * documents don't keep other threads idle, and at most a configured
+ * parallelism of documents are in flight at any time.
+ * <p>
+ * Symbolizers usually do their work on a scheduler of their own, i.e. a parse
+ * service, which would leave a pool of an indexer only subscribing. Thus a pool
+ * is exposed in a subscriber context with a key
+ * {@link DslSystemConstants#CONTEXT_SCHEDULER_KEY}
+ * and services should schedule work on it when present.
+ * <p>
+ * A failure to symbolize a document is logged and the document is skipped, a
+ * previously indexed version of it stays in an index.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class WorkspaceSymbolIndexer implements DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(WorkspaceSymbolIndexer.class);
+	private final ForkJoinPool pool;
+	private final Scheduler scheduler;
+	private final int parallelism;
+
+	/**
+	 * Instantiates a new workspace symbol indexer with parallelism of available
+	 * processors.
+	 */
+	public WorkspaceSymbolIndexer() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new workspace symbol indexer.
+	 *
+	 * @param parallelism the max number of documents symbolized concurrently
+	 */
+	public WorkspaceSymbolIndexer(int parallelism) {
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.parallelism = parallelism;
+		this.pool = new ForkJoinPool(parallelism, WorkspaceSymbolIndexer::newThread, null, true);
+		this.scheduler = Schedulers.fromExecutorService(pool, "dsl-symbolize");
+	}
+
+	/**
+	 * Gets the max number of documents symbolized concurrently.
+	 *
+	 * @return the parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Symbolize given documents and update their symbols in an index. Returned
+	 * {@link Flux} emits documents in an order they were indexed.
+	 *
+	 * @param documents the documents to symbolize
+	 * @param function the function providing symbols of a document
+	 * @param index the workspace symbol index to update
+	 * @return the flux of indexed documents
+	 */
+	public Flux<Document> index(Collection<? extends Document> documents,
+			Function<? super Document, ? extends Publisher<SymbolInformation>> function, WorkspaceSymbolIndex index) {
+		Assert.notNull(documents, "documents must be set");
+		Assert.notNull(function, "function must be set");
+		Assert.notNull(index, "index must be set");
+		return Flux.fromIterable(documents)
+			.flatMap(document -> Flux.defer(() -> function.apply(document))
+				.subscribeOn(scheduler)
+				.subscriberContext(Context.of(DslSystemConstants.CONTEXT_SCHEDULER_KEY, scheduler))
+				.collectList()
+				.doOnNext(symbolInformations -> index.update(document.uri(), document.getVersion(),
+						symbolInformations))
+				.<Document>thenReturn(document)
+				.onErrorResume(e -> {
+					log.warn("Failed to symbolize document {}", document.uri(), e);
+					return Mono.empty();
+				}), parallelism);
+	}
+
+	@Override
+	public void destroy() {
+		scheduler.dispose();
+		pool.shutdownNow();
+	}
+
+	private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("dsl-symbolize-" + thread.getPoolIndex());
+		return thread;
+	}
+}
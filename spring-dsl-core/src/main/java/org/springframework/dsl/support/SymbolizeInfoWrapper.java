@@ -17,6 +17,7 @@ package org.springframework.dsl.support;
 
 import org.springframework.dsl.domain.DocumentSymbol;
 import org.springframework.dsl.domain.SymbolInformation;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.service.symbol.SymbolizeInfo;
 
 import reactor.core.publisher.Flux;
@@ -46,4 +47,9 @@ class SymbolizeInfoWrapper implements SymbolizeInfo {
 	public Flux<SymbolInformation> symbolInformations() {
 		return symbolizeInfo.map(si -> si.symbolInformations()).flatMapMany(i -> i);
 	}
+
+	@Override
+	public Flux<SymbolOccurrence> occurrences() {
+		return symbolizeInfo.map(si -> si.occurrences()).flatMapMany(i -> i);
+	}
 }
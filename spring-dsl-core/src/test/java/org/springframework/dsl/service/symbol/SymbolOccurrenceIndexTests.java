@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.dsl.domain.Location;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+
+public class SymbolOccurrenceIndexTests {
+
+	@Test
+	public void testLookups() {
+		SymbolOccurrenceIndex index = new SymbolOccurrenceIndex();
+		index.update("uri1", 1, Arrays.asList(
+				SymbolOccurrence.declaration("a", Range.from(0, 0, 0, 1)),
+				SymbolOccurrence.declaration("b", Range.from(1, 0, 1, 1)),
+				SymbolOccurrence.reference("a", Range.from(1, 4, 1, 5))));
+		index.update("uri2", 1, Arrays.asList(
+				SymbolOccurrence.reference("a", Range.from(2, 2, 2, 3))));
+
+		assertThat(index.getOccurrence("uri1", Position.from(1, 5)).getKey()).isEqualTo("a");
+		assertThat(index.getOccurrence("uri1", Position.from(1, 1)).getKey()).isEqualTo("b");
+		assertThat(index.getOccurrence("uri1", Position.from(1, 2))).isNull();
+		assertThat(index.getOccurrence("uri3", Position.from(0, 0))).isNull();
+
+		assertThat(index.getDeclarations("uri1", "a")).containsExactly(new Location("uri1", Range.from(0, 0, 0, 1)));
+		assertThat(index.getReferences("uri1", "a", false)).containsExactly(new Location("uri1", Range.from(1, 4, 1, 5)));
+		assertThat(index.getReferences("uri1", "a", true)).hasSize(2);
+		assertThat(index.getRanges("uri1", "a")).containsExactly(Range.from(0, 0, 0, 1), Range.from(1, 4, 1, 5));
+		assertThat(index.getDeclarations("uri1", "c")).isEmpty();
+		assertThat(index.getDeclarations("uri3", "a")).isEmpty();
+	}
+
+	@Test
+	public void testKeysAreLocalToDocument() {
+		SymbolOccurrenceIndex index = new SymbolOccurrenceIndex();
+		index.update("uri1", 1, Arrays.asList(SymbolOccurrence.declaration("a", Range.from(0, 0, 0, 1))));
+		index.update("uri2", 1, Arrays.asList(SymbolOccurrence.declaration("a", Range.from(2, 2, 2, 3))));
+
+		assertThat(index.getDeclarations("uri1", "a")).containsExactly(new Location("uri1", Range.from(0, 0, 0, 1)));
+		assertThat(index.getDeclarations("uri2", "a")).containsExactly(new Location("uri2", Range.from(2, 2, 2, 3)));
+		assertThat(index.getRanges("uri2", "a")).containsExactly(Range.from(2, 2, 2, 3));
+	}
+
+	@Test
+	public void testUpdates() {
+		SymbolOccurrenceIndex index = new SymbolOccurrenceIndex();
+		index.update("uri1", 1, Arrays.asList(SymbolOccurrence.declaration("a", Range.from(0, 0, 0, 1))));
+		index.update("uri2", 1, Arrays.asList(SymbolOccurrence.reference("a", Range.from(0, 0, 0, 1))));
+		assertThat(index.isIndexed("uri1", 1)).isTrue();
+		assertThat(index.isIndexed("uri1", 2)).isFalse();
+
+		index.update("uri1", 2, Arrays.asList(SymbolOccurrence.declaration("b", Range.from(0, 0, 0, 1))));
+		assertThat(index.getDeclarations("uri1", "a")).isEmpty();
+		assertThat(index.getReferences("uri2", "a", true)).hasSize(1);
+
+		index.retain(Collections.singletonList("uri1"));
+		assertThat(index.getRanges("uri2", "a")).isEmpty();
+		assertThat(index.isIndexed("uri2", 1)).isFalse();
+		index.remove("uri1");
+		assertThat(index.getDeclarations("uri1", "b")).isEmpty();
+	}
+}
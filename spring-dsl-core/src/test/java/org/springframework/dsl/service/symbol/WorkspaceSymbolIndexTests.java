@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.dsl.domain.SymbolInformation;
+
+public class WorkspaceSymbolIndexTests {
+
+	@Test
+	public void testRanking() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		index.update("uri1", 1, symbols("fooBar", "foo", "barFoo", "fXoYoZ", "other"));
+		index.update("uri2", 1, symbols("footer", "FastBuffer"));
+
+		assertThat(names(index.query("foo", 10))).containsExactly("foo", "fooBar", "footer", "barFoo", "fXoYoZ");
+		assertThat(names(index.query("fb", 10))).containsExactly("fooBar", "FastBuffer");
+		assertThat(names(index.query("FOO", 2))).containsExactly("foo", "fooBar");
+		assertThat(names(index.query("zzz", 10))).isEmpty();
+		assertThat(index.query("", 100)).hasSize(7);
+		assertThat(index.query(null, 3)).hasSize(3);
+	}
+
+	@Test
+	public void testEmptyNames() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		index.update("uri1", 1, symbols("", "a.b"));
+
+		assertThat(names(index.query(".", 10))).containsExactly("a.b");
+		assertThat(names(index.query("", 10))).containsExactly("", "a.b");
+	}
+
+	@Test
+	public void testUpdates() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		index.update("uri1", 1, symbols("state1"));
+		index.update("uri2", 1, symbols("state2"));
+		assertThat(index.isIndexed("uri1", 1)).isTrue();
+		assertThat(index.isIndexed("uri1", 2)).isFalse();
+		assertThat(index.size()).isEqualTo(2);
+
+		index.update("uri1", 2, symbols("state3", "state4"));
+		assertThat(names(index.query("state", 10))).containsExactly("state2", "state3", "state4");
+		index.update("uri1", 1, symbols("state1"));
+		assertThat(index.isIndexed("uri1", 2)).isTrue();
+
+		index.retain(Collections.singletonList("uri1"));
+		assertThat(names(index.query("state", 10))).containsExactly("state3", "state4");
+		index.remove("uri1");
+		assertThat(index.size()).isEqualTo(0);
+	}
+
+	private static List<SymbolInformation> symbols(String... names) {
+		return Arrays.stream(names)
+				.map(name -> SymbolInformation.symbolInformation().name(name).build())
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> names(List<SymbolInformation> symbols) {
+		return symbols.stream().map(SymbolInformation::getName).collect(Collectors.toList());
+	}
+}
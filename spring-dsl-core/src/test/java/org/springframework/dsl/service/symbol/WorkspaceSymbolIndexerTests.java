@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.service.symbol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.dsl.DslSystemConstants;
+import org.springframework.dsl.document.Document;
+import org.springframework.dsl.document.TextDocument;
+import org.springframework.dsl.domain.SymbolInformation;
+import org.springframework.dsl.model.LanguageId;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class WorkspaceSymbolIndexerTests {
+
+	private WorkspaceSymbolIndexer indexer;
+
+	@After
+	public void clean() {
+		if (indexer != null) {
+			indexer.destroy();
+		}
+		indexer = null;
+	}
+
+	@Test
+	public void testIndexesAllDocumentsWithBoundedParallelism() {
+		indexer = new WorkspaceSymbolIndexer(3);
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			documents.add(new TextDocument("uri" + i, LanguageId.TXT, 1, "symbol" + i));
+		}
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		Scheduler own = Schedulers.newParallel("own-scheduler", 8);
+
+		// symbolizer doing its work on a scheduler of its own, like a parse
+		// service, unless indexer provides one
+		List<Document> indexed = indexer.index(documents, document -> Mono.subscriberContext()
+			.flatMap(context -> Mono.fromCallable(() -> {
+				int current = active.incrementAndGet();
+				maxActive.accumulateAndGet(current, Math::max);
+				threads.add(Thread.currentThread().getName());
+				sleep(5);
+				active.decrementAndGet();
+				return SymbolInformation.symbolInformation().name(document.content().toString()).build();
+			}).subscribeOn(context.getOrDefault(DslSystemConstants.CONTEXT_SCHEDULER_KEY, own))), index)
+			.collectList().block();
+		own.dispose();
+
+		assertThat(indexed).hasSize(40);
+		assertThat(index.size()).isEqualTo(40);
+		assertThat(index.isIndexed("uri39", 1)).isTrue();
+		assertThat(maxActive.get()).isBetween(1, 3);
+		assertThat(threads).allMatch(name -> name.startsWith("dsl-symbolize-"));
+	}
+
+	@Test
+	public void testFailedDocumentIsSkipped() {
+		indexer = new WorkspaceSymbolIndexer(2);
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		List<Document> documents = new ArrayList<>();
+		documents.add(new TextDocument("uri1", LanguageId.TXT, 1, "symbol1"));
+		documents.add(new TextDocument("uri2", LanguageId.TXT, 1, "symbol2"));
+
+		List<Document> indexed = indexer.index(documents, document -> {
+			if (document.uri().equals("uri1")) {
+				return Flux.error(new RuntimeException("boom"));
+			}
+			return Flux.just(SymbolInformation.symbolInformation().name(document.content().toString()).build());
+		}, index).collectList().block();
+
+		assertThat(indexed).extracting(Document::uri).containsExactly("uri2");
+		assertThat(index.isIndexed("uri1", 1)).isFalse();
+		assertThat(index.isIndexed("uri2", 1)).isTrue();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.dsl.jsonrpc;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import reactor.core.publisher.Mono;
 
 /**
@@ -53,6 +55,18 @@ public interface JsonRpcInputMessage {
 	 */
 	Mono<String> getParams();
 
+	/**
+	 * Gets the params as an already parsed json tree if available. Allows
+	 * params to be bound without serializing them back to a text. Defaults to
+	 * an empty {@link Mono} meaning params are only available from
+	 * {@link #getParams()}.
+	 *
+	 * @return the params node
+	 */
+	default Mono<JsonNode> getParamsNode() {
+		return Mono.empty();
+	}
+
 	/**
 	 * Gets the session id.
 	 *
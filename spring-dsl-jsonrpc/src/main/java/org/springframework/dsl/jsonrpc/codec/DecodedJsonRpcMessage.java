@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.codec;
+
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Inbound json rpc message decoded by a {@link JsonRpcMessageDecoder}. Message
+ * is a request or a notification if it has a {@code method}, a response if it
+ * has a {@code result} or an {@code error} and otherwise unknown. Request and
+ * response views are created lazily from an already parsed tree.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class DecodedJsonRpcMessage {
+
+	private final JsonNode node;
+	private final Kind kind;
+	private JsonRpcRequest request;
+	private JsonRpcResponse response;
+
+	/**
+	 * Instantiates a new decoded json rpc message.
+	 *
+	 * @param node the parsed message
+	 */
+	public DecodedJsonRpcMessage(JsonNode node) {
+		Assert.notNull(node, "node must be set");
+		this.node = node;
+		this.kind = kind(node);
+	}
+
+	/**
+	 * Gets the kind of a message.
+	 *
+	 * @return the kind
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Checks if message is a request or a notification.
+	 *
+	 * @return true, if message has a method
+	 */
+	public boolean isRequest() {
+		return kind == Kind.REQUEST || kind == Kind.NOTIFICATION;
+	}
+
+	/**
+	 * Checks if message is a response.
+	 *
+	 * @return true, if message is a response
+	 */
+	public boolean isResponse() {
+		return kind == Kind.RESPONSE;
+	}
+
+	/**
+	 * Gets the parsed message.
+	 *
+	 * @return the message node
+	 */
+	public JsonNode getNode() {
+		return node;
+	}
+
+	/**
+	 * Gets the structured params of a message.
+	 *
+	 * @return the params node or {@code null} if there are no structured params
+	 */
+	public JsonNode getParams() {
+		JsonNode params = node.get("params");
+		return params != null && params.isContainerNode() ? params : null;
+	}
+
+	/**
+	 * Gets the message as a {@link JsonRpcRequest}.
+	 *
+	 * @return the json rpc request
+	 * @throws IllegalStateException if message is not a request
+	 */
+	public JsonRpcRequest getRequest() {
+		Assert.state(isRequest(), "message is not a request");
+		if (request == null) {
+			request = JsonRpcMessageDecoder.toRequest(node);
+		}
+		return request;
+	}
+
+	/**
+	 * Gets the message as a {@link JsonRpcResponse}.
+	 *
+	 * @return the json rpc response
+	 * @throws IllegalStateException if message is not a response
+	 */
+	public JsonRpcResponse getResponse() {
+		Assert.state(isResponse(), "message is not a response");
+		if (response == null) {
+			response = JsonRpcMessageDecoder.toResponse(node);
+		}
+		return response;
+	}
+
+	@Override
+	public String toString() {
+		return "DecodedJsonRpcMessage [kind=" + kind + ", node=" + node + "]";
+	}
+
+	private static Kind kind(JsonNode node) {
+		if (!node.isObject()) {
+			return Kind.UNKNOWN;
+		}
+		if (node.hasNonNull("method")) {
+			return node.has("id") ? Kind.REQUEST : Kind.NOTIFICATION;
+		}
+		if (node.has("result") || node.has("error")) {
+			return Kind.RESPONSE;
+		}
+		return Kind.UNKNOWN;
+	}
+
+	/**
+	 * Kinds of json rpc messages.
+	 */
+	public enum Kind {
+		REQUEST,
+		NOTIFICATION,
+		RESPONSE,
+		UNKNOWN;
+	}
+}
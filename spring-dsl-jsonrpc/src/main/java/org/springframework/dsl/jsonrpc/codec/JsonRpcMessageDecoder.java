@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.codec;
+
+import java.io.IOException;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcRequest;
+import org.springframework.dsl.jsonrpc.support.DefaultJsonRpcResponse;
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Decodes inbound json rpc messages into a {@link DecodedJsonRpcMessage}.
+ * Message is parsed once into a tree and classified as a request, a
+ * notification or a response by its fields, which allows transports to
+ * dispatch both requests to a server and responses to a client from a single
+ * decode.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class JsonRpcMessageDecoder {
+
+	private final ObjectReader reader;
+
+	/**
+	 * Instantiates a new {@code JsonRpcMessageDecoder}.
+	 *
+	 * @param objectMapper the object mapper
+	 */
+	public JsonRpcMessageDecoder(ObjectMapper objectMapper) {
+		Assert.notNull(objectMapper, "objectMapper must be set");
+		this.reader = objectMapper.reader();
+	}
+
+	/**
+	 * Decode a json rpc message.
+	 *
+	 * @param json the message as json
+	 * @return the decoded message
+	 * @throws DecodingException if message is not valid json
+	 */
+	public DecodedJsonRpcMessage decode(String json) {
+		JsonNode node;
+		try {
+			node = reader.readTree(json);
+		} catch (IOException e) {
+			throw new DecodingException("Unable to convert json to rpc message", e);
+		}
+		return new DecodedJsonRpcMessage(node);
+	}
+
+	/**
+	 * Convert a parsed json rpc message into a {@link DefaultJsonRpcRequest}.
+	 * Structured params are kept as a {@link JsonNode} instead of serializing
+	 * them back to a text, value params are kept as a text.
+	 *
+	 * @param node the message node
+	 * @return the json rpc request
+	 */
+	public static DefaultJsonRpcRequest toRequest(JsonNode node) {
+		JsonNode paramsNode = node.get("params");
+		Object params = null;
+		if (paramsNode != null) {
+			params = paramsNode.isValueNode() ? paramsNode.asText() : paramsNode;
+		}
+		return new DefaultJsonRpcRequest(asText(node.get("jsonrpc")), asText(node.get("id")),
+				asText(node.get("method")), params);
+	}
+
+	/**
+	 * Convert a parsed json rpc message into a {@link DefaultJsonRpcResponse}.
+	 *
+	 * @param node the message node
+	 * @return the json rpc response
+	 */
+	public static DefaultJsonRpcResponse toResponse(JsonNode node) {
+		JsonNode resultNode = node.get("result");
+		String result = null;
+		if (resultNode != null) {
+			result = resultNode.isValueNode() ? resultNode.asText() : resultNode.toString();
+		}
+		return new DefaultJsonRpcResponse(asText(node.get("jsonrpc")), asText(node.get("id")), result,
+				asText(node.get("error")));
+	}
+
+	private static String asText(JsonNode node) {
+		return node != null ? node.asText() : null;
+	}
+}
@@ -25,6 +25,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.logging.Log;
@@ -87,7 +89,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 		}
 
 		if (handlerMethod != null) {
-			handlerMethod = handlerMethod.createWithResolvedBean();
+			handlerMethod = mappingRegistry.getResolvedHandlerMethod(handlerMethod);
 		}
 		return Mono.justOrEmpty(handlerMethod);
 	}
@@ -95,8 +97,18 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerJsonRpcExchange exchange)
 			throws Exception {
+		// exact method names are found from an index, conditions are only
+		// evaluated for mappings without direct methods
+		String method = getRequestMethod(exchange);
+		T directMapping = method != null ? mappingRegistry.getMappingByDirectMethod(method) : null;
+		if (directMapping != null) {
+			HandlerMethod handlerMethod = mappingRegistry.getMappings().get(directMapping);
+			handleMatch(directMapping, handlerMethod, exchange);
+			return handlerMethod;
+		}
+
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(mappingRegistry.getMappings().keySet(), matches, exchange);
+		addMatchingMappings(mappingRegistry.getFallbackMappings(), matches, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -128,6 +140,33 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 	protected abstract Comparator<T> getMappingComparator(ServerJsonRpcExchange exchange);
 
+	/**
+	 * Gets the JSONRPC method names a given mapping matches exactly. Requests
+	 * for these methods are routed from an index without evaluating mapping
+	 * conditions. A method name shared by several mappings is routed to the
+	 * most specific one as sorted by {@link #getDirectMappingComparator()} and
+	 * only equally specific mappings are rejected when registered. Mappings
+	 * without direct methods are matched by their conditions. Defaults to no
+	 * direct methods.
+	 *
+	 * @param mapping the mapping
+	 * @return the direct method names
+	 */
+	protected Set<String> getDirectMethods(T mapping) {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Gets a comparator sorting mappings sharing a direct method, most specific
+	 * mapping first. Defaults to treating all mappings as equally specific.
+	 *
+	 * @return the comparator for mappings sharing a direct method
+	 * @see #getDirectMethods(Object)
+	 */
+	protected Comparator<T> getDirectMappingComparator() {
+		return (mapping1, mapping2) -> 0;
+	}
+
 	protected abstract T getMatchingMapping(T mapping, ServerJsonRpcExchange exchange);
 
 	/**
@@ -181,6 +220,12 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 		}
 	}
 
+	@Nullable
+	private static String getRequestMethod(ServerJsonRpcExchange exchange) {
+		Mono<String> method = exchange.getRequest().getMethod();
+		return method != null ? method.block() : null;
+	}
+
 	protected void initHandlerMethods() {
 		String[] beanNames = obtainApplicationContext().getBeanNamesForType(Object.class);
 
@@ -244,12 +289,42 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 		private final Map<T, MappingRegistration<T>> registry = new HashMap<>();
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
+		private final Map<String, T> directLookup = new ConcurrentHashMap<>();
+		private final List<T> fallbackMappings = new CopyOnWriteArrayList<>();
+		private final Map<HandlerMethod, HandlerMethod> resolvedLookup = new ConcurrentHashMap<>();
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
 		public Map<T, HandlerMethod> getMappings() {
 			return this.mappingLookup;
 		}
 
+		@Nullable
+		public T getMappingByDirectMethod(String method) {
+			return this.directLookup.get(method);
+		}
+
+		public List<T> getFallbackMappings() {
+			return this.fallbackMappings;
+		}
+
+		/**
+		 * Gets a handler method with a resolved bean. Handler methods of
+		 * singleton beans are resolved once and reused.
+		 *
+		 * @param handlerMethod the registered handler method
+		 * @return the handler method with a resolved bean
+		 */
+		public HandlerMethod getResolvedHandlerMethod(HandlerMethod handlerMethod) {
+			HandlerMethod resolved = this.resolvedLookup.get(handlerMethod);
+			if (resolved == null) {
+				resolved = handlerMethod.createWithResolvedBean();
+				if (isSingleton(handlerMethod)) {
+					this.resolvedLookup.putIfAbsent(handlerMethod, resolved);
+				}
+			}
+			return resolved;
+		}
+
 		public void acquireReadLock() {
 			this.readWriteLock.readLock().lock();
 		}
@@ -263,12 +338,25 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 			try {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				assertUniqueMethodMapping(handlerMethod, mapping);
+				Set<String> directMethods = getDirectMethods(mapping);
+				List<String> mostSpecificMethods = new ArrayList<>();
+				for (String directMethod : directMethods) {
+					if (isMostSpecificDirectMapping(handlerMethod, mapping, directMethod)) {
+						mostSpecificMethods.add(directMethod);
+					}
+				}
 
 				if (logger.isInfoEnabled()) {
 					logger.info("Mapped \"" + mapping + "\" onto " + handlerMethod);
 				}
 				this.mappingLookup.put(mapping, handlerMethod);
-				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod));
+				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directMethods));
+				for (String directMethod : mostSpecificMethods) {
+					this.directLookup.put(directMethod, mapping);
+				}
+				if (directMethods.isEmpty()) {
+					this.fallbackMappings.add(mapping);
+				}
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -285,6 +373,37 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 			}
 		}
 
+		private boolean isMostSpecificDirectMapping(HandlerMethod newHandlerMethod, T mapping, String directMethod) {
+			T existing = this.directLookup.get(directMethod);
+			if (existing == null || existing.equals(mapping)) {
+				return true;
+			}
+			int result = getDirectMappingComparator().compare(mapping, existing);
+			if (result == 0) {
+				HandlerMethod handlerMethod = this.mappingLookup.get(existing);
+				throw new IllegalStateException("Ambiguous handler methods mapped for JSONRPC method '" +
+						directMethod + "': {" + handlerMethod.getMethod() + ", " + newHandlerMethod.getMethod() + "}");
+			}
+			return result < 0;
+		}
+
+		@Nullable
+		private T findMostSpecificDirectMapping(String directMethod) {
+			T found = null;
+			for (MappingRegistration<T> registration : this.registry.values()) {
+				if (registration.getDirectMethods().contains(directMethod) && (found == null
+						|| getDirectMappingComparator().compare(registration.getMapping(), found) < 0)) {
+					found = registration.getMapping();
+				}
+			}
+			return found;
+		}
+
+		private boolean isSingleton(HandlerMethod handlerMethod) {
+			Object bean = handlerMethod.getBean();
+			return !(bean instanceof String) || obtainApplicationContext().isSingleton((String) bean);
+		}
+
 		public void unregister(T mapping) {
 			this.readWriteLock.writeLock().lock();
 			try {
@@ -294,6 +413,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 				}
 
 				this.mappingLookup.remove(definition.getMapping());
+				for (String directMethod : definition.getDirectMethods()) {
+					if (this.directLookup.remove(directMethod, definition.getMapping())) {
+						// less specific mapping sharing a method takes over
+						T replacement = findMostSpecificDirectMapping(directMethod);
+						if (replacement != null) {
+							this.directLookup.put(directMethod, replacement);
+						}
+					}
+				}
+				this.fallbackMappings.remove(definition.getMapping());
+				this.resolvedLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
 				this.readWriteLock.writeLock().unlock();
@@ -306,12 +436,14 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 
 		private final T mapping;
 		private final HandlerMethod handlerMethod;
+		private final Set<String> directMethods;
 
-		public MappingRegistration(T mapping, HandlerMethod handlerMethod) {
+		public MappingRegistration(T mapping, HandlerMethod handlerMethod, Set<String> directMethods) {
 			Assert.notNull(mapping, "Mapping must not be null");
 			Assert.notNull(handlerMethod, "HandlerMethod must not be null");
 			this.mapping = mapping;
 			this.handlerMethod = handlerMethod;
+			this.directMethods = directMethods;
 		}
 
 		public T getMapping() {
@@ -321,6 +453,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends ApplicationObjectS
 		public HandlerMethod getHandlerMethod() {
 			return this.handlerMethod;
 		}
+
+		public Set<String> getDirectMethods() {
+			return this.directMethods;
+		}
 	}
 
 	/**
@@ -22,7 +22,9 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -58,6 +60,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	private static final Mono<Object[]> EMPTY_ARGS = Mono.just(new Object[0]);
 	private static final Object NO_ARG_VALUE = new Object();
 	private List<JsonRpcHandlerMethodArgumentResolver> resolvers = new ArrayList<>();
+	private final Map<MethodParameter, JsonRpcHandlerMethodArgumentResolver> resolverCache = new ConcurrentHashMap<>();
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 	private ReactiveAdapterRegistry reactiveAdapterRegistry = ReactiveAdapterRegistry.getSharedInstance();
 
@@ -89,6 +92,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	public void setArgumentResolvers(List<JsonRpcHandlerMethodArgumentResolver> resolvers) {
 		this.resolvers.clear();
 		this.resolvers.addAll(resolvers);
+		this.resolverCache.clear();
 	}
 
 	/**
@@ -190,10 +194,15 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 * @return the lsp handler method argument resolver
 	 */
 	private JsonRpcHandlerMethodArgumentResolver findResolver(MethodParameter param) {
-		return this.resolvers.stream()
-				.filter(r -> r.supportsParameter(param))
-				.findFirst()
-				.orElseThrow(() -> getArgumentError("No suitable resolver for", param, null));
+		JsonRpcHandlerMethodArgumentResolver resolver = this.resolverCache.get(param);
+		if (resolver == null) {
+			resolver = this.resolvers.stream()
+					.filter(r -> r.supportsParameter(param))
+					.findFirst()
+					.orElseThrow(() -> getArgumentError("No suitable resolver for", param, null));
+			this.resolverCache.put(param, resolver);
+		}
+		return resolver;
 	}
 
 	/**
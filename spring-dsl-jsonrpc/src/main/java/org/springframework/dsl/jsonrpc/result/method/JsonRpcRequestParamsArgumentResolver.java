@@ -15,8 +15,9 @@
  */
 package org.springframework.dsl.jsonrpc.result.method;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
@@ -24,6 +25,7 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestParams;
 import org.springframework.util.Assert;
@@ -32,7 +34,6 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -47,28 +48,60 @@ import reactor.core.publisher.Mono;
  */
 public class JsonRpcRequestParamsArgumentResolver implements JsonRpcHandlerMethodArgumentResolver {
 
+	private final ObjectMapper objectMapper;
+	private final Map<MethodParameter, ObjectReader> readers = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new json rpc request params argument resolver using a
+	 * default {@link ObjectMapper}.
+	 */
+	public JsonRpcRequestParamsArgumentResolver() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Instantiates a new json rpc request params argument resolver.
+	 *
+	 * @param objectMapper the object mapper
+	 */
+	public JsonRpcRequestParamsArgumentResolver(ObjectMapper objectMapper) {
+		Assert.notNull(objectMapper, "objectMapper must be set");
+		this.objectMapper = objectMapper;
+	}
+
 	@Override
 	public boolean supportsParameter(MethodParameter parameter) {
-		return parameter.hasParameterAnnotation(JsonRpcRequestParams.class);
+		if (parameter.hasParameterAnnotation(JsonRpcRequestParams.class)) {
+			// prepare reader when a handler parameter is matched
+			getReader(parameter);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
 	public Mono<Object> resolveArgument(MethodParameter parameter, ServerJsonRpcExchange exchange) {
-		Class<?> type = parameter.getParameterType();
-		Class<?> contextClass = (parameter != null ? parameter.getContainingClass() : null);
-
-		Mono<String> bodyAsString = exchange.getRequest().getParams();
+		ObjectReader forType = getReader(parameter);
+		// bind from an already parsed tree if transport provides one
+		JsonRpcInputMessage request = exchange.getRequest();
+		return request.getParamsNode()
+				.flatMap(node -> Mono.fromCallable(() -> forType.readValue(node)))
+				.switchIfEmpty(Mono.defer(() -> request.getParams()
+						.flatMap(params -> Mono.fromCallable(() -> forType.readValue(params)))));
+	}
 
-		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		TypeFactory typeFactory = objectMapper.getTypeFactory();
-		JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
-		ObjectReader forType = objectMapper.readerFor(javaType);
-		try {
-			return Mono.just(forType.readValue(bodyAsString.block().toString()));
-		} catch (IOException e) {
-			return Mono.error(e);
-		}
+	/**
+	 * Gets an {@link ObjectReader} for a parameter, created once per parameter.
+	 *
+	 * @param parameter the method parameter
+	 * @return the object reader
+	 */
+	private ObjectReader getReader(MethodParameter parameter) {
+		return readers.computeIfAbsent(parameter, p -> {
+			JavaType javaType = objectMapper.getTypeFactory()
+					.constructType(GenericTypeResolver.resolveType(p.getParameterType(), p.getContainingClass()));
+			return objectMapper.readerFor(javaType).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		});
 	}
 
 	public Mono<String> getBodyAsString(Flux<DataBuffer> body) {
@@ -69,6 +69,17 @@ public class JsonRpcRequestMappingHandlerMapping extends AbstractHandlerMethodMa
 		return (info1, info2) -> info1.compareTo(info2, exchange);
 	}
 
+	@Override
+	protected Set<String> getDirectMethods(JsonRpcRequestMappingInfo info) {
+		return info.getMethodsCondition().getMethods();
+	}
+
+	@Override
+	protected Comparator<JsonRpcRequestMappingInfo> getDirectMappingComparator() {
+		// mapping with fewer methods is more specific
+		return Comparator.comparingInt(info -> info.getMethodsCondition().getMethods().size());
+	}
+
 	@Override
 	protected JsonRpcRequestMappingInfo getMatchingMapping(JsonRpcRequestMappingInfo info,
 			ServerJsonRpcExchange exchange) {
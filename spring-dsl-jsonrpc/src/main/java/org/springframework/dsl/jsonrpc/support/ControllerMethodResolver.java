@@ -16,10 +16,12 @@
 package org.springframework.dsl.jsonrpc.support;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 import org.springframework.dsl.jsonrpc.result.method.InvocableHandlerMethod;
 import org.springframework.dsl.jsonrpc.result.method.JsonRpcHandlerMethodArgumentResolver;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  *
@@ -32,6 +34,9 @@ public class ControllerMethodResolver {
 	/** The request mapping resolvers. */
 	private final List<JsonRpcHandlerMethodArgumentResolver> requestMappingResolvers;
 
+	/** Invocable methods keyed by resolved handler methods. */
+	private final Map<HandlerMethod, InvocableHandlerMethod> requestMappingMethodCache = new ConcurrentReferenceHashMap<>(64);
+
 	/**
 	 * Instantiates a new controller method resolver.
 	 *
@@ -42,15 +47,18 @@ public class ControllerMethodResolver {
 	}
 
 	/**
-	 * Gets the request mapping method.
+	 * Gets the request mapping method. Invocable method is created once for a
+	 * handler method and reused as it doesn't keep any request state.
 	 *
 	 * @param handlerMethod the handler method
 	 * @return the request mapping method
 	 */
 	public InvocableHandlerMethod getRequestMappingMethod(HandlerMethod handlerMethod) {
-		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
-		invocable.setArgumentResolvers(this.requestMappingResolvers);
-		return invocable;
+		return this.requestMappingMethodCache.computeIfAbsent(handlerMethod, key -> {
+			InvocableHandlerMethod invocable = new InvocableHandlerMethod(key);
+			invocable.setArgumentResolvers(this.requestMappingResolvers);
+			return invocable;
+		});
 	}
 
 //	@Nullable
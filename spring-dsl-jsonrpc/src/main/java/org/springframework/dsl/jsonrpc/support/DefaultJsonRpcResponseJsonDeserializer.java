@@ -17,6 +17,8 @@ package org.springframework.dsl.jsonrpc.support;
 
 import java.io.IOException;
 
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -34,26 +36,7 @@ public class DefaultJsonRpcResponseJsonDeserializer extends JsonDeserializer<Def
 	@Override
 	public DefaultJsonRpcResponse deserialize(JsonParser p, DeserializationContext ctxt)
 			throws IOException, JsonProcessingException {
-		DefaultJsonRpcResponse response = new DefaultJsonRpcResponse();
 		JsonNode node = p.getCodec().readTree(p);
-		JsonNode jsonrpcNode = node.get("jsonrpc");
-		response.setJsonrpc(jsonrpcNode.asText());
-		JsonNode idNode = node.get("id");
-		if (idNode != null) {
-			response.setId(idNode.asText());
-		}
-		JsonNode resultsNode = node.get("result");
-		if (resultsNode != null) {
-			if (resultsNode.isValueNode()) {
-				response.setResult(resultsNode.asText());
-			} else {
-				response.setResult(resultsNode.toString());
-			}
-		}
-		JsonNode errorNode = node.get("error");
-		if (errorNode != null) {
-			response.setError(errorNode.asText());
-		}
-		return response;
+		return JsonRpcMessageDecoder.toResponse(node);
 	}
 }
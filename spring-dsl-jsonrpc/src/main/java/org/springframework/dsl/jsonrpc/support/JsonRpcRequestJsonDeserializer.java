@@ -18,10 +18,10 @@ package org.springframework.dsl.jsonrpc.support;
 import java.io.IOException;
 
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -37,22 +37,7 @@ public class JsonRpcRequestJsonDeserializer extends JsonDeserializer<JsonRpcRequ
 	@Override
 	public JsonRpcRequest deserialize(JsonParser p, DeserializationContext ctxt)
 			throws IOException, JsonProcessingException {
-		ObjectCodec c = p.getCodec();
-	    JsonNode node = c.readTree(p);
-	    String jsonrpc = node.get("jsonrpc").asText();
-	    JsonNode jsonNodeParams = node.get("params");
-	    String params = null;
-	    if (jsonNodeParams != null) {
-		    if (jsonNodeParams.isValueNode()) {
-		    	params = jsonNodeParams.asText();
-		    } else {
-		    	params = jsonNodeParams.toString();
-		    }
-	    }
-	    JsonNode jsonNodeId = node.get("id");
-	    String id = jsonNodeId != null ? jsonNodeId.asText() : null;
-	    JsonNode jsonNodeMethod = node.get("method");
-	    String method = jsonNodeMethod != null ? jsonNodeMethod.asText() : null;
-		return new DefaultJsonRpcRequest(jsonrpc, id, method, params);
+		JsonNode node = p.getCodec().readTree(p);
+		return JsonRpcMessageDecoder.toRequest(node);
 	}
 }
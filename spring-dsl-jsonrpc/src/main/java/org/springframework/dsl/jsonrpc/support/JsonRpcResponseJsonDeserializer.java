@@ -18,6 +18,7 @@ package org.springframework.dsl.jsonrpc.support;
 import java.io.IOException;
 
 import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -36,26 +37,7 @@ public class JsonRpcResponseJsonDeserializer extends JsonDeserializer<JsonRpcRes
 	@Override
 	public JsonRpcResponse deserialize(JsonParser p, DeserializationContext ctxt)
 			throws IOException, JsonProcessingException {
-		DefaultJsonRpcResponse response = new DefaultJsonRpcResponse();
 		JsonNode node = p.getCodec().readTree(p);
-		JsonNode jsonrpcNode = node.get("jsonrpc");
-		response.setJsonrpc(jsonrpcNode.asText());
-		JsonNode idNode = node.get("id");
-		if (idNode != null) {
-			response.setId(idNode.asText());
-		}
-		JsonNode resultsNode = node.get("result");
-		if (resultsNode != null) {
-			if (resultsNode.isValueNode()) {
-				response.setResult(resultsNode.asText());
-			} else {
-				response.setResult(resultsNode.toString());
-			}
-		}
-		JsonNode errorNode = node.get("error");
-		if (errorNode != null) {
-			response.setError(errorNode.asText());
-		}
-		return response;
+		return JsonRpcMessageDecoder.toResponse(node);
 	}
 }
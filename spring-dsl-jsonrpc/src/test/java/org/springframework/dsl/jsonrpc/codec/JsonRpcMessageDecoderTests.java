@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.jsonrpc.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.dsl.jsonrpc.JsonRpcRequest;
+import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.DecodedJsonRpcMessage.Kind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonRpcMessageDecoderTests {
+
+	private final JsonRpcMessageDecoder decoder = new JsonRpcMessageDecoder(new ObjectMapper());
+
+	@Test
+	public void testRequest() {
+		DecodedJsonRpcMessage message = decoder
+				.decode("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{\"processId\":2}}");
+		assertThat(message.getKind()).isEqualTo(Kind.REQUEST);
+		assertThat(message.isRequest()).isTrue();
+		assertThat(message.isResponse()).isFalse();
+		JsonRpcRequest request = message.getRequest();
+		assertThat(request.getJsonrpc()).isEqualTo("2.0");
+		assertThat(request.getId()).isEqualTo("1");
+		assertThat(request.getMethod()).isEqualTo("initialize");
+		assertThat(request.getParams()).isSameAs(message.getParams());
+		assertThat(message.getParams().get("processId").asInt()).isEqualTo(2);
+		assertThat(request.getParams().toString()).isEqualTo("{\"processId\":2}");
+		assertThat(message.getRequest()).isSameAs(request);
+	}
+
+	@Test
+	public void testNotification() {
+		DecodedJsonRpcMessage message = decoder.decode("{\"jsonrpc\":\"2.0\",\"method\":\"initialized\"}");
+		assertThat(message.getKind()).isEqualTo(Kind.NOTIFICATION);
+		assertThat(message.isRequest()).isTrue();
+		assertThat(message.getRequest().getId()).isNull();
+		assertThat(message.getRequest().getParams()).isNull();
+		assertThat(message.getParams()).isNull();
+	}
+
+	@Test
+	public void testResponse() {
+		DecodedJsonRpcMessage message = decoder.decode("{\"jsonrpc\":\"2.0\",\"id\":\"3\",\"result\":{\"x\":1}}");
+		assertThat(message.getKind()).isEqualTo(Kind.RESPONSE);
+		JsonRpcResponse response = message.getResponse();
+		assertThat(response.getId()).isEqualTo("3");
+		assertThat(response.getResult()).isEqualTo("{\"x\":1}");
+		assertThat(response.getError()).isNull();
+		assertThatThrownBy(() -> message.getRequest()).isInstanceOf(IllegalStateException.class);
+
+		assertThat(decoder.decode("{\"jsonrpc\":\"2.0\",\"id\":\"4\",\"result\":null}").isResponse()).isTrue();
+	}
+
+	@Test
+	public void testUnknownAndInvalid() {
+		assertThat(decoder.decode("{\"jsonrpc\":\"2.0\",\"id\":1}").getKind()).isEqualTo(Kind.UNKNOWN);
+		assertThat(decoder.decode("[]").getKind()).isEqualTo(Kind.UNKNOWN);
+		assertThatThrownBy(() -> decoder.decode("{\"jsonrpc\":")).isInstanceOf(DecodingException.class);
+	}
+}
@@ -16,6 +16,7 @@
 package org.springframework.dsl.jsonrpc.result.method.annotation;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.lang.reflect.Method;
 import java.util.Set;
@@ -25,7 +26,10 @@ import org.junit.Test;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcController;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
+import org.springframework.dsl.jsonrpc.result.method.HandlerMethod;
 import org.springframework.dsl.jsonrpc.result.method.JsonRpcRequestMappingInfo;
+import org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage;
+import org.springframework.dsl.jsonrpc.support.MockServerJsonRpcExchange;
 
 /**
  * Tests for {@link JsonRpcRequestMappingHandlerMapping}.
@@ -51,6 +55,55 @@ public class JsonRpcRequestMappingHandlerMappingTests {
 		assertAnnotationMapping("handlerMethod2", TestController2.class);
 	}
 
+	@Test
+	public void testDirectLookup() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.registerSingleton("controller3", TestController3.class);
+		handlerMapping.afterPropertiesSet();
+
+		HandlerMethod handler1 = getHandler("handlerMethod1");
+		assertThat(handler1.getMethod().getName()).isEqualTo("handlerMethod1");
+		assertThat(handler1.getBean()).isInstanceOf(TestController1.class);
+		assertThat(getHandler("handlerMethod1")).isSameAs(handler1);
+		assertThat(getHandler("handlerMethod2").getMethod().getName()).isEqualTo("handlerMethod2");
+		assertThat(getHandler("other").getMethod().getName()).isEqualTo("fallbackMethod");
+	}
+
+	@Test
+	public void testAmbiguousMethodsFailOnRegistration() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.registerSingleton("controller2", TestController2.class);
+		assertThatThrownBy(() -> handlerMapping.afterPropertiesSet())
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Ambiguous handler methods mapped for JSONRPC method 'handlerMethod1'");
+	}
+
+	@Test
+	public void testMostSpecificSharedMethod() throws Exception {
+		context.registerSingleton("controller4", TestController4.class);
+		context.registerSingleton("controller1", TestController1.class);
+		handlerMapping.afterPropertiesSet();
+
+		assertThat(getHandler("handlerMethod1").getBean()).isInstanceOf(TestController1.class);
+		assertThat(getHandler("otherMethod").getMethod().getName()).isEqualTo("sharedMethod");
+	}
+
+	@Test
+	public void testMostSpecificSharedMethodRegisteredFirst() throws Exception {
+		context.registerSingleton("controller1", TestController1.class);
+		context.registerSingleton("controller4", TestController4.class);
+		handlerMapping.afterPropertiesSet();
+
+		assertThat(getHandler("handlerMethod1").getBean()).isInstanceOf(TestController1.class);
+		assertThat(getHandler("otherMethod").getMethod().getName()).isEqualTo("sharedMethod");
+	}
+
+	private HandlerMethod getHandler(String method) {
+		return handlerMapping
+				.getHandlerInternal(MockServerJsonRpcExchange.from(MockJsonRpcInputMessage.get("").method(method)))
+				.block();
+	}
+
 	private JsonRpcRequestMappingInfo assertAnnotationMapping(String methodName, Class<?> clazz) throws Exception {
 		Method method = clazz.getMethod(methodName);
 		JsonRpcRequestMappingInfo info = this.handlerMapping.getMappingForMethod(method, clazz);
@@ -86,4 +139,20 @@ public class JsonRpcRequestMappingHandlerMappingTests {
 		public void handlerMethod2() {
 		}
 	}
+
+	@JsonRpcController
+	private static class TestController4 {
+
+		@JsonRpcRequestMapping(method = { "handlerMethod1", "otherMethod" })
+		public void sharedMethod() {
+		}
+	}
+
+	@JsonRpcController
+	private static class TestController3 {
+
+		@JsonRpcRequestMapping
+		public void fallbackMethod() {
+		}
+	}
 }
@@ -23,6 +23,8 @@ import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -30,10 +32,23 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 	private final Flux<DataBuffer> body;
 	private final String params;
+	private final JsonNode paramsNode;
+	private final String method;
 
 	public MockJsonRpcInputMessage(Publisher<? extends DataBuffer> body, String params) {
+		this(body, params, null);
+	}
+
+	public MockJsonRpcInputMessage(Publisher<? extends DataBuffer> body, String params, JsonNode paramsNode) {
+		this(body, params, paramsNode, null);
+	}
+
+	public MockJsonRpcInputMessage(Publisher<? extends DataBuffer> body, String params, JsonNode paramsNode,
+			String method) {
 		this.body = Flux.from(body);
 		this.params = params;
+		this.paramsNode = paramsNode;
+		this.method = method;
 	}
 
 //	@Override
@@ -43,7 +58,7 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 	@Override
 	public Mono<String> getMethod() {
-		return null;
+		return method != null ? Mono.just(method) : null;
 	}
 
 	@Override
@@ -51,12 +66,19 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 		return Mono.just(params);
 	}
 
+	@Override
+	public Mono<JsonNode> getParamsNode() {
+		return Mono.justOrEmpty(paramsNode);
+	}
+
 	public static Builder get(String method) {
 		return new DefaultBuilder(method);
 	}
 
 	public interface Builder {
 		Builder body(String body);
+		Builder paramsNode(JsonNode paramsNode);
+		Builder method(String method);
 		MockJsonRpcInputMessage build();
 	}
 
@@ -64,6 +86,8 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 
 		private static final DataBufferFactory BUFFER_FACTORY = new DefaultDataBufferFactory();
 		private String body;
+		private JsonNode paramsNode;
+		private String method;
 
 		public DefaultBuilder(String body) {
 			this.body = body;
@@ -75,9 +99,22 @@ public class MockJsonRpcInputMessage implements JsonRpcInputMessage {
 			return this;
 		}
 
+		@Override
+		public Builder paramsNode(JsonNode paramsNode) {
+			this.paramsNode = paramsNode;
+			return this;
+		}
+
+		@Override
+		public Builder method(String method) {
+			this.method = method;
+			return this;
+		}
+
 		@Override
 		public MockJsonRpcInputMessage build() {
-			return new MockJsonRpcInputMessage(Flux.just(BUFFER_FACTORY.wrap(body.getBytes(Charset.defaultCharset()))), body);
+			return new MockJsonRpcInputMessage(Flux.just(BUFFER_FACTORY.wrap(body.getBytes(Charset.defaultCharset()))), body,
+					paramsNode, method);
 		}
 
 	}
@@ -16,6 +16,8 @@
 package org.springframework.dsl.lsp;
 
 import org.springframework.dsl.service.DocumentStateTracker;
+import org.springframework.dsl.service.symbol.SymbolOccurrenceIndex;
+import org.springframework.dsl.service.symbol.WorkspaceSymbolIndex;
 
 /**
  * Various constants used by a system.
@@ -35,6 +37,16 @@ public abstract class LspSystemConstants {
 	 */
 	public final static String SESSION_ATTRIBUTE_DOCUMENT_STATE_TRACKER = "documentStateTracker";
 
+	/**
+	 * Session attribute containing {@link WorkspaceSymbolIndex} of tracked documents.
+	 */
+	public final static String SESSION_ATTRIBUTE_WORKSPACE_SYMBOL_INDEX = "workspaceSymbolIndex";
+
+	/**
+	 * Session attribute containing {@link SymbolOccurrenceIndex} of tracked documents.
+	 */
+	public final static String SESSION_ATTRIBUTE_SYMBOL_OCCURRENCE_INDEX = "symbolOccurrenceIndex";
+
 	/**
 	 * Session attribute containing negotiated lsp version.
 	 */
@@ -49,4 +61,10 @@ public abstract class LspSystemConstants {
 	 * Context session attribute containing added json rpc session
 	 */
 	public final static String CONTEXT_SESSION_ATTRIBUTE = "jsonRpcSession";
+
+	/**
+	 * Context attribute containing {@link SymbolOccurrenceIndex} where a document
+	 * of a context is indexed with its current version.
+	 */
+	public final static String CONTEXT_SYMBOL_OCCURRENCE_INDEX_ATTRIBUTE = "symbolOccurrenceIndex";
 }
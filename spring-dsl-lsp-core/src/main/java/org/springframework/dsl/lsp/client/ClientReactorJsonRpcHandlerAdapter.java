@@ -19,7 +19,6 @@ import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
-import java.util.function.Function;
 
 import org.reactivestreams.Processor;
 import org.reactivestreams.Subscriber;
@@ -28,11 +27,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
-import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.DecodedJsonRpcMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 import org.springframework.dsl.lsp.LspSystemConstants;
 import org.springframework.dsl.lsp.server.jsonrpc.LspJsonRpcDecoder;
@@ -42,6 +41,7 @@ import org.springframework.dsl.lsp.server.jsonrpc.RpcHandler;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.netty.buffer.ByteBuf;
@@ -67,8 +67,7 @@ public class ClientReactorJsonRpcHandlerAdapter
 	private final EmitterProcessor<ByteBuf> requests = EmitterProcessor.create();
 	private final EmitterProcessor<LspClientResponse> responses = EmitterProcessor.create();
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final JsonRpcMessageDecoder decoder;
 
 	/**
 	 * Instantiates a new client reactor json rpc handler adapter.
@@ -80,20 +79,7 @@ public class ClientReactorJsonRpcHandlerAdapter
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.decoder = new JsonRpcMessageDecoder(objectMapper);
 	}
 
 	@Override
@@ -143,13 +129,16 @@ public class ClientReactorJsonRpcHandlerAdapter
 			out.sendObject(bb).then().subscribe();
 		}).subscribe();
 
-		Flux<String> shared = in.receiveObject()
+		// every message is decoded once and either dispatched as a response or
+		// handled as a request
+		Flux<DecodedJsonRpcMessage> shared = in.receiveObject()
 			.ofType(String.class)
+			.map(decoder::decode)
 			.share();
 
 		shared
-			.map(responseDecoder)
-			.filter(response -> response.getResult() != null || response.getError() != null)
+			.filter(DecodedJsonRpcMessage::isResponse)
+			.map(DecodedJsonRpcMessage::getResponse)
 			.subscribe(bb -> {
 					lspClient.getResponses().onNext(
 							LspClientResponse.create(lspClient.getJsonRpcExtractorStrategies()).response(bb).build());
@@ -157,9 +146,9 @@ public class ClientReactorJsonRpcHandlerAdapter
 			});
 
 		shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
-			.subscribe(request -> {
+			.filter(DecodedJsonRpcMessage::isRequest)
+			.subscribe(message -> {
+				JsonRpcRequest request = message.getRequest();
 				log.info("Receive request {}", request);
 
 				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
@@ -181,7 +170,12 @@ public class ClientReactorJsonRpcHandlerAdapter
 
 					@Override
 					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
+						return Mono.justOrEmpty(request.getParams()).map(Object::toString);
+					}
+
+					@Override
+					public Mono<JsonNode> getParamsNode() {
+						return Mono.justOrEmpty(message.getParams());
 					}
 
 					@Override
@@ -75,6 +75,7 @@ public class DslProperties {
 		private boolean forceJvmExitOnShutdown;
 		private WebSocketProperties websocket = new WebSocketProperties();
 		private TextDocumentProperties textDocument = new TextDocumentProperties();
+		private WorkspaceProperties workspace = new WorkspaceProperties();
 
 		public LspServerSocketMode getMode() {
 			return mode;
@@ -115,6 +116,14 @@ public class DslProperties {
 		public void setTextDocument(TextDocumentProperties textDocument) {
 			this.textDocument = textDocument;
 		}
+
+		public WorkspaceProperties getWorkspace() {
+			return workspace;
+		}
+
+		public void setWorkspace(WorkspaceProperties workspace) {
+			this.workspace = workspace;
+		}
 	}
 
 	public static class LspClientProperties {
@@ -149,6 +158,28 @@ public class DslProperties {
 		}
 	}
 
+	public static class WorkspaceProperties {
+
+		private int symbolParallelism = Runtime.getRuntime().availableProcessors();
+		private int maxSymbols = 100;
+
+		public int getSymbolParallelism() {
+			return symbolParallelism;
+		}
+
+		public void setSymbolParallelism(int symbolParallelism) {
+			this.symbolParallelism = symbolParallelism;
+		}
+
+		public int getMaxSymbols() {
+			return maxSymbols;
+		}
+
+		public void setMaxSymbols(int maxSymbols) {
+			this.maxSymbols = maxSymbols;
+		}
+	}
+
 	public static class DocumentSymbolProperties {
 		DocumentSymbolPrefer prefer = DocumentSymbolPrefer.DocumentSymbol;
 
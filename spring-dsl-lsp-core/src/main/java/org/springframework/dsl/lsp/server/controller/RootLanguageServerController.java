@@ -35,6 +35,7 @@ import org.springframework.dsl.lsp.server.jsonrpc.LspSessionState;
 import org.springframework.dsl.lsp.server.support.LspExiter;
 import org.springframework.dsl.service.DefaultDocumentStateTracker;
 import org.springframework.dsl.service.DslServiceRegistry;
+import org.springframework.dsl.service.symbol.Symbolizer;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.Mono;
@@ -90,6 +91,8 @@ public class RootLanguageServerController {
 					.hoverProvider(!registry.getHoverers().isEmpty())
 					.renameProvider(!registry.getRenamers().isEmpty())
 					.documentSymbolProvider(!registry.getSymbolizers().isEmpty())
+					.definitionProvider(isOccurrencesSupported())
+					.referencesProvider(isOccurrencesSupported())
 					.completionProvider(!registry.getCompletioners().isEmpty())
 						.resolveProvider(false)
 						.and()
@@ -143,4 +146,8 @@ public class RootLanguageServerController {
 		log.debug("exit");
 		lspExiter.exit(0);
 	}
+
+	private boolean isOccurrencesSupported() {
+		return registry.getSymbolizers().stream().anyMatch(Symbolizer::isOccurrencesSupported);
+	}
 }
@@ -15,12 +15,14 @@
  */
 package org.springframework.dsl.lsp.server.controller;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.domain.CodeLens;
 import org.springframework.dsl.domain.CodeLensParams;
@@ -35,8 +37,10 @@ import org.springframework.dsl.domain.DocumentSymbolParams;
 import org.springframework.dsl.domain.FoldingRange;
 import org.springframework.dsl.domain.FoldingRangeParams;
 import org.springframework.dsl.domain.Hover;
+import org.springframework.dsl.domain.Location;
 import org.springframework.dsl.domain.Position;
 import org.springframework.dsl.domain.PublishDiagnosticsParams;
+import org.springframework.dsl.domain.ReferenceParams;
 import org.springframework.dsl.domain.RenameParams;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.domain.TextDocumentPositionParams;
@@ -57,6 +61,8 @@ import org.springframework.dsl.service.DslContext;
 import org.springframework.dsl.service.DslServiceRegistry;
 import org.springframework.dsl.service.Hoverer;
 import org.springframework.dsl.service.reconcile.Reconciler;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
+import org.springframework.dsl.service.symbol.SymbolOccurrenceIndex;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.Flux;
@@ -76,6 +82,7 @@ public class TextDocumentLanguageServerController {
 	private static final Logger log = LoggerFactory.getLogger(TextDocumentLanguageServerController.class);
 	private DslServiceRegistry registry;
 	private DslProperties properties;
+	private WorkspaceLanguageServerController workspaceController;
 
 	/**
 	 * Instantiates a new text document language server controller.
@@ -90,6 +97,17 @@ public class TextDocumentLanguageServerController {
 		this.properties = properties;
 	}
 
+	/**
+	 * Sets the workspace language server controller which is notified about
+	 * opened, changed and closed documents to keep its symbol index up to date.
+	 *
+	 * @param workspaceController the workspace language server controller
+	 */
+	@Autowired(required = false)
+	public void setWorkspaceLanguageServerController(WorkspaceLanguageServerController workspaceController) {
+		this.workspaceController = workspaceController;
+	}
+
 	/**
 	 * Method handling {@code LSP client didOpen} request and dispatching
 	 * information about opened {@code document} and its metadata to document
@@ -107,6 +125,7 @@ public class TextDocumentLanguageServerController {
 		log.debug("clientDocumentOpened {}", params);
 		DocumentStateTracker documentStateTracker = getTracker(session);
 		return Flux.from(documentStateTracker.didOpen(params))
+			.doOnNext(document -> documentChanged(document, session))
 			.map(document -> buildCommonDslContext(document, session))
 			.flatMap(context -> Flux.fromIterable(registry.getReconcilers())
 				.filter(reconciler -> reconciler.getSupportedLanguageIds().stream()
@@ -134,6 +153,7 @@ public class TextDocumentLanguageServerController {
 		log.debug("clientDocumentChanged {}", params);
 		DocumentStateTracker documentStateTracker = getTracker(session);
 		return Flux.from(documentStateTracker.didChange(params))
+			.doOnNext(document -> documentChanged(document, session))
 			.map(document -> buildCommonDslContext(document, session))
 			.flatMap(context -> Flux.fromIterable(registry.getReconcilers())
 				.filter(reconciler -> reconciler.getSupportedLanguageIds().stream()
@@ -159,7 +179,12 @@ public class TextDocumentLanguageServerController {
 	public Mono<Void> clientDocumentClosed(DidCloseTextDocumentParams params, JsonRpcSession session) {
 		log.debug("clientDocumentClosed {}", params);
 		DocumentStateTracker documentStateTracker = getTracker(session);
-		return Flux.from(documentStateTracker.didClose(params)).then();
+		return Flux.from(documentStateTracker.didClose(params))
+			.then(Mono.fromRunnable(() -> {
+				if (workspaceController != null) {
+					workspaceController.documentClosed(params.getTextDocument().getUri(), session);
+				}
+			}));
 	}
 
 	/**
@@ -306,10 +331,64 @@ public class TextDocumentLanguageServerController {
 		log.debug("rename {}", params);
 		DocumentStateTracker documentStateTracker = getTracker(session);
 		Document document = documentStateTracker.getDocument(params.getTextDocument().getUri());
-		DslContext context = buildCommonDslContext(document, session);
 
-		return Flux.fromIterable(registry.getRenamers(document.languageId()))
-			.concatMap(renamer -> renamer.rename(context, params.getPosition(), params.getNewName())).next();
+		return refreshOccurrenceIndex(session, document).flatMap(index -> {
+			// renamers find occurrences from an index instead of symbolizing again
+			DslContext context = DslContext.builder()
+				.document(document)
+				.attribute(LspSystemConstants.CONTEXT_SESSION_ATTRIBUTE, session)
+				.attribute(LspSystemConstants.CONTEXT_SYMBOL_OCCURRENCE_INDEX_ATTRIBUTE, index)
+				.build();
+			return Flux.fromIterable(registry.getRenamers(document.languageId()))
+				.concatMap(renamer -> renamer.rename(context, params.getPosition(), params.getNewName())).next();
+		});
+	}
+
+	/**
+	 * Method handling {@code LSP client definition} request. Declarations are
+	 * found from a {@link SymbolOccurrenceIndex} of a document. Symbol keys are
+	 * local to a document, thus only declarations within a same document are
+	 * found.
+	 *
+	 * @param params  the {@link TextDocumentPositionParams}
+	 * @param session the {@link JsonRpcSession}
+	 * @return a mono of declaration locations
+	 */
+	@JsonRpcRequestMapping(method = "definition")
+	@JsonRpcResponseResult
+	public Mono<List<Location>> definition(TextDocumentPositionParams params, JsonRpcSession session) {
+		log.debug("definition {}", params);
+		String uri = params.getTextDocument().getUri();
+		Document document = getTracker(session).getDocument(uri);
+		return refreshOccurrenceIndex(session, document).map(index -> {
+			SymbolOccurrence occurrence = index.getOccurrence(uri, params.getPosition());
+			return occurrence != null ? index.getDeclarations(uri, occurrence.getKey())
+					: Collections.<Location>emptyList();
+		});
+	}
+
+	/**
+	 * Method handling {@code LSP client references} request. References are
+	 * found from a {@link SymbolOccurrenceIndex} of a document. Symbol keys are
+	 * local to a document, thus only references within a same document are
+	 * found.
+	 *
+	 * @param params  the {@link ReferenceParams}
+	 * @param session the {@link JsonRpcSession}
+	 * @return a mono of reference locations
+	 */
+	@JsonRpcRequestMapping(method = "references")
+	@JsonRpcResponseResult
+	public Mono<List<Location>> references(ReferenceParams params, JsonRpcSession session) {
+		log.debug("references {}", params);
+		boolean includeDeclaration = params.getContext() != null && params.getContext().isIncludeDeclaration();
+		String uri = params.getTextDocument().getUri();
+		Document document = getTracker(session).getDocument(uri);
+		return refreshOccurrenceIndex(session, document).map(index -> {
+			SymbolOccurrence occurrence = index.getOccurrence(uri, params.getPosition());
+			return occurrence != null ? index.getReferences(uri, occurrence.getKey(), includeDeclaration)
+					: Collections.<Location>emptyList();
+		});
 	}
 
 	/**
@@ -345,6 +424,31 @@ public class TextDocumentLanguageServerController {
 			.collectList();
 	}
 
+	private Mono<SymbolOccurrenceIndex> refreshOccurrenceIndex(JsonRpcSession session, Document document) {
+		return Mono.defer(() -> {
+			SymbolOccurrenceIndex index = (SymbolOccurrenceIndex) session.getAttributes().computeIfAbsent(
+					LspSystemConstants.SESSION_ATTRIBUTE_SYMBOL_OCCURRENCE_INDEX, key -> new SymbolOccurrenceIndex());
+			index.retain(getTracker(session).getDocuments().stream().map(Document::uri).collect(Collectors.toList()));
+			// keys are local to a document, only requested document is symbolized
+			// and only if it changed since a previous request
+			if (document == null || index.isIndexed(document.uri(), document.getVersion())) {
+				return Mono.just(index);
+			}
+			DslContext context = buildCommonDslContext(document, session);
+			return Flux.fromIterable(registry.getSymbolizers(document.languageId()))
+				.flatMap(symbolizer -> symbolizer.symbolize(context).occurrences())
+				.collectList()
+				.doOnNext(occurrences -> index.update(document.uri(), document.getVersion(), occurrences))
+				.thenReturn(index);
+		});
+	}
+
+	private void documentChanged(Document document, JsonRpcSession session) {
+		if (workspaceController != null) {
+			workspaceController.documentChanged(document, session);
+		}
+	}
+
 	private static DslContext buildCommonDslContext(Document document, JsonRpcSession session) {
 		return DslContext.builder()
 			.document(document)
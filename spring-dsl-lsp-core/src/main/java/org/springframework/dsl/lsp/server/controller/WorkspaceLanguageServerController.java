@@ -15,10 +15,12 @@
  */
 package org.springframework.dsl.lsp.server.controller;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.domain.WorkspaceSymbolParams;
@@ -27,9 +29,12 @@ import org.springframework.dsl.jsonrpc.annotation.JsonRpcRequestMapping;
 import org.springframework.dsl.jsonrpc.annotation.JsonRpcResponseResult;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession;
 import org.springframework.dsl.lsp.LspSystemConstants;
+import org.springframework.dsl.lsp.server.config.DslProperties;
 import org.springframework.dsl.service.DocumentStateTracker;
 import org.springframework.dsl.service.DslContext;
 import org.springframework.dsl.service.DslServiceRegistry;
+import org.springframework.dsl.service.symbol.WorkspaceSymbolIndex;
+import org.springframework.dsl.service.symbol.WorkspaceSymbolIndexer;
 import org.springframework.util.Assert;
 
 import reactor.core.publisher.Flux;
@@ -37,33 +42,95 @@ import reactor.core.publisher.Mono;
 
 @JsonRpcController
 @JsonRpcRequestMapping(method = "workspace/")
-public class WorkspaceLanguageServerController {
+public class WorkspaceLanguageServerController implements DisposableBean {
 
 	private static final Logger log = LoggerFactory.getLogger(WorkspaceLanguageServerController.class);
 	private final DslServiceRegistry registry;
+	private final WorkspaceSymbolIndexer indexer;
+	private int maxSymbols;
 
-	public WorkspaceLanguageServerController(DslServiceRegistry dslServiceRegistry) {
+	/**
+	 * Instantiate a new workspace language server controller.
+	 *
+	 * @param dslServiceRegistry the dsl service registry
+	 * @param properties         the properties
+	 */
+	public WorkspaceLanguageServerController(DslServiceRegistry dslServiceRegistry, DslProperties properties) {
 		Assert.notNull(dslServiceRegistry, "dslServiceRegistry must be set");
+		Assert.notNull(properties, "properties must be set");
 		this.registry = dslServiceRegistry;
+		this.indexer = new WorkspaceSymbolIndexer(
+				properties.getLsp().getServer().getWorkspace().getSymbolParallelism());
+		setMaxSymbols(properties.getLsp().getServer().getWorkspace().getMaxSymbols());
+	}
+
+	/**
+	 * Sets the max number of symbols returned from a workspace symbol query.
+	 *
+	 * @param maxSymbols the max symbols
+	 */
+	public void setMaxSymbols(int maxSymbols) {
+		Assert.isTrue(maxSymbols > 0, "maxSymbols must be positive");
+		this.maxSymbols = maxSymbols;
+	}
+
+	/**
+	 * Index symbols of an opened or changed document. Document is symbolized in
+	 * a background on a scheduler of an indexer and a workspace symbol query
+	 * sees its symbols once done.
+	 *
+	 * @param document the document
+	 * @param session the session
+	 */
+	public void documentChanged(Document document, JsonRpcSession session) {
+		Assert.notNull(document, "document must be set");
+		WorkspaceSymbolIndex index = getIndex(session);
+		if (index.isIndexed(document.uri(), document.getVersion())) {
+			return;
+		}
+		indexer.index(Collections.singletonList(document), d -> {
+				DslContext context = buildCommonDslContext(d, session);
+				return Flux.fromIterable(registry.getSymbolizers(d.languageId()))
+					.flatMap(symbolizer -> symbolizer.symbolInformations(context));
+			}, index)
+			// document closed while it was symbolized
+			.filter(d -> getTracker(session).getDocument(d.uri()) == null)
+			.subscribe(d -> index.remove(d.uri()));
+	}
+
+	/**
+	 * Remove symbols of a closed document.
+	 *
+	 * @param uri the document uri
+	 * @param session the session
+	 */
+	public void documentClosed(String uri, JsonRpcSession session) {
+		getIndex(session).remove(uri);
 	}
 
 	@JsonRpcRequestMapping(method = "symbol")
 	@JsonRpcResponseResult
 	public Mono<List<SymbolInformation>> symbol(WorkspaceSymbolParams params, JsonRpcSession session) {
 		log.debug("symbol {}", params);
-		return Mono.defer(() -> {
-			// TODO: Can't just blindly process all documents
-			return Flux.fromIterable(getTracker(session).getDocuments())
-				.flatMap(document -> {
-					DslContext context = buildCommonDslContext(document, session);
-					return Flux.fromIterable(registry.getSymbolizers(document.languageId()))
-						.map(symbolizer -> symbolizer.symbolize(context, params.getQuery()))
-						.flatMap(si -> si.symbolInformations());
-				})
-				.collectList();
+		// index is kept up to date from document events, query only reads it
+		return Mono.fromSupplier(() -> {
+			WorkspaceSymbolIndex index = session.getAttribute(
+					LspSystemConstants.SESSION_ATTRIBUTE_WORKSPACE_SYMBOL_INDEX);
+			return index != null ? index.query(params.getQuery(), maxSymbols)
+					: Collections.<SymbolInformation>emptyList();
 		});
 	}
 
+	@Override
+	public void destroy() {
+		indexer.destroy();
+	}
+
+	private static WorkspaceSymbolIndex getIndex(JsonRpcSession session) {
+		return (WorkspaceSymbolIndex) session.getAttributes().computeIfAbsent(
+				LspSystemConstants.SESSION_ATTRIBUTE_WORKSPACE_SYMBOL_INDEX, key -> new WorkspaceSymbolIndex());
+	}
+
 	private static DslContext buildCommonDslContext(Document document, JsonRpcSession session) {
 		return DslContext.builder()
 			.document(document)
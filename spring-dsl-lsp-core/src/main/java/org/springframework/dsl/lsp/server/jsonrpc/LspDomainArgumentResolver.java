@@ -15,10 +15,11 @@
  */
 package org.springframework.dsl.lsp.server.jsonrpc;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.core.GenericTypeResolver;
@@ -37,9 +38,11 @@ import org.springframework.dsl.domain.DocumentSymbolParams;
 import org.springframework.dsl.domain.FoldingRangeParams;
 import org.springframework.dsl.domain.InitializeParams;
 import org.springframework.dsl.domain.InitializedParams;
+import org.springframework.dsl.domain.ReferenceParams;
 import org.springframework.dsl.domain.RenameParams;
 import org.springframework.dsl.domain.TextDocumentPositionParams;
 import org.springframework.dsl.domain.WorkspaceSymbolParams;
+import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.ServerJsonRpcExchange;
 import org.springframework.dsl.jsonrpc.result.method.JsonRpcHandlerMethodArgumentResolver;
 import org.springframework.util.Assert;
@@ -48,7 +51,6 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -75,6 +77,7 @@ public class LspDomainArgumentResolver implements JsonRpcHandlerMethodArgumentRe
 			CompletionParams.class,
 			DocumentSymbolParams.class,
 			TextDocumentPositionParams.class,
+			ReferenceParams.class,
 			RenameParams.class,
 			CodeLensParams.class,
 			WorkspaceSymbolParams.class,
@@ -82,6 +85,7 @@ public class LspDomainArgumentResolver implements JsonRpcHandlerMethodArgumentRe
 			).stream().collect(Collectors.toSet());
 
 	private final ObjectMapper objectMapper;
+	private final Map<MethodParameter, ObjectReader> readers = new ConcurrentHashMap<>();
 
 	/**
 	 * Instantiates a new lsp domain argument resolver.
@@ -89,31 +93,46 @@ public class LspDomainArgumentResolver implements JsonRpcHandlerMethodArgumentRe
 	 * @param objectMapper the used object mapper
 	 */
 	public LspDomainArgumentResolver(ObjectMapper objectMapper) {
+		Assert.notNull(objectMapper, "objectMapper must be set");
 		this.objectMapper = objectMapper;
 	}
 
 	@Override
 	public boolean supportsParameter(MethodParameter parameter) {
 		Class<?> type = parameter.getParameterType();
-		return supportedClasses.contains(type);
+		if (supportedClasses.contains(type)) {
+			// prepare reader when a handler parameter is matched
+			getReader(parameter);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
 	public Mono<Object> resolveArgument(MethodParameter parameter, ServerJsonRpcExchange exchange) {
-		Class<?> type = parameter.getParameterType();
-		Class<?> contextClass = (parameter != null ? parameter.getContainingClass() : null);
-
-		Mono<String> bodyAsString = exchange.getRequest().getParams();
+		ObjectReader forType = getReader(parameter);
+		// bind from an already parsed tree if transport provides one
+		JsonRpcInputMessage request = exchange.getRequest();
+		return request.getParamsNode()
+				.flatMap(node -> Mono.fromCallable(() -> forType.readValue(node)))
+				.switchIfEmpty(Mono.defer(() -> request.getParams()
+						.flatMap(params -> Mono.fromCallable(() -> forType.readValue(params)))));
+	}
 
-		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		TypeFactory typeFactory = objectMapper.getTypeFactory();
-		JavaType javaType = typeFactory.constructType(GenericTypeResolver.resolveType(type, contextClass));
-		ObjectReader forType = objectMapper.readerFor(javaType);
-		try {
-			return Mono.just(forType.readValue(bodyAsString.block().toString()));
-		} catch (IOException e) {
-			return Mono.error(e);
-		}
+	/**
+	 * Gets an {@link ObjectReader} for a parameter. Readers are created once per
+	 * parameter and configured per reader so that a shared {@link ObjectMapper}
+	 * is never modified.
+	 *
+	 * @param parameter the method parameter
+	 * @return the object reader
+	 */
+	private ObjectReader getReader(MethodParameter parameter) {
+		return readers.computeIfAbsent(parameter, p -> {
+			JavaType javaType = objectMapper.getTypeFactory()
+					.constructType(GenericTypeResolver.resolveType(p.getParameterType(), p.getContainingClass()));
+			return objectMapper.readerFor(javaType).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		});
 	}
 
 	public Mono<String> getBodyAsString(Flux<DataBuffer> body) {
@@ -19,23 +19,23 @@ import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
-import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
-import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.DecodedJsonRpcMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 import org.springframework.dsl.lsp.client.LspClientResponse;
 import org.springframework.dsl.lsp.client.NettyBoundedLspClient;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import reactor.core.Disposable;
@@ -55,8 +55,7 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 	private static final Logger log = LoggerFactory.getLogger(ReactorJsonRpcHandlerAdapter.class);
 	private final RpcHandler rpcHandler;
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final JsonRpcMessageDecoder decoder;
 
 	/**
 	 * Instantiates a new reactor json rpc handler adapter.
@@ -69,20 +68,7 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.decoder = new JsonRpcMessageDecoder(objectMapper);
 	}
 
 	@Override
@@ -102,21 +88,24 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 		NettyBoundedLspClient lspClient = new NettyBoundedLspClient(out, objectMapper);
 		JsonRpcSessionCustomizer customizer = session -> session.getAttributes().put("lspClient", lspClient);
 
-		Flux<String> shared = in.receiveObject()
+		// every message is decoded once and either dispatched to the client as
+		// a response or handled as a request
+		Flux<DecodedJsonRpcMessage> messages = in.receiveObject()
 			.ofType(String.class)
+			.map(decoder::decode)
 			.share();
 
-		shared
-			.map(responseDecoder)
-			.filter(response -> response.getResult() != null || response.getError() != null)
+		messages
+			.filter(DecodedJsonRpcMessage::isResponse)
+			.map(DecodedJsonRpcMessage::getResponse)
 			.subscribe(bb -> {
 				lspClient.getResponses().onNext(LspClientResponse.create().response(bb).build());
 			});
 
-		shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
-			.subscribe(request -> {
+		messages
+			.filter(DecodedJsonRpcMessage::isRequest)
+			.subscribe(message -> {
+				JsonRpcRequest request = message.getRequest();
 				log.info("Receive request {}", request);
 
 				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
@@ -138,7 +127,12 @@ public class ReactorJsonRpcHandlerAdapter implements BiFunction<NettyInbound, Ne
 
 					@Override
 					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
+						return Mono.justOrEmpty(request.getParams()).map(Object::toString);
+					}
+
+					@Override
+					public Mono<JsonNode> getParamsNode() {
+						return Mono.justOrEmpty(message.getParams());
 					}
 
 					@Override
@@ -62,6 +62,7 @@ import org.springframework.dsl.domain.MessageParams;
 import org.springframework.dsl.domain.MessageType;
 import org.springframework.dsl.domain.PublishDiagnosticsParams;
 import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.domain.ReferenceParams;
 import org.springframework.dsl.domain.Registration;
 import org.springframework.dsl.domain.RegistrationParams;
 import org.springframework.dsl.domain.RenameFileKind;
@@ -1197,6 +1198,35 @@ public class LspDomainJacksonSerializationTests {
 		assertObjects(from, to);
 	}
 
+	@Test
+	public void testReferenceParams() throws Exception {
+		ReferenceParams from = new ReferenceParams();
+		String json = mapper.writeValueAsString(from);
+		ReferenceParams to = mapper.readValue(json, ReferenceParams.class);
+		assertObjects(from, to);
+
+		from = ReferenceParams.referenceParams()
+				.textDocument()
+					.uri("uri")
+					.and()
+				.position()
+					.line(1)
+					.character(1)
+					.and()
+				.context()
+					.includeDeclaration(true)
+					.and()
+				.build();
+
+		json = mapper.writeValueAsString(from);
+		to = mapper.readValue(json, ReferenceParams.class);
+		assertObjects(from, to);
+
+		String expect = loadResourceAsString("ReferenceParams1.json");
+		to = mapper.readValue(expect, ReferenceParams.class);
+		assertObjects(from, to);
+	}
+
 	@Test
 	public void testRenameParams() throws Exception {
 		RenameParams from = new RenameParams();
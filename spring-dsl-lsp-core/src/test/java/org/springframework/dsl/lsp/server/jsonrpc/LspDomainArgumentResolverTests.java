@@ -42,6 +42,9 @@ import org.springframework.dsl.jsonrpc.support.MockJsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.support.MockServerJsonRpcExchange;
 import org.springframework.dsl.lsp.server.config.LspDomainJacksonConfiguration;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * Tests for {@link LspDomainArgumentResolver}.
  *
@@ -118,6 +121,44 @@ public class LspDomainArgumentResolverTests {
 		assertThat(result).isEqualTo(expected);
 	}
 
+	@Test
+	public void testInitializeParamsFromParamsNode() throws Exception {
+		String params = "{" +
+				"\"processId\":1," +
+				"\"rootUri\":\"rootUri\"," +
+				"\"unknownField\":\"unknownField\"" +
+				"}";
+		// text params are not valid json so binding needs to happen from a tree
+		MockServerJsonRpcExchange exchange = MockServerJsonRpcExchange.from(MockJsonRpcInputMessage.get("")
+				.body("not json")
+				.paramsNode(new ObjectMapper().readTree(params)));
+		MethodParameter param = this.testMethod.arg(InitializeParams.class);
+		Object result = resolve(param, exchange);
+		InitializeParams expected = InitializeParams.initializeParams()
+				.processId(1)
+				.rootUri("rootUri")
+				.build();
+		assertThat(result).isEqualTo(expected);
+	}
+
+	@Test
+	public void testSharedObjectMapperNotModified() {
+		JsonRpcJackson2ObjectMapperBuilder builder = new JsonRpcJackson2ObjectMapperBuilder();
+		builder.failOnUnknownProperties(true);
+		ObjectMapper objectMapper = builder.build();
+		LspDomainArgumentResolver resolver = new LspDomainArgumentResolver(objectMapper);
+		MethodParameter param = this.testMethod.arg(InitializeParams.class);
+		assertThat(resolver.supportsParameter(param)).isTrue();
+
+		for (int i = 0; i < 2; i++) {
+			MockServerJsonRpcExchange exchange = MockServerJsonRpcExchange.from(MockJsonRpcInputMessage.get("")
+					.body("{\"processId\":" + i + ",\"unknownField\":\"unknownField\"}"));
+			InitializeParams result = (InitializeParams) resolver.resolveArgument(param, exchange).block();
+			assertThat(result.getProcessId()).isEqualTo(i);
+		}
+		assertThat(objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)).isTrue();
+	}
+
 	@Test
 	public void testJacksonDeserialization() {
 		String params = "{  \"processId\": 24297,  \"rootPath\": \"/home/jvalkealahti/Documents/vscode/test/log-sink-rabbit\",  \"rootUri\": \"file:///home/jvalkealahti/Documents/vscode/test/log-sink-rabbit\",  \"capabilities\": {    \"workspace\": {      \"applyEdit\": true,      \"workspaceEdit\": {        \"documentChanges\": true,        \"resourceOperations\": [          \"create\",          \"rename\",          \"delete\"        ],        \"failureHandling\": \"textOnlyTransactional\"      },      \"didChangeConfiguration\": {        \"dynamicRegistration\": true      },      \"didChangeWatchedFiles\": {        \"dynamicRegistration\": true      },      \"symbol\": {        \"dynamicRegistration\": true,        \"symbolKind\": {          \"valueSet\": [            1,            2,            3,            4,            5,            6,            7,            8,            9,            10,            11,            12,            13,            14,            15,            16,            17,            18,            19,            20,            21,            22,            23,            24,            25,            26          ]        }      },      \"executeCommand\": {        \"dynamicRegistration\": true      },      \"configuration\": true,      \"workspaceFolders\": true    },    \"textDocument\": {      \"publishDiagnostics\": {        \"relatedInformation\": true      },      \"synchronization\": {        \"dynamicRegistration\": true,        \"willSave\": true,        \"willSaveWaitUntil\": true,        \"didSave\": true      },      \"completion\": {        \"dynamicRegistration\": true,        \"contextSupport\": true,        \"completionItem\": {          \"snippetSupport\": true,          \"commitCharactersSupport\": true,          \"documentationFormat\": [            \"markdown\",            \"plaintext\"          ],          \"deprecatedSupport\": true,          \"preselectSupport\": true        },        \"completionItemKind\": {          \"valueSet\": [            1,            2,            3,            4,            5,            6,            7,            8,            9,            10,            11,            12,            13,            14,            15,            16,            17,            18,            19,            20,            21,            22,            23,            24,            25          ]        }      },      \"hover\": {        \"dynamicRegistration\": true,        \"contentFormat\": [          \"markdown\",          \"plaintext\"        ]      },      \"signatureHelp\": {        \"dynamicRegistration\": true,        \"signatureInformation\": {          \"documentationFormat\": [            \"markdown\",            \"plaintext\"          ],          \"parameterInformation\": {            \"labelOffsetSupport\": true          }        }      },      \"definition\": {        \"dynamicRegistration\": true,        \"linkSupport\": true      },      \"references\": {        \"dynamicRegistration\": true      },      \"documentHighlight\": {        \"dynamicRegistration\": true      },      \"documentSymbol\": {        \"dynamicRegistration\": true,        \"symbolKind\": {          \"valueSet\": [            1,            2,            3,            4,            5,            6,            7,            8,            9,            10,            11,            12,            13,            14,            15,            16,            17,            18,            19,            20,            21,            22,            23,            24,            25,            26          ]        },        \"hierarchicalDocumentSymbolSupport\": true      },      \"codeAction\": {        \"dynamicRegistration\": true,        \"codeActionLiteralSupport\": {          \"codeActionKind\": {            \"valueSet\": [              \"\",              \"quickfix\",              \"refactor\",              \"refactor.extract\",              \"refactor.inline\",              \"refactor.rewrite\",              \"source\",              \"source.organizeImports\"            ]          }        }      },      \"codeLens\": {        \"dynamicRegistration\": true      },      \"formatting\": {        \"dynamicRegistration\": true      },      \"rangeFormatting\": {        \"dynamicRegistration\": true      },      \"onTypeFormatting\": {        \"dynamicRegistration\": true      },      \"rename\": {        \"dynamicRegistration\": true,        \"prepareSupport\": true      },      \"documentLink\": {        \"dynamicRegistration\": true      },      \"typeDefinition\": {        \"dynamicRegistration\": true,        \"linkSupport\": true      },      \"implementation\": {        \"dynamicRegistration\": true,        \"linkSupport\": true      },      \"colorProvider\": {        \"dynamicRegistration\": true      },      \"foldingRange\": {        \"dynamicRegistration\": true,        \"rangeLimit\": 5000,        \"lineFoldingOnly\": true      },      \"declaration\": {        \"dynamicRegistration\": true,        \"linkSupport\": true      }    }  },  \"trace\": \"off\",  \"workspaceFolders\": [    {      \"uri\": \"file:///home/jvalkealahti/Documents/vscode/test/log-sink-rabbit\",      \"name\": \"log-sink-rabbit\"    },    {      \"uri\": \"file:///home/jvalkealahti/Documents/vscode/test/time-source-rabbit\",      \"name\": \"time-source-rabbit\"    },    {      \"uri\": \"file:///home/jvalkealahti/Documents/vscode/test/dataflow\",      \"name\": \"dataflow\"    }  ]}";
@@ -18,11 +18,11 @@ package demo.dotdsl;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.antlr.v4.runtime.CharStreams;
 import org.springframework.dsl.antlr.AntlrFactory;
 import org.springframework.dsl.antlr.AntlrParseResult;
 import org.springframework.dsl.antlr.support.AbstractAntlrErrorListener;
 import org.springframework.dsl.antlr.support.AbstractAntlrParseResultFunction;
+import org.springframework.dsl.antlr.support.AntlrUtils;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.service.reconcile.ReconcileProblem;
 
@@ -46,7 +46,7 @@ public class DOTAntlrParseResultFunction
 	public Mono<? extends AntlrParseResult<Object>> apply(Document document) {
 		return Mono.defer(() -> {
 			List<ReconcileProblem> errors = new ArrayList<>();
-			DOTParser parser = getParser(CharStreams.fromString(document.content().toString()));
+			DOTParser parser = getParser(AntlrUtils.documentToCharStream(document));
 			parser.removeErrorListeners();
 			parser.addErrorListener(new DOTErrorListener(errors));
 			parser.graph();
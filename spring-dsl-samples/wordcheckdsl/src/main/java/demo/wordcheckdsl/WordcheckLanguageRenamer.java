@@ -15,17 +15,22 @@
  */
 package demo.wordcheckdsl;
 
-import org.springframework.dsl.domain.DocumentSymbol;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.dsl.document.Document;
 import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.domain.TextEdit;
 import org.springframework.dsl.domain.WorkspaceEdit;
+import org.springframework.dsl.lsp.LspSystemConstants;
 import org.springframework.dsl.service.DslContext;
 import org.springframework.dsl.service.Renamer;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
+import org.springframework.dsl.service.symbol.SymbolOccurrenceIndex;
 import org.springframework.dsl.service.symbol.Symbolizer;
-import org.springframework.dsl.support.DslUtils;
-import org.springframework.util.ObjectUtils;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -36,8 +41,6 @@ import reactor.core.publisher.Mono;
  * @see EnableWordcheckLanguage
  *
  */
-// TODO: tried to use share() as returning flux from symbolizer.symbolize,
-//       but it broke things up, has to be a bug in reactor
 //tag::snippet1[]
 public class WordcheckLanguageRenamer extends WordcheckLanguageSupport implements Renamer {
 
@@ -49,19 +52,34 @@ public class WordcheckLanguageRenamer extends WordcheckLanguageSupport implement
 
 	@Override
 	public Mono<WorkspaceEdit> rename(DslContext context, Position position, String newName) {
-		Flux<DocumentSymbol> symbols = symbolizer.symbolize(context).documentSymbols();
-		Mono<DocumentSymbol> symbol = symbols
-			.filter(s -> DslUtils.isPositionInRange(position, s.getRange())).next();
-		return symbols
-			.filterWhen(s -> symbol.map(sym -> ObjectUtils.nullSafeEquals(s.getName(), sym.getName())))
-			.map(s -> TextEdit.textEdit()
-				.newText(newName)
-				.range(s.getRange())
-				.build())
-			.collectList()
+		Document document = context.getDocument();
+		SymbolOccurrenceIndex index = context.getAttribute(LspSystemConstants.CONTEXT_SYMBOL_OCCURRENCE_INDEX_ATTRIBUTE);
+		// occurrences are queried from an index when server has one for this
+		// document, otherwise document is symbolized and indexed here
+		Mono<SymbolOccurrenceIndex> indexed = index != null && index.isIndexed(document.uri(), document.getVersion())
+				? Mono.just(index)
+				: symbolizer.symbolize(context).occurrences()
+					.collectList()
+					.map(occurrences -> {
+						SymbolOccurrenceIndex documentIndex = new SymbolOccurrenceIndex();
+						documentIndex.update(document.uri(), document.getVersion(), occurrences);
+						return documentIndex;
+					});
+		return indexed
+			.map(i -> {
+				SymbolOccurrence occurrence = i.getOccurrence(document.uri(), position);
+				List<Range> ranges = occurrence != null ? i.getRanges(document.uri(), occurrence.getKey())
+						: Collections.<Range>emptyList();
+				return ranges.stream()
+					.map(range -> TextEdit.textEdit()
+						.newText(newName)
+						.range(range)
+						.build())
+					.collect(Collectors.toList());
+			})
 			.map(list -> {
 				return WorkspaceEdit.workspaceEdit()
-					.changes(context.getDocument().uri(), list)
+					.changes(document.uri(), list)
 					.build();
 			});
 	}
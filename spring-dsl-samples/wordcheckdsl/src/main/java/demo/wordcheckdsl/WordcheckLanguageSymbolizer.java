@@ -23,6 +23,7 @@ import org.springframework.dsl.domain.DocumentSymbol;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.domain.SymbolKind;
 import org.springframework.dsl.service.DslContext;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.service.symbol.SymbolizeInfo;
 import org.springframework.dsl.service.symbol.Symbolizer;
 
@@ -67,6 +68,18 @@ public class WordcheckLanguageSymbolizer extends WordcheckLanguageSupport implem
 					.build());
 		});
 
-		return SymbolizeInfo.of(documentSymbols, symbolInformations);
+		Flux<SymbolOccurrence> occurrences = Flux.defer(() -> {
+			Document document = context.getDocument();
+			return Flux.fromArray(new DocumentRegion(document).split(SPACE))
+				.filter(w -> w.length() > 0)
+				.map(r -> SymbolOccurrence.reference(r.toString(), r.toRange()));
+		});
+
+		return SymbolizeInfo.of(documentSymbols, symbolInformations, occurrences);
+	}
+
+	@Override
+	public boolean isOccurrencesSupported() {
+		return true;
 	}
 }
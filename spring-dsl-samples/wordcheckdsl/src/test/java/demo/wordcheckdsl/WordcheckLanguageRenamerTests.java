@@ -23,9 +23,15 @@ import org.junit.Test;
 import org.springframework.dsl.document.Document;
 import org.springframework.dsl.document.TextDocument;
 import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.domain.TextEdit;
 import org.springframework.dsl.domain.WorkspaceEdit;
+import org.springframework.dsl.lsp.LspSystemConstants;
 import org.springframework.dsl.model.LanguageId;
 import org.springframework.dsl.service.DslContext;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
+import org.springframework.dsl.service.symbol.SymbolOccurrenceIndex;
+import org.springframework.dsl.service.symbol.SymbolizeInfo;
 
 /**
  * Tests for {@link WordcheckLanguageRenamer}.
@@ -86,4 +92,28 @@ public class WordcheckLanguageRenamerTests {
 			.build();
 		assertThat(workspaceEdit).isEqualTo(expect);
 	}
+
+	@Test
+	public void testOccurrencesFromIndex() {
+		WordcheckLanguageRenamer renamer = new WordcheckLanguageRenamer(new WordcheckLanguageSymbolizer() {
+
+			@Override
+			public SymbolizeInfo symbolize(DslContext context) {
+				throw new IllegalStateException("symbolizer must not be used with an index");
+			}
+		});
+		Document document = new TextDocument("fakeuri", LanguageId.TXT, 1, "jack is jack");
+		SymbolOccurrenceIndex index = new SymbolOccurrenceIndex();
+		index.update("fakeuri", 1, Arrays.asList(
+				SymbolOccurrence.reference("jack", Range.from(0, 0, 0, 4)),
+				SymbolOccurrence.reference("is", Range.from(0, 5, 0, 7)),
+				SymbolOccurrence.reference("jack", Range.from(0, 8, 0, 12))));
+		DslContext context = DslContext.builder()
+			.document(document)
+			.attribute(LspSystemConstants.CONTEXT_SYMBOL_OCCURRENCE_INDEX_ATTRIBUTE, index)
+			.build();
+		WorkspaceEdit workspaceEdit = renamer.rename(context, Position.from(0, 9), "xxx").block();
+		assertThat(workspaceEdit.getChanges().get("fakeuri")).extracting(TextEdit::getRange)
+				.containsExactly(Range.from(0, 0, 0, 4), Range.from(0, 8, 0, 12));
+	}
 }
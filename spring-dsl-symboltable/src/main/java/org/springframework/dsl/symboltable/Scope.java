@@ -17,6 +17,7 @@ package org.springframework.dsl.symboltable;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.domain.SymbolKind;
@@ -159,6 +160,47 @@ public interface Scope {
 	 */
 	List<? extends Symbol> getAllSymbols();
 
+	/**
+	 * Walk all symbols found in this and all nested scopes in a same order as
+	 * {@link #getAllSymbols()} without collecting them into a list. Walk stops
+	 * when a given predicate returns {@code false}.
+	 *
+	 * @param predicate the predicate called for each symbol
+	 * @return false if walk was stopped by a predicate, true otherwise
+	 */
+	default boolean walkSymbols(Predicate<? super Symbol> predicate) {
+		for (Symbol s : getSymbols()) {
+			if (!predicate.test(s)) {
+				return false;
+			}
+		}
+		for (Scope s : getNestedScopes()) {
+			if (!s.walkSymbols(predicate)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Walk this and all nested scopes depth-first, a scope before its nested
+	 * scopes. Walk stops when a given predicate returns {@code false}.
+	 *
+	 * @param predicate the predicate called for each scope
+	 * @return false if walk was stopped by a predicate, true otherwise
+	 */
+	default boolean walkScopes(Predicate<? super Scope> predicate) {
+		if (!predicate.test(this)) {
+			return false;
+		}
+		for (Scope s : getNestedScopes()) {
+			if (!s.walkScopes(predicate)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Gets the set of names associated with all symbols in the scope.
 	 *
@@ -15,7 +15,12 @@
  */
 package org.springframework.dsl.symboltable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
+import org.springframework.dsl.symboltable.support.Utils;
 
 /**
  * Generic interface for accessing information from a {@code symboltable}. By
@@ -34,6 +39,52 @@ public interface SymbolTable {
 	 */
 	List<? extends Symbol> getAllSymbols();
 
+	/**
+	 * Walk all symbols known to symbol table until a given predicate returns
+	 * {@code false}.
+	 *
+	 * @param predicate the predicate called for each symbol
+	 * @return false if walk was stopped by a predicate, true otherwise
+	 */
+	default boolean walkSymbols(Predicate<? super Symbol> predicate) {
+		for (Symbol s : getAllSymbols()) {
+			if (!predicate.test(s)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolve a symbol by its name as seen from a given scope. Defaults to
+	 * {@link Scope#resolve(String)} while implementations may cache resolutions.
+	 *
+	 * @param scope the scope to resolve from
+	 * @param name the symbol name
+	 * @return the resolved symbol or {@code null} if not found
+	 */
+	default Symbol resolve(Scope scope, String name) {
+		return scope.resolve(name);
+	}
+
+	/**
+	 * Gets occurrences of symbols known to symbol table. Defaults to
+	 * declarations of all symbols having a range keyed by
+	 * {@link Utils#toSymbolKey(Symbol)}.
+	 *
+	 * @return the symbol occurrences
+	 */
+	default List<SymbolOccurrence> getOccurrences() {
+		List<SymbolOccurrence> occurrences = new ArrayList<>();
+		walkSymbols(symbol -> {
+			if (symbol.getRange() != null) {
+				occurrences.add(SymbolOccurrence.declaration(Utils.toSymbolKey(symbol), symbol.getRange()));
+			}
+			return true;
+		});
+		return occurrences;
+	}
+
 	/**
 	 * Visit table with a given visitor and return it after completion.
 	 *
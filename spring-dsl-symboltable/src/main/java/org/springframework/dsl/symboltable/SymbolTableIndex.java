@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable index of {@link Scope} and {@link Symbol} ranges of a
+ * {@link SymbolTable}. Ranges are kept sorted by a start position in an
+ * implicit interval tree which allows finding an innermost scope or symbol at a
+ * position, scopes enclosing a position and symbols overlapping a range in
+ * {@code O(log n + k)} without walking a table.
+ * <p>
+ * Index is a snapshot of a table when it was built, scopes and symbols without
+ * a range are not indexed.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public final class SymbolTableIndex {
+
+	private final Intervals<Scope> scopes;
+	private final Intervals<Symbol> symbols;
+
+	private SymbolTableIndex(Intervals<Scope> scopes, Intervals<Symbol> symbols) {
+		this.scopes = scopes;
+		this.symbols = symbols;
+	}
+
+	/**
+	 * Build an index from a given {@link SymbolTable}.
+	 *
+	 * @param symbolTable the symbol table
+	 * @return the symbol table index
+	 */
+	public static SymbolTableIndex of(SymbolTable symbolTable) {
+		Assert.notNull(symbolTable, "Symbol table must be set");
+		return symbolTable.visitSymbolTable(new IndexingVisitor()).build();
+	}
+
+	/**
+	 * Build an index from a given {@link Scope} and its nested scopes.
+	 *
+	 * @param scope the scope
+	 * @return the symbol table index
+	 */
+	public static SymbolTableIndex of(Scope scope) {
+		Assert.notNull(scope, "Scope must be set");
+		IndexingVisitor visitor = new IndexingVisitor();
+		scope.accept(visitor);
+		return visitor.build();
+	}
+
+	/**
+	 * Gets the number of indexed scopes.
+	 *
+	 * @return the number of scopes
+	 */
+	public int getScopeCount() {
+		return scopes.size;
+	}
+
+	/**
+	 * Gets the number of indexed symbols.
+	 *
+	 * @return the number of symbols
+	 */
+	public int getSymbolCount() {
+		return symbols.size;
+	}
+
+	/**
+	 * Find an innermost scope containing a given position.
+	 *
+	 * @param position the position
+	 * @return the scope or {@code null} if position is not within any scope
+	 */
+	public Scope getScopeAt(Position position) {
+		Assert.notNull(position, "Position must be set");
+		return scopes.innermost(key(position));
+	}
+
+	/**
+	 * Find all scopes containing a given position ordered from an innermost to
+	 * an outermost scope.
+	 *
+	 * @param position the position
+	 * @return the enclosing scopes
+	 */
+	public List<Scope> getEnclosingScopes(Position position) {
+		Assert.notNull(position, "Position must be set");
+		long key = key(position);
+		List<Scope> result = scopes.overlapping(key, key);
+		Collections.reverse(result);
+		return result;
+	}
+
+	/**
+	 * Find an innermost symbol containing a given position.
+	 *
+	 * @param position the position
+	 * @return the symbol or {@code null} if position is not within any symbol
+	 */
+	public Symbol getSymbolAt(Position position) {
+		Assert.notNull(position, "Position must be set");
+		return symbols.innermost(key(position));
+	}
+
+	/**
+	 * Find all symbols overlapping a given range ordered by their start
+	 * positions.
+	 *
+	 * @param range the range
+	 * @return the overlapping symbols
+	 */
+	public List<Symbol> getSymbols(Range range) {
+		Assert.notNull(range, "Range must be set");
+		return symbols.overlapping(key(range.getStart()), key(range.getEnd()));
+	}
+
+	private static long key(Position position) {
+		return ((long) position.getLine() << 32) | (position.getCharacter() & 0xffffffffL);
+	}
+
+	private static boolean isValid(Range range) {
+		return range != null && range.getStart() != null && range.getEnd() != null;
+	}
+
+	/**
+	 * Collects ranges of visited scopes and symbols.
+	 */
+	private static class IndexingVisitor implements SymbolTableVisitor {
+
+		private final IntervalsBuilder<Scope> scopes = new IntervalsBuilder<>();
+		private final IntervalsBuilder<Symbol> symbols = new IntervalsBuilder<>();
+
+		@Override
+		public void enterVisitScope(Scope scope) {
+			Range range = scope.getScopeRange();
+			if (!isValid(range) && scope instanceof Symbol) {
+				range = ((Symbol) scope).getRange();
+			}
+			if (isValid(range)) {
+				scopes.add(scope, range);
+			}
+		}
+
+		@Override
+		public void exitVisitScope(Scope scope) {
+		}
+
+		@Override
+		public void enterVisitSymbol(Symbol symbol) {
+			Range range = symbol.getRange();
+			if (isValid(range)) {
+				symbols.add(symbol, range);
+			}
+		}
+
+		@Override
+		public void exitVisitSymbol(Symbol symbol) {
+		}
+
+		SymbolTableIndex build() {
+			return new SymbolTableIndex(scopes.build(), symbols.build());
+		}
+	}
+
+	private static class IntervalsBuilder<T> {
+
+		private final List<T> items = new ArrayList<>();
+		private final List<Range> ranges = new ArrayList<>();
+
+		void add(T item, Range range) {
+			items.add(item);
+			ranges.add(range);
+		}
+
+		Intervals<T> build() {
+			int size = items.size();
+			Integer[] order = new Integer[size];
+			long[] rawStarts = new long[size];
+			long[] rawEnds = new long[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+				rawStarts[i] = key(ranges.get(i).getStart());
+				rawEnds[i] = key(ranges.get(i).getEnd());
+			}
+			// by start and outer intervals first for equal starts
+			Arrays.sort(order, (a, b) -> {
+				int c = Long.compare(rawStarts[a], rawStarts[b]);
+				return c != 0 ? c : Long.compare(rawEnds[b], rawEnds[a]);
+			});
+			long[] starts = new long[size];
+			long[] ends = new long[size];
+			Object[] sorted = new Object[size];
+			for (int i = 0; i < size; i++) {
+				starts[i] = rawStarts[order[i]];
+				ends[i] = rawEnds[order[i]];
+				sorted[i] = items.get(order[i]);
+			}
+			return new Intervals<>(starts, ends, sorted);
+		}
+	}
+
+	/**
+	 * Intervals sorted by start forming an implicit balanced tree where a node
+	 * of a subarray is its middle element and {@code maxEnds} keeps a max end
+	 * of a subtree rooted at a node.
+	 */
+	private static class Intervals<T> {
+
+		final long[] starts;
+		final long[] ends;
+		final long[] maxEnds;
+		final Object[] items;
+		final int size;
+
+		Intervals(long[] starts, long[] ends, Object[] items) {
+			this.starts = starts;
+			this.ends = ends;
+			this.items = items;
+			this.size = items.length;
+			this.maxEnds = new long[size];
+			computeMaxEnds(0, size - 1);
+		}
+
+		private long computeMaxEnds(int low, int high) {
+			if (low > high) {
+				return Long.MIN_VALUE;
+			}
+			int mid = (low + high) >>> 1;
+			long max = Math.max(ends[mid], Math.max(computeMaxEnds(low, mid - 1), computeMaxEnds(mid + 1, high)));
+			maxEnds[mid] = max;
+			return max;
+		}
+
+		@SuppressWarnings("unchecked")
+		T innermost(long position) {
+			// last interval in sort order containing a position is innermost
+			int found = innermost(0, size - 1, position);
+			return found < 0 ? null : (T) items[found];
+		}
+
+		private int innermost(int low, int high, long position) {
+			if (low > high) {
+				return -1;
+			}
+			int mid = (low + high) >>> 1;
+			if (maxEnds[mid] < position) {
+				return -1;
+			}
+			if (starts[mid] <= position) {
+				int right = innermost(mid + 1, high, position);
+				if (right >= 0) {
+					return right;
+				}
+				if (ends[mid] >= position) {
+					return mid;
+				}
+			}
+			return innermost(low, mid - 1, position);
+		}
+
+		List<T> overlapping(long start, long end) {
+			List<T> result = new ArrayList<>();
+			overlapping(0, size - 1, start, end, result);
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void overlapping(int low, int high, long start, long end, List<T> result) {
+			if (low > high) {
+				return;
+			}
+			int mid = (low + high) >>> 1;
+			if (maxEnds[mid] < start) {
+				return;
+			}
+			overlapping(low, mid - 1, start, end, result);
+			if (starts[mid] > end) {
+				return;
+			}
+			if (ends[mid] >= start) {
+				result.add((T) items[mid]);
+			}
+			overlapping(mid + 1, high, start, end, result);
+		}
+	}
+}
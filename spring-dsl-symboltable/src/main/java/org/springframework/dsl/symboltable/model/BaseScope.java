@@ -16,12 +16,12 @@
 package org.springframework.dsl.symboltable.model;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.symboltable.Scope;
@@ -58,6 +58,16 @@ public abstract class BaseScope implements Scope {
 	 */
 	protected final List<Scope> nestedScopesNotSymbols = new ArrayList<>();
 
+	/**
+	 * Symbols in insertion order and those of them which are scopes, kept
+	 * together with a symbols map so that traversal doesn't need to copy or
+	 * filter them.
+	 */
+	private final List<Symbol> orderedSymbols = new ArrayList<>();
+	private final List<Symbol> orderedSymbolsView = Collections.unmodifiableList(orderedSymbols);
+	private final List<Scope> nestedScopedSymbols = new ArrayList<>();
+	private final List<Scope> nestedScopedSymbolsView = Collections.unmodifiableList(nestedScopedSymbols);
+
 	private Range scopeRange;
 
 	/**
@@ -79,13 +89,15 @@ public abstract class BaseScope implements Scope {
 	public void accept(SymbolTableVisitor visitor) {
 		visitor.enterVisitScope(this);
 		enterVisitSymbol(visitor);
-		for (Scope s : getNestedScopes()) {
+		for (int i = 0; i < nestedScopesNotSymbols.size(); i++) {
+			Scope s = nestedScopesNotSymbols.get(i);
 			if (!(s instanceof Symbol)) {
 				s.accept(visitor);
 			}
 		}
-		for (Symbol s : getSymbols()) {
-			s.accept(visitor);
+		List<? extends Symbol> syms = getSymbols();
+		for (int i = 0; i < syms.size(); i++) {
+			syms.get(i).accept(visitor);
 		}
 		exitVisitSymbol(visitor);
 		visitor.exitVisitScope(this);
@@ -106,16 +118,16 @@ public abstract class BaseScope implements Scope {
 
 	@Override
 	public List<Scope> getNestedScopedSymbols() {
-		return getSymbols().stream()
-				.filter(s -> s instanceof Scope)
-				.map(s -> (Scope)s)
-				.collect(Collectors.toList());
+		return nestedScopedSymbolsView;
 	}
 
 	@Override
 	public List<Scope> getNestedScopes() {
-		ArrayList<Scope> all = new ArrayList<>();
-		all.addAll(getNestedScopedSymbols());
+		if (nestedScopesNotSymbols.isEmpty()) {
+			return nestedScopedSymbolsView;
+		}
+		ArrayList<Scope> all = new ArrayList<>(nestedScopedSymbols.size() + nestedScopesNotSymbols.size());
+		all.addAll(nestedScopedSymbols);
 		all.addAll(nestedScopesNotSymbols);
 		return all;
 	}
@@ -154,6 +166,21 @@ public abstract class BaseScope implements Scope {
 		// set to insertion position from 0
 		sym.setInsertionOrderNumber(symbols.size());
 		symbols.put(sym.getName(), sym);
+		orderedSymbols.add(sym);
+		if (sym instanceof Scope) {
+			nestedScopedSymbols.add((Scope) sym);
+		}
+	}
+
+	/**
+	 * Remove all symbols and nested scopes from this scope so that its contents
+	 * can be defined again while this scope itself stays in a scope tree.
+	 */
+	public void clear() {
+		symbols.clear();
+		orderedSymbols.clear();
+		nestedScopedSymbols.clear();
+		nestedScopesNotSymbols.clear();
 	}
 
 	@Override
@@ -214,30 +241,54 @@ public abstract class BaseScope implements Scope {
 
 	@Override
 	public List<? extends Symbol> getSymbols() {
-		Collection<Symbol> values = symbols.values();
-		if (values instanceof List) {
-			return (List<Symbol>) values;
-		}
-		return new ArrayList<>(values);
+		return orderedSymbolsView;
 	}
 
 	@Override
 	public List<? extends Symbol> getAllSymbols() {
 		List<Symbol> syms = new ArrayList<>();
-		syms.addAll(getSymbols());
-		for (Symbol s : symbols.values()) {
-			if (s instanceof Scope) {
-				Scope scope = (Scope) s;
-				syms.addAll(scope.getAllSymbols());
+		walkSymbols(s -> syms.add(s));
+		return syms;
+	}
+
+	@Override
+	public boolean walkSymbols(Predicate<? super Symbol> predicate) {
+		List<? extends Symbol> syms = getSymbols();
+		for (int i = 0; i < syms.size(); i++) {
+			if (!predicate.test(syms.get(i))) {
+				return false;
 			}
 		}
-		for (Scope s : getNestedScopes()) {
-			if (!(s instanceof Symbol)) {
-				syms.addAll(s.getAllSymbols());
+		for (int i = 0; i < nestedScopedSymbols.size(); i++) {
+			if (!nestedScopedSymbols.get(i).walkSymbols(predicate)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < nestedScopesNotSymbols.size(); i++) {
+			Scope s = nestedScopesNotSymbols.get(i);
+			if (!(s instanceof Symbol) && !s.walkSymbols(predicate)) {
+				return false;
 			}
 		}
+		return true;
+	}
 
-		return syms;
+	@Override
+	public boolean walkScopes(Predicate<? super Scope> predicate) {
+		if (!predicate.test(this)) {
+			return false;
+		}
+		for (int i = 0; i < nestedScopedSymbols.size(); i++) {
+			if (!nestedScopedSymbols.get(i).walkScopes(predicate)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < nestedScopesNotSymbols.size(); i++) {
+			if (!nestedScopesNotSymbols.get(i).walkScopes(predicate)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
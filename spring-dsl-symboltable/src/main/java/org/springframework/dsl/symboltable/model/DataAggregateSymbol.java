@@ -59,11 +59,10 @@ public abstract class DataAggregateSymbol extends SymbolWithScope implements Mem
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<MemberSymbol> getSymbols() {
-		return super.getSymbols().stream()
-				.filter(s -> s instanceof MemberSymbol)
-				.map(s -> (MemberSymbol)s)
-				.collect(Collectors.toList());
+		// define() only accepts member symbols
+		return (List<MemberSymbol>) super.getSymbols();
 	}
 
 	@Override
@@ -73,6 +72,12 @@ public abstract class DataAggregateSymbol extends SymbolWithScope implements Mem
 			.collect(Collectors.toMap(Map.Entry::getKey, e -> (MemberSymbol)e.getValue()));
 	}
 
+	@Override
+	public void clear() {
+		super.clear();
+		nextFreeFieldSlot = 0;
+	}
+
 	/**
 	 * Look up name within this scope only. Return any kind of MemberSymbol found or
 	 * null if nothing with this name found as MemberSymbol.
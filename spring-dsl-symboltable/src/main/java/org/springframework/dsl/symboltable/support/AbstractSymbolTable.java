@@ -15,15 +15,28 @@
  */
 package org.springframework.dsl.symboltable.support;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.symboltable.Scope;
 import org.springframework.dsl.symboltable.Symbol;
 import org.springframework.dsl.symboltable.SymbolTable;
 import org.springframework.dsl.symboltable.SymbolTableVisitor;
 import org.springframework.dsl.symboltable.model.BaseScope;
+import org.springframework.dsl.symboltable.model.BaseSymbol;
 import org.springframework.dsl.symboltable.model.GlobalScope;
 import org.springframework.dsl.symboltable.model.PredefinedScope;
+import org.springframework.dsl.symboltable.model.SymbolWithScope;
+import org.springframework.util.Assert;
 
 /**
  * Base implementation of a {@link SymbolTable} meant to provide generic
@@ -34,6 +47,16 @@ import org.springframework.dsl.symboltable.model.PredefinedScope;
  * This implementation allows to define concept of a {@code global} and
  * {@code predefined} symbols and resolving everything what {@link SymbolTable}
  * defines.
+ * <p>
+ * After a document edit a table doesn't need to be built again as a whole as
+ * contents of an innermost scope containing an edit can be replaced with
+ * {@link #replaceScope(BaseScope, Range, Position, Consumer)} while rest of a
+ * table is kept and ranges after an edit are shifted.
+ * <p>
+ * Resolutions via {@link #resolve(Scope, String)} can be memoized with
+ * {@link #setResolveCache(boolean)} for tables which are no longer modified
+ * through their scopes. Cache is dropped when a table is modified via its own
+ * methods and rebuilt on a next resolve.
  *
  * @author Janne Valkealahti
  *
@@ -42,12 +65,58 @@ public abstract class AbstractSymbolTable implements SymbolTable {
 
 	private final BaseScope prefefined = new PredefinedScope();
 	private final GlobalScope globals = new GlobalScope(prefefined);
+	private final List<Reference> references = new ArrayList<>();
+	private boolean resolveCacheEnabled;
+	private volatile ResolveCache resolveCache;
 
 	@Override
 	public List<? extends Symbol> getAllSymbols() {
 		return globals.getAllSymbols();
 	}
 
+	@Override
+	public boolean walkSymbols(Predicate<? super Symbol> predicate) {
+		return globals.walkSymbols(predicate);
+	}
+
+	@Override
+	public Symbol resolve(Scope scope, String name) {
+		if (!resolveCacheEnabled) {
+			return scope.resolve(name);
+		}
+		ResolveCache cache = resolveCache;
+		if (cache == null) {
+			cache = new ResolveCache(globals);
+			resolveCache = cache;
+		}
+		return cache.resolve(scope, name);
+	}
+
+	/**
+	 * Sets if resolutions via {@link #resolve(Scope, String)} are memoized per
+	 * scope and name. Should only be enabled when a table is not modified
+	 * anymore through its scopes as changes outside of methods of this table are
+	 * not seen by a cache.
+	 *
+	 * @param resolveCache the flag to enable resolve cache
+	 */
+	public void setResolveCache(boolean resolveCache) {
+		this.resolveCacheEnabled = resolveCache;
+		this.resolveCache = null;
+	}
+
+	@Override
+	public List<SymbolOccurrence> getOccurrences() {
+		List<SymbolOccurrence> occurrences = SymbolTable.super.getOccurrences();
+		for (Reference reference : references) {
+			Symbol symbol = resolve(reference.scope, reference.name);
+			if (symbol != null) {
+				occurrences.add(SymbolOccurrence.reference(Utils.toSymbolKey(symbol), reference.range));
+			}
+		}
+		return occurrences;
+	}
+
 	@Override
 	public <T extends SymbolTableVisitor> T visitSymbolTable(T visitor) {
 		getGlobalScope().accept(visitor);
@@ -61,6 +130,7 @@ public abstract class AbstractSymbolTable implements SymbolTable {
 	 */
 	public void definePredefined(Symbol symbol) {
 		prefefined.define(symbol);
+		resolveCache = null;
 	}
 
 	/**
@@ -70,6 +140,75 @@ public abstract class AbstractSymbolTable implements SymbolTable {
 	 */
 	public void defineGlobal(Symbol symbol) {
 		globals.define(symbol);
+		resolveCache = null;
+	}
+
+	/**
+	 * Add a reference to a symbol with a given name. Reference is resolved from
+	 * a given scope when occurrences are requested and unresolved references
+	 * are ignored.
+	 *
+	 * @param scope the scope to resolve from
+	 * @param name the referenced symbol name
+	 * @param range the range of a reference
+	 */
+	public void addReference(Scope scope, String name, Range range) {
+		references.add(new Reference(scope, name, range));
+	}
+
+	/**
+	 * Find an innermost scope which fully contains a given range. Scopes
+	 * without a scope range are matched by their symbol range.
+	 *
+	 * @param range the range
+	 * @return the innermost scope, global scope if no other scope contains a range
+	 */
+	public BaseScope findScope(Range range) {
+		Assert.notNull(range, "range must be set");
+		BaseScope found = globals;
+		boolean descend = true;
+		while (descend) {
+			descend = false;
+			for (Scope nested : found.getNestedScopes()) {
+				Range scopeRange = getRange(nested);
+				if (nested instanceof BaseScope && scopeRange != null
+						&& compare(scopeRange.getStart(), range.getStart()) <= 0
+						&& compare(scopeRange.getEnd(), range.getEnd()) >= 0) {
+					found = (BaseScope) nested;
+					descend = true;
+					break;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Replace contents of a scope after a document edit. Symbols, nested scopes
+	 * and references of a scope are removed and defined again by a populator
+	 * while ranges of all other scopes, symbols and references positioned after
+	 * an edited range are shifted by a size change of an edit. Subtrees ending
+	 * before an edit are not visited.
+	 *
+	 * @param scope the scope to replace, must contain an edited range
+	 * @param edited the edited range in positions before an edit
+	 * @param newEnd the end position of a replacing text after an edit
+	 * @param populator the populator defining new contents of a scope
+	 */
+	public void replaceScope(BaseScope scope, Range edited, Position newEnd, Consumer<? super BaseScope> populator) {
+		Assert.notNull(scope, "scope must be set");
+		Assert.notNull(edited, "edited range must be set");
+		Assert.notNull(newEnd, "newEnd must be set");
+		Assert.notNull(populator, "populator must be set");
+		RangeShift shift = new RangeShift(edited, newEnd);
+		references.removeIf(reference -> isWithin(reference.scope, scope));
+		resolveCache = null;
+		scope.clear();
+		shiftScope(globals, shift);
+		for (Reference reference : references) {
+			reference.range = shift.apply(reference.range);
+		}
+		populator.accept(scope);
 	}
 
 	/**
@@ -80,4 +219,134 @@ public abstract class AbstractSymbolTable implements SymbolTable {
 	public Scope getGlobalScope() {
 		return globals;
 	}
+
+	private static void shiftScope(Scope scope, RangeShift shift) {
+		if (scope instanceof BaseScope) {
+			BaseScope baseScope = (BaseScope) scope;
+			baseScope.setScopeRange(shift.apply(baseScope.getScopeRange()));
+		}
+		for (Symbol symbol : scope.getSymbols()) {
+			if (symbol instanceof BaseSymbol) {
+				((BaseSymbol) symbol).setRange(shift.apply(symbol.getRange()));
+			} else if (symbol instanceof SymbolWithScope) {
+				((SymbolWithScope) symbol).setRange(shift.apply(symbol.getRange()));
+			}
+		}
+		for (Scope nested : scope.getNestedScopes()) {
+			Range range = getRange(nested);
+			// nested ranges are within a scope, nothing to shift in a subtree ending before an edit
+			if (range == null || compare(range.getEnd(), shift.start) >= 0) {
+				shiftScope(nested, shift);
+			}
+		}
+	}
+
+	private static Range getRange(Scope scope) {
+		Range range = scope.getScopeRange();
+		if (range == null && scope instanceof Symbol) {
+			range = ((Symbol) scope).getRange();
+		}
+		return range != null && range.getStart() != null && range.getEnd() != null ? range : null;
+	}
+
+	private static boolean isWithin(Scope scope, Scope ancestor) {
+		for (Scope s = scope; s != null; s = s.getEnclosingScope()) {
+			if (s == ancestor) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int compare(Position left, Position right) {
+		int c = Integer.compare(left.getLine(), right.getLine());
+		return c != 0 ? c : Integer.compare(left.getCharacter(), right.getCharacter());
+	}
+
+	/**
+	 * Maps positions at or after an end of an edited range to positions after
+	 * an edit. Positions before an edit are kept as is.
+	 */
+	private static class RangeShift {
+
+		final Position start;
+		final Position oldEnd;
+		final int lineDelta;
+		final int characterDelta;
+
+		RangeShift(Range edited, Position newEnd) {
+			this.start = edited.getStart();
+			this.oldEnd = edited.getEnd();
+			this.lineDelta = newEnd.getLine() - oldEnd.getLine();
+			this.characterDelta = newEnd.getCharacter() - oldEnd.getCharacter();
+		}
+
+		Range apply(Range range) {
+			if (range == null || range.getStart() == null || range.getEnd() == null
+					|| compare(range.getEnd(), oldEnd) < 0) {
+				return range;
+			}
+			return Range.from(apply(range.getStart()), apply(range.getEnd()));
+		}
+
+		Position apply(Position position) {
+			if (compare(position, oldEnd) < 0) {
+				return position;
+			}
+			int character = position.getLine() == oldEnd.getLine() ? position.getCharacter() + characterDelta
+					: position.getCharacter();
+			return Position.from(position.getLine() + lineDelta, character);
+		}
+	}
+
+	/**
+	 * Memoized resolutions keyed by scope identity and name. Scopes known when a
+	 * cache was created are numbered up front so that a lookup is an identity
+	 * hash lookup and a name lookup without allocations, other scopes resolve
+	 * directly.
+	 */
+	private static class ResolveCache {
+
+		private static final Object NOT_FOUND = new Object();
+		private final Map<Scope, Integer> ids = new IdentityHashMap<>();
+		private final AtomicReferenceArray<Map<String, Object>> resolved;
+
+		ResolveCache(Scope root) {
+			root.walkScopes(scope -> {
+				ids.put(scope, ids.size());
+				return true;
+			});
+			resolved = new AtomicReferenceArray<>(ids.size());
+		}
+
+		Symbol resolve(Scope scope, String name) {
+			Integer id = ids.get(scope);
+			if (id == null) {
+				return scope.resolve(name);
+			}
+			Map<String, Object> names = resolved.get(id);
+			if (names == null) {
+				resolved.compareAndSet(id, null, new ConcurrentHashMap<>());
+				names = resolved.get(id);
+			}
+			Object symbol = names.computeIfAbsent(name, n -> {
+				Symbol s = scope.resolve(n);
+				return s != null ? s : NOT_FOUND;
+			});
+			return symbol != NOT_FOUND ? (Symbol) symbol : null;
+		}
+	}
+
+	private static class Reference {
+
+		final Scope scope;
+		final String name;
+		Range range;
+
+		Reference(Scope scope, String name, Range range) {
+			this.scope = scope;
+			this.name = name;
+			this.range = range;
+		}
+	}
 }
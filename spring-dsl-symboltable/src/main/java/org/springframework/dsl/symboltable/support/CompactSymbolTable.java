@@ -0,0 +1,913 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.domain.SymbolKind;
+import org.springframework.dsl.symboltable.Scope;
+import org.springframework.dsl.symboltable.Symbol;
+import org.springframework.dsl.symboltable.SymbolTable;
+import org.springframework.dsl.symboltable.SymbolTableException;
+import org.springframework.dsl.symboltable.SymbolTableVisitor;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SymbolTable} storing symbols and scopes in parallel primitive arrays
+ * instead of an object per symbol. Names are ids of a thread safe
+ * {@link StringTable} which can be shared between tables, ranges are packed into {@code long}s as
+ * line in high and character in low bits and a tree is kept as parent, first
+ * child and next sibling links. Names within a scope are found from a single
+ * open addressing hash of a whole table.
+ * <p>
+ * Table is built by ids returned from {@code define} methods and {@link Symbol}
+ * and {@link Scope} instances are flyweight views created on demand which
+ * compare equal when they refer to a same entry. Symbols defined via
+ * {@link Scope#define(Symbol)} of a view are copied into a table by their
+ * name, kind and range. Setting a scope, an enclosing scope or an insertion
+ * order of a view detaches that view instance from a table, it keeps a name,
+ * kind and range of its entry while a table itself is not changed, thus views
+ * can be defined into scopes of other tables.
+ * <p>
+ * Any {@link SymbolTable} can be copied into a compact table with
+ * {@link #of(SymbolTable)} and a compact table can be written into and read
+ * from a binary format with {@link #writeTo(DataOutput)} and
+ * {@link #readFrom(DataInput, StringTable)}, details of symbols are not kept.
+ * <p>
+ * This class is not thread safe while it is being built.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class CompactSymbolTable implements SymbolTable {
+
+	/**
+	 * Id of a global scope.
+	 */
+	public static final int GLOBAL_SCOPE = 0;
+
+	private static final String GLOBAL_SCOPE_NAME = "global";
+	private static final String LOCAL_SCOPE_NAME = "local";
+	private static final long NO_RANGE = -1L;
+	private static final int NONE = -1;
+	private static final byte FLAG_SYMBOL = 1;
+	private static final byte FLAG_SCOPE = 2;
+	// name, parent, flag, kind and four packed positions
+	private static final int ENTRY_BYTES = 4 + 4 + 1 + 1 + 4 * 8;
+	private static final SymbolKind[] KINDS = SymbolKind.values();
+
+	private final StringTable strings;
+	private int size;
+	private int[] names;
+	private int[] parents;
+	private int[] orders;
+	private int[] counts;
+	private int[] firstChilds;
+	private int[] lastChilds;
+	private int[] nextSiblings;
+	private byte[] flags;
+	private byte[] kinds;
+	private long[] starts;
+	private long[] ends;
+	private long[] scopeStarts;
+	private long[] scopeEnds;
+	private final NameIndex nameIndex = new NameIndex();
+
+	/**
+	 * Instantiates a new compact symbol table with its own string table.
+	 */
+	public CompactSymbolTable() {
+		this(new StringTable());
+	}
+
+	/**
+	 * Instantiates a new compact symbol table using a given string table for
+	 * names, for example shared between tables of a workspace.
+	 *
+	 * @param strings the string table
+	 */
+	public CompactSymbolTable(StringTable strings) {
+		Assert.notNull(strings, "strings must be set");
+		this.strings = strings;
+		allocate(16);
+		add(NONE, NONE, FLAG_SCOPE, SymbolKind.String, null, null);
+	}
+
+	/**
+	 * Copy a given {@link SymbolTable} into a new compact symbol table.
+	 *
+	 * @param symbolTable the symbol table
+	 * @return the compact symbol table
+	 */
+	public static CompactSymbolTable of(SymbolTable symbolTable) {
+		Assert.notNull(symbolTable, "symbolTable must be set");
+		if (symbolTable instanceof CompactSymbolTable) {
+			return (CompactSymbolTable) symbolTable;
+		}
+		return symbolTable.visitSymbolTable(new CopyingVisitor()).table;
+	}
+
+	/**
+	 * Read a compact symbol table written with {@link #writeTo(DataOutput)}.
+	 *
+	 * @param in the data input
+	 * @param strings the string table for names
+	 * @return the compact symbol table
+	 * @throws IOException if reading fails
+	 */
+	public static CompactSymbolTable readFrom(DataInput in, StringTable strings) throws IOException {
+		return readFrom(in, strings, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Read a compact symbol table written with {@link #writeTo(DataOutput)}
+	 * from an input having a known number of bytes left. Counts read from an
+	 * input are checked against it before anything is allocated for them.
+	 *
+	 * @param in the data input
+	 * @param strings the string table for names
+	 * @param length the number of bytes left in an input
+	 * @return the compact symbol table
+	 * @throws IOException if reading fails or data is corrupted
+	 */
+	public static CompactSymbolTable readFrom(DataInput in, StringTable strings, long length) throws IOException {
+		long remaining = length - 4;
+		int stringCount = in.readInt();
+		// every string takes at least its two byte length
+		if (stringCount < 0 || stringCount > remaining / 2) {
+			throw new IOException("Corrupted symbol table string count " + stringCount);
+		}
+		int[] nameIds = new int[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			String name = in.readUTF();
+			remaining -= 2 + utfLength(name);
+			nameIds[i] = strings.add(name);
+		}
+		remaining -= 4;
+		int size = in.readInt();
+		if (size < 1 || remaining < 0 || size - 1 > remaining / ENTRY_BYTES) {
+			throw new IOException("Corrupted symbol table size " + size);
+		}
+		CompactSymbolTable table = new CompactSymbolTable(strings);
+		// entries are written in creation order, parents always come first
+		for (int i = 1; i < size; i++) {
+			int name = in.readInt();
+			int parent = in.readInt();
+			byte flag = in.readByte();
+			byte kind = in.readByte();
+			long start = in.readLong();
+			long end = in.readLong();
+			long scopeStart = in.readLong();
+			long scopeEnd = in.readLong();
+			if (parent < 0 || parent >= i || (table.flags[parent] & FLAG_SCOPE) == 0 || flag < FLAG_SYMBOL
+					|| flag > (FLAG_SYMBOL | FLAG_SCOPE) || kind < 0 || kind >= KINDS.length || name < NONE
+					|| name >= stringCount || (name == NONE && (flag & FLAG_SYMBOL) != 0)) {
+				throw new IOException("Corrupted symbol table entry " + i);
+			}
+			int id = table.add(parent, name != NONE ? nameIds[name] : NONE, flag, KINDS[kind], null, null);
+			table.starts[id] = start;
+			table.ends[id] = end;
+			table.scopeStarts[id] = scopeStart;
+			table.scopeEnds[id] = scopeEnd;
+			if (name != NONE) {
+				table.nameIndex.put(parent, nameIds[name], id);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Write this table into a binary format where names are written as strings
+	 * and entries as their primitive fields.
+	 *
+	 * @param out the data output
+	 * @throws IOException if writing fails
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		// names are renumbered as a string table may be shared with other tables
+		StringTable local = new StringTable();
+		int[] localNames = new int[size];
+		for (int i = 0; i < size; i++) {
+			localNames[i] = names[i] != NONE ? local.add(strings.get(names[i])) : NONE;
+		}
+		out.writeInt(local.size());
+		for (String name : local.toList()) {
+			out.writeUTF(name);
+		}
+		out.writeInt(size);
+		for (int i = 1; i < size; i++) {
+			out.writeInt(localNames[i]);
+			out.writeInt(parents[i]);
+			out.writeByte(flags[i]);
+			out.writeByte(kinds[i]);
+			out.writeLong(starts[i]);
+			out.writeLong(ends[i]);
+			out.writeLong(scopeStarts[i]);
+			out.writeLong(scopeEnds[i]);
+		}
+	}
+
+	/**
+	 * Define a symbol in a scope.
+	 *
+	 * @param scope the scope id
+	 * @param name the symbol name
+	 * @param kind the symbol kind
+	 * @param range the symbol range, may be {@code null}
+	 * @return the symbol id
+	 */
+	public int defineSymbol(int scope, String name, SymbolKind kind, Range range) {
+		return define(scope, name, FLAG_SYMBOL, kind, range, null);
+	}
+
+	/**
+	 * Define a symbol which is also a scope like a class or a function.
+	 *
+	 * @param scope the enclosing scope id
+	 * @param name the symbol name
+	 * @param kind the symbol kind
+	 * @param range the symbol range, may be {@code null}
+	 * @param scopeRange the scope range, may be {@code null}
+	 * @return the symbol and scope id
+	 */
+	public int defineScopedSymbol(int scope, String name, SymbolKind kind, Range range, Range scopeRange) {
+		return define(scope, name, (byte) (FLAG_SYMBOL | FLAG_SCOPE), kind, range, scopeRange);
+	}
+
+	/**
+	 * Nest an anonymous scope like a block into a scope.
+	 *
+	 * @param scope the enclosing scope id
+	 * @param scopeRange the scope range, may be {@code null}
+	 * @return the scope id
+	 */
+	public int nestScope(int scope, Range scopeRange) {
+		checkScope(scope);
+		return add(scope, NONE, FLAG_SCOPE, SymbolKind.String, null, scopeRange);
+	}
+
+	/**
+	 * Gets the number of symbols and scopes, including a global scope.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the string table used for names.
+	 *
+	 * @return the string table
+	 */
+	public StringTable getStringTable() {
+		return strings;
+	}
+
+	/**
+	 * Gets the global scope.
+	 *
+	 * @return the global scope
+	 */
+	public Scope getGlobalScope() {
+		return new ScopeView(GLOBAL_SCOPE);
+	}
+
+	/**
+	 * Gets a view of a symbol with a given id.
+	 *
+	 * @param id the symbol id
+	 * @return the symbol
+	 */
+	public Symbol getSymbol(int id) {
+		checkId(id);
+		if ((flags[id] & FLAG_SYMBOL) == 0) {
+			throw new SymbolTableException("entry " + id + " is not a symbol");
+		}
+		return (Symbol) view(id);
+	}
+
+	/**
+	 * Gets a view of a scope with a given id.
+	 *
+	 * @param id the scope id
+	 * @return the scope
+	 */
+	public Scope getScope(int id) {
+		checkScope(id);
+		return (Scope) view(id);
+	}
+
+	@Override
+	public List<? extends Symbol> getAllSymbols() {
+		List<Symbol> symbols = new ArrayList<>(size - 1);
+		walkSymbols(GLOBAL_SCOPE, s -> symbols.add(s));
+		return symbols;
+	}
+
+	@Override
+	public boolean walkSymbols(Predicate<? super Symbol> predicate) {
+		return walkSymbols(GLOBAL_SCOPE, predicate);
+	}
+
+	@Override
+	public <T extends SymbolTableVisitor> T visitSymbolTable(T visitor) {
+		getGlobalScope().accept(visitor);
+		return visitor;
+	}
+
+	private int define(int scope, String name, byte flag, SymbolKind kind, Range range, Range scopeRange) {
+		checkScope(scope);
+		Assert.notNull(name, "name must be set");
+		int nameId = strings.add(name);
+		if (nameIndex.get(scope, nameId) != NONE) {
+			throw new SymbolTableException("duplicate symbol " + name);
+		}
+		int id = add(scope, nameId, flag, kind != null ? kind : SymbolKind.String, range, scopeRange);
+		nameIndex.put(scope, nameId, id);
+		return id;
+	}
+
+	private int add(int parent, int name, byte flag, SymbolKind kind, Range range, Range scopeRange) {
+		if (size == names.length) {
+			grow();
+		}
+		int id = size++;
+		names[id] = name;
+		parents[id] = parent;
+		flags[id] = flag;
+		kinds[id] = (byte) kind.ordinal();
+		firstChilds[id] = NONE;
+		lastChilds[id] = NONE;
+		nextSiblings[id] = NONE;
+		boolean hasRange = isValid(range);
+		starts[id] = hasRange ? pack(range.getStart()) : NO_RANGE;
+		ends[id] = hasRange ? pack(range.getEnd()) : NO_RANGE;
+		boolean hasScopeRange = isValid(scopeRange);
+		scopeStarts[id] = hasScopeRange ? pack(scopeRange.getStart()) : NO_RANGE;
+		scopeEnds[id] = hasScopeRange ? pack(scopeRange.getEnd()) : NO_RANGE;
+		orders[id] = 0;
+		counts[id] = 0;
+		if (parent != NONE) {
+			if (lastChilds[parent] == NONE) {
+				firstChilds[parent] = id;
+			} else {
+				nextSiblings[lastChilds[parent]] = id;
+			}
+			lastChilds[parent] = id;
+			if ((flag & FLAG_SYMBOL) != 0) {
+				orders[id] = counts[parent]++;
+			}
+		}
+		return id;
+	}
+
+	// length of a string in a modified utf-8 written by DataOutput.writeUTF
+	private static int utfLength(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			length += c >= 0x0001 && c <= 0x007f ? 1 : c <= 0x07ff ? 2 : 3;
+		}
+		return length;
+	}
+
+	private void allocate(int capacity) {
+		names = new int[capacity];
+		parents = new int[capacity];
+		orders = new int[capacity];
+		counts = new int[capacity];
+		firstChilds = new int[capacity];
+		lastChilds = new int[capacity];
+		nextSiblings = new int[capacity];
+		flags = new byte[capacity];
+		kinds = new byte[capacity];
+		starts = new long[capacity];
+		ends = new long[capacity];
+		scopeStarts = new long[capacity];
+		scopeEnds = new long[capacity];
+	}
+
+	private void grow() {
+		int capacity = names.length * 2;
+		names = Arrays.copyOf(names, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		orders = Arrays.copyOf(orders, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+		firstChilds = Arrays.copyOf(firstChilds, capacity);
+		lastChilds = Arrays.copyOf(lastChilds, capacity);
+		nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+		kinds = Arrays.copyOf(kinds, capacity);
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		scopeStarts = Arrays.copyOf(scopeStarts, capacity);
+		scopeEnds = Arrays.copyOf(scopeEnds, capacity);
+	}
+
+	private boolean walkSymbols(int scope, Predicate<? super Symbol> predicate) {
+		// same order as in BaseScope, own symbols, then scoped symbols and then other scopes
+		for (int c = firstChilds[scope]; c != NONE; c = nextSiblings[c]) {
+			if ((flags[c] & FLAG_SYMBOL) != 0 && !predicate.test((Symbol) view(c))) {
+				return false;
+			}
+		}
+		for (int c = firstChilds[scope]; c != NONE; c = nextSiblings[c]) {
+			if (flags[c] == (FLAG_SYMBOL | FLAG_SCOPE) && !walkSymbols(c, predicate)) {
+				return false;
+			}
+		}
+		for (int c = firstChilds[scope]; c != NONE; c = nextSiblings[c]) {
+			if (flags[c] == FLAG_SCOPE && !walkSymbols(c, predicate)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Object view(int id) {
+		switch (flags[id]) {
+		case FLAG_SYMBOL:
+			return new SymbolView(id);
+		case FLAG_SCOPE:
+			return new ScopeView(id);
+		default:
+			return new ScopedSymbolView(id);
+		}
+	}
+
+	private void checkId(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Id: " + id + ", Size: " + size);
+		}
+	}
+
+	private void checkScope(int id) {
+		checkId(id);
+		if ((flags[id] & FLAG_SCOPE) == 0) {
+			throw new SymbolTableException("entry " + id + " is not a scope");
+		}
+	}
+
+	private static boolean isValid(Range range) {
+		return range != null && range.getStart() != null && range.getEnd() != null;
+	}
+
+	private static long pack(Position position) {
+		return ((long) position.getLine() << 32) | (position.getCharacter() & 0xffffffffL);
+	}
+
+	private static Range unpack(long start, long end) {
+		if (start == NO_RANGE) {
+			return null;
+		}
+		return Range.from((int) (start >>> 32), (int) start, (int) (end >>> 32), (int) end);
+	}
+
+	/**
+	 * Base of all views, equal when referring to a same entry of a same table.
+	 */
+	private abstract class EntryView {
+
+		final int id;
+		private Integer order;
+
+		EntryView(int id) {
+			this.id = id;
+		}
+
+		public int getInsertionOrderNumber() {
+			return order != null ? order : orders[id];
+		}
+
+		public void setInsertionOrderNumber(int order) {
+			this.order = order;
+		}
+
+		public String getName() {
+			if (names[id] != NONE) {
+				return strings.get(names[id]);
+			}
+			return id == GLOBAL_SCOPE ? GLOBAL_SCOPE_NAME : LOCAL_SCOPE_NAME;
+		}
+
+		CompactSymbolTable table() {
+			return CompactSymbolTable.this;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof EntryView)) {
+				return false;
+			}
+			EntryView other = (EntryView) obj;
+			return id == other.id && table() == other.table();
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+
+		@Override
+		public String toString() {
+			return getName();
+		}
+	}
+
+	private class SymbolView extends EntryView implements Symbol {
+
+		private Scope scope;
+		private boolean moved;
+
+		SymbolView(int id) {
+			super(id);
+		}
+
+		@Override
+		public Scope getScope() {
+			return moved ? scope : (Scope) view(parents[id]);
+		}
+
+		@Override
+		public void setScope(Scope scope) {
+			this.scope = scope;
+			this.moved = true;
+		}
+
+		@Override
+		public Range getRange() {
+			return unpack(starts[id], ends[id]);
+		}
+
+		@Override
+		public SymbolKind getKind() {
+			return KINDS[kinds[id]];
+		}
+
+		@Override
+		public void accept(SymbolTableVisitor visitor) {
+			visitor.enterVisitSymbol(this);
+			visitor.exitVisitSymbol(this);
+		}
+	}
+
+	private class ScopeView extends EntryView implements Scope {
+
+		private Scope enclosingScope;
+		private boolean moved;
+
+		ScopeView(int id) {
+			super(id);
+		}
+
+		@Override
+		public Scope getEnclosingScope() {
+			if (moved) {
+				return enclosingScope;
+			}
+			return parents[id] != NONE ? (Scope) view(parents[id]) : null;
+		}
+
+		@Override
+		public void setEnclosingScope(Scope scope) {
+			this.enclosingScope = scope;
+			this.moved = true;
+		}
+
+		@Override
+		public void define(Symbol symbol) {
+			if (symbol instanceof Scope) {
+				defineScopedSymbol(id, symbol.getName(), symbol.getKind(), symbol.getRange(),
+						((Scope) symbol).getScopeRange());
+			} else {
+				defineSymbol(id, symbol.getName(), symbol.getKind(), symbol.getRange());
+			}
+		}
+
+		@Override
+		public Symbol resolve(String name) {
+			int nameId = strings.indexOf(name);
+			if (moved) {
+				int found = nameId != NONE ? nameIndex.get(id, nameId) : NONE;
+				if (found != NONE) {
+					return (Symbol) view(found);
+				}
+				return enclosingScope != null ? enclosingScope.resolve(name) : null;
+			}
+			if (nameId == NONE) {
+				return null;
+			}
+			for (int s = id; s != NONE; s = parents[s]) {
+				int found = nameIndex.get(s, nameId);
+				if (found != NONE) {
+					return (Symbol) view(found);
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Symbol getSymbol(String name) {
+			int nameId = strings.indexOf(name);
+			int found = nameId != NONE ? nameIndex.get(id, nameId) : NONE;
+			return found != NONE ? (Symbol) view(found) : null;
+		}
+
+		@Override
+		public void nest(Scope scope) {
+			if (scope instanceof Symbol) {
+				throw new SymbolTableException("Add scoped symbol " + scope.getName() + " via define()");
+			}
+			nestScope(id, scope.getScopeRange());
+		}
+
+		@Override
+		public List<Scope> getNestedScopes() {
+			List<Scope> scopes = new ArrayList<>();
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if (flags[c] == (FLAG_SYMBOL | FLAG_SCOPE)) {
+					scopes.add((Scope) view(c));
+				}
+			}
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if (flags[c] == FLAG_SCOPE) {
+					scopes.add((Scope) view(c));
+				}
+			}
+			return scopes;
+		}
+
+		@Override
+		public List<Scope> getEnclosingPathToRoot() {
+			List<Scope> scopes = new ArrayList<>();
+			if (moved) {
+				scopes.add(this);
+				if (enclosingScope != null) {
+					scopes.addAll(enclosingScope.getEnclosingPathToRoot());
+				}
+				return scopes;
+			}
+			for (int s = id; s != NONE; s = parents[s]) {
+				scopes.add((Scope) view(s));
+			}
+			return scopes;
+		}
+
+		@Override
+		public List<Scope> getNestedScopedSymbols() {
+			List<Scope> scopes = new ArrayList<>();
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if (flags[c] == (FLAG_SYMBOL | FLAG_SCOPE)) {
+					scopes.add((Scope) view(c));
+				}
+			}
+			return scopes;
+		}
+
+		@Override
+		public List<? extends Symbol> getSymbols() {
+			List<Symbol> symbols = new ArrayList<>();
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if ((flags[c] & FLAG_SYMBOL) != 0) {
+					symbols.add((Symbol) view(c));
+				}
+			}
+			return symbols;
+		}
+
+		@Override
+		public List<? extends Symbol> getAllSymbols() {
+			List<Symbol> symbols = new ArrayList<>();
+			walkSymbols(s -> symbols.add(s));
+			return symbols;
+		}
+
+		@Override
+		public boolean walkSymbols(Predicate<? super Symbol> predicate) {
+			return CompactSymbolTable.this.walkSymbols(id, predicate);
+		}
+
+		@Override
+		public Set<String> getSymbolNames() {
+			Set<String> symbolNames = new LinkedHashSet<>();
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if ((flags[c] & FLAG_SYMBOL) != 0) {
+					symbolNames.add(strings.get(names[c]));
+				}
+			}
+			return Collections.unmodifiableSet(symbolNames);
+		}
+
+		@Override
+		public int getNumberOfSymbols() {
+			return counts[id];
+		}
+
+		@Override
+		public String toQualifierString(String separator) {
+			return Utils.toQualifierString(this, separator);
+		}
+
+		@Override
+		public Range getScopeRange() {
+			return unpack(scopeStarts[id], scopeEnds[id]);
+		}
+
+		@Override
+		public void accept(SymbolTableVisitor visitor) {
+			visitor.enterVisitScope(this);
+			enterVisitSymbol(visitor);
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if (flags[c] == FLAG_SCOPE) {
+					((Scope) view(c)).accept(visitor);
+				}
+			}
+			for (int c = firstChilds[id]; c != NONE; c = nextSiblings[c]) {
+				if ((flags[c] & FLAG_SYMBOL) != 0) {
+					((Symbol) view(c)).accept(visitor);
+				}
+			}
+			exitVisitSymbol(visitor);
+			visitor.exitVisitScope(this);
+		}
+
+		void enterVisitSymbol(SymbolTableVisitor visitor) {
+		}
+
+		void exitVisitSymbol(SymbolTableVisitor visitor) {
+		}
+	}
+
+	private class ScopedSymbolView extends ScopeView implements Symbol {
+
+		ScopedSymbolView(int id) {
+			super(id);
+		}
+
+		@Override
+		public Scope getScope() {
+			return getEnclosingScope();
+		}
+
+		@Override
+		public void setScope(Scope scope) {
+			setEnclosingScope(scope);
+		}
+
+		@Override
+		public Range getRange() {
+			return unpack(starts[id], ends[id]);
+		}
+
+		@Override
+		public SymbolKind getKind() {
+			return KINDS[kinds[id]];
+		}
+
+		@Override
+		void enterVisitSymbol(SymbolTableVisitor visitor) {
+			visitor.enterVisitSymbol(this);
+		}
+
+		@Override
+		void exitVisitSymbol(SymbolTableVisitor visitor) {
+			visitor.exitVisitSymbol(this);
+		}
+	}
+
+	/**
+	 * Copies visited scopes and symbols into a compact table, first visited
+	 * scope being a global scope.
+	 */
+	private static class CopyingVisitor implements SymbolTableVisitor {
+
+		final CompactSymbolTable table = new CompactSymbolTable();
+		final Deque<Integer> scopes = new ArrayDeque<>();
+
+		@Override
+		public void enterVisitScope(Scope scope) {
+			if (scopes.isEmpty()) {
+				scopes.push(GLOBAL_SCOPE);
+			} else if (scope instanceof Symbol) {
+				Symbol symbol = (Symbol) scope;
+				scopes.push(table.defineScopedSymbol(scopes.peek(), symbol.getName(), symbol.getKind(),
+						symbol.getRange(), scope.getScopeRange()));
+			} else {
+				scopes.push(table.nestScope(scopes.peek(), scope.getScopeRange()));
+			}
+		}
+
+		@Override
+		public void exitVisitScope(Scope scope) {
+			scopes.pop();
+		}
+
+		@Override
+		public void enterVisitSymbol(Symbol symbol) {
+			if (!(symbol instanceof Scope)) {
+				table.defineSymbol(scopes.peek(), symbol.getName(), symbol.getKind(), symbol.getRange());
+			}
+		}
+
+		@Override
+		public void exitVisitSymbol(Symbol symbol) {
+		}
+	}
+
+	/**
+	 * Open addressing hash from a scope id and a name id to a symbol id.
+	 */
+	private static class NameIndex {
+
+		private static final long EMPTY = -1L;
+
+		private long[] keys = new long[32];
+		private int[] values = new int[32];
+		private int count;
+
+		NameIndex() {
+			Arrays.fill(keys, EMPTY);
+		}
+
+		int get(int scope, int name) {
+			long key = key(scope, name);
+			int mask = keys.length - 1;
+			for (int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return NONE;
+		}
+
+		void put(int scope, int name, int value) {
+			if ((count + 1) * 2 > keys.length) {
+				rehash();
+			}
+			insert(key(scope, name), value);
+			count++;
+		}
+
+		private void insert(long key, int value) {
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (keys[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		private void rehash() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			Arrays.fill(keys, EMPTY);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != EMPTY) {
+					insert(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+
+		private static long key(int scope, int name) {
+			return ((long) scope << 32) | (name & 0xffffffffL);
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
@@ -15,21 +15,25 @@
  */
 package org.springframework.dsl.symboltable.support;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
-import java.util.Stack;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.dsl.domain.DocumentSymbol;
 import org.springframework.dsl.domain.DocumentSymbol.DocumentSymbolBuilder;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.domain.SymbolInformation;
 import org.springframework.dsl.domain.SymbolInformation.SymbolInformationBuilder;
 import org.springframework.dsl.service.symbol.SymbolizeInfo;
 import org.springframework.dsl.symboltable.Scope;
 import org.springframework.dsl.symboltable.Symbol;
+import org.springframework.dsl.symboltable.SymbolTable;
 import org.springframework.dsl.symboltable.SymbolTableVisitor;
 import org.springframework.util.Assert;
 
@@ -37,33 +41,46 @@ import reactor.core.publisher.Flux;
 
 /**
  * {@link SymbolTableVisitor} which builds a {@link SymbolizeInfo}.
+ * <p>
+ * When used as a visitor results are collected and available from
+ * {@link #getSymbolizeInfo()}. With {@link #stream(Scope)} and
+ * {@link #stream(SymbolTable)} results are emitted while a table is walked on
+ * subscription, a {@link SymbolInformation} when its symbol is exited and a
+ * top level {@link DocumentSymbol} when its children are complete.
+ * <p>
+ * Scopes rejected by a scope query or not overlapping a requested range are
+ * pruned together with their nested scopes and symbols. Walking from a
+ * {@link Scope} skips pruned subtrees altogether while as a visitor those are
+ * still visited but ignored.
  *
  * @author Janne Valkealahti
  *
  */
 public class DocumentSymbolTableVisitor implements SymbolTableVisitor {
 
-	private static final Logger log = LoggerFactory.getLogger(DocumentSymbolTableVisitor.class);
-
 	// things are going to be inserted here when scopes and symbols are visited
 	private final List<DocumentSymbol> documentSymbols = new ArrayList<>();
 	private final List<SymbolInformation> symbolInformations = new ArrayList<>();
 
-	// in flight stack for builders while visiting
-	private final Stack<BuilderHolder> stack = new Stack<>();
-
 	// uri passed to location in SymbolInformation
 	private final String uri;
 
 	// active symbol query to limit results
 	private Function<Symbol, Boolean> symbolQuery = (symbol) -> true;
 
+	// scope query to prune whole subtrees
+	private Function<Scope, Boolean> scopeQuery = (scope) -> true;
+
+	// range to limit results, null for everything
+	private Range range;
+
 	// active symbols and scopes based on a used queries
-	private HashSet<Scope> activeScopes = new HashSet<>();
-	private HashSet<Symbol> activeSymbols = new HashSet<>();
 	private Function<Scope, Boolean> scopeActiveQuery = (scope) -> false;
 	private Function<Symbol, Boolean> symbolActiveQuery = (symbol) -> true;
 
+	// walker used when this class is used as a visitor
+	private Walker walker;
+
 	/**
 	 * Instantiates a new document symbol table visitor.
 	 */
@@ -96,103 +113,22 @@ public class DocumentSymbolTableVisitor implements SymbolTableVisitor {
 
 	@Override
 	public void enterVisitScope(Scope scope) {
-		log.debug("enterVisitScope {} {} {}", scope, scope != null ? scope.getClass().getSimpleName() : null,
-				stack.size());
-
-		boolean active = scopeActiveQuery.apply(scope);
-		log.debug("Scope enter {} active state {}", scope, active);
-		if (!active) {
-			return;
-		}
-		activeScopes.add(scope);
-
-		DocumentSymbolBuilder<?> documentSymbolBuilder = DocumentSymbol.documentSymbol()
-			.name(scope.getName())
-			.kind(scope.getScopeKind())
-			.range(scope.getScopeRange())
-			.selectionRange(scope.getScopeRange());
-		SymbolInformationBuilder<?> symbolInformationBuilder = SymbolInformation.symbolInformation()
-			.name(scope.getName())
-			.kind(scope.getScopeKind())
-			.location()
-				.uri(uri)
-				.range(scope.getScopeRange())
-				.and();
-		stack.push(new BuilderHolder(documentSymbolBuilder, symbolInformationBuilder));
+		walker().enterVisitScope(scope);
 	}
 
 	@Override
 	public void exitVisitScope(Scope scope) {
-		log.debug("exitVisitScope {} {} {}", scope, scope != null ? scope.getClass().getSimpleName() : null,
-				stack.size());
-
-		boolean active = activeScopes.contains(scope);
-		log.debug("Scope exit {} active state {}", scope, active);
-		if (!active) {
-			return;
-		}
-
-		BuilderHolder builderHolder = stack.pop();
-		DocumentSymbol ds = builderHolder.documentSymbolBuilder.build();
-
-		if (stack.isEmpty()) {
-			documentSymbols.add(ds);
-		} else {
-			stack.peek().documentSymbolBuilder.child(ds);
-		}
+		walker().exitVisitScope(scope);
 	}
 
 	@Override
 	public void enterVisitSymbol(Symbol symbol) {
-		log.debug("enterVisitSymbol {} {} {}", symbol, symbol != null ? symbol.getClass().getSimpleName() : null,
-				stack.size());
-
-		boolean active = symbolActiveQuery.apply(symbol);
-		log.debug("Symbol enter {} active state {}", symbol, active);
-		if (!active) {
-			return;
-		}
-		activeSymbols.add(symbol);
-
-		DocumentSymbolBuilder<?> documentSymbolBuilder = DocumentSymbol.documentSymbol()
-			.name(symbol.getName())
-			.kind(symbol.getKind())
-			.detail(symbol.getDetail())
-			.range(symbol.getRange())
-			.selectionRange(symbol.getRange());
-		SymbolInformationBuilder<?> symbolInformationBuilder = SymbolInformation.symbolInformation()
-			.name(symbol.getName())
-			.kind(symbol.getKind())
-			.containerName(symbol.getScope() != null ? symbol.getScope().getName() : null)
-			.location()
-				.uri(uri)
-				.range(symbol.getRange())
-				.and();
-		stack.push(new BuilderHolder(documentSymbolBuilder, symbolInformationBuilder));
+		walker().enterVisitSymbol(symbol);
 	}
 
 	@Override
 	public void exitVisitSymbol(Symbol symbol) {
-		log.debug("exitVisitSymbol {} {} {}", symbol, symbol != null ? symbol.getClass().getSimpleName() : null,
-				stack.size());
-
-		boolean active = activeSymbols.contains(symbol);
-		log.debug("Symbol exit {} active state {}", symbol, active);
-		if (!active) {
-			return;
-		}
-
-		Boolean match = symbolQuery.apply(symbol);
-		BuilderHolder builderHolder = stack.pop();
-		if (stack.isEmpty()) {
-			documentSymbols.add(builderHolder.documentSymbolBuilder.build());
-		} else {
-			stack.peek().documentSymbolBuilder.child(builderHolder.documentSymbolBuilder.build());
-		}
-		// SymbolInformation is flat, add all symbols
-		if (match != null && match) {
-			symbolInformations.add(builderHolder.symbolInformationBuilder.build());
-		}
+		walker().exitVisitSymbol(symbol);
 	}
 
 	public void setSymbolQuery(Function<Symbol, Boolean> query) {
@@ -200,6 +136,29 @@ public class DocumentSymbolTableVisitor implements SymbolTableVisitor {
 		this.symbolQuery = query;
 	}
 
+	/**
+	 * Sets the scope query. Scopes for which a query doesn't return
+	 * {@code true} are skipped together with all nested scopes and symbols, for
+	 * example when it's known that no symbol in a scope can match a symbol query.
+	 *
+	 * @param query the scope query
+	 */
+	public void setScopeQuery(Function<Scope, Boolean> query) {
+		Assert.notNull(query, "scopeQuery cannot be null");
+		this.scopeQuery = query;
+	}
+
+	/**
+	 * Sets the range limiting results to symbols overlapping it. Scopes not
+	 * overlapping a range are skipped together with all nested scopes and
+	 * symbols. Scopes and symbols without a range are not limited.
+	 *
+	 * @param range the range, {@code null} for no limits
+	 */
+	public void setRange(Range range) {
+		this.range = range;
+	}
+
 	public void setScopeActiveQuery(Function<Scope, Boolean> query) {
 		Assert.notNull(query, "scopeActiveQuery cannot be null");
 		this.scopeActiveQuery = query;
@@ -214,6 +173,246 @@ public class DocumentSymbolTableVisitor implements SymbolTableVisitor {
 		return SymbolizeInfo.of(Flux.fromIterable(documentSymbols), Flux.fromIterable(symbolInformations));
 	}
 
+	/**
+	 * Stream results by walking a given scope and its nested scopes on each
+	 * subscription. Pruned scopes are not walked.
+	 *
+	 * @param scope the root scope
+	 * @return the symbolize info
+	 */
+	public SymbolizeInfo stream(Scope scope) {
+		Assert.notNull(scope, "scope must be set");
+		return stream(walker -> walker.walk(scope));
+	}
+
+	/**
+	 * Stream results by visiting a given symbol table on each subscription.
+	 *
+	 * @param symbolTable the symbol table
+	 * @return the symbolize info
+	 */
+	public SymbolizeInfo stream(SymbolTable symbolTable) {
+		Assert.notNull(symbolTable, "symbolTable must be set");
+		return stream(walker -> symbolTable.visitSymbolTable(walker));
+	}
+
+	private SymbolizeInfo stream(Consumer<Walker> walk) {
+		Flux<DocumentSymbol> documentSymbols = Flux.create(sink -> {
+			walk.accept(new Walker(sink::next, null, sink::isCancelled));
+			sink.complete();
+		});
+		Flux<SymbolInformation> symbolInformations = Flux.create(sink -> {
+			walk.accept(new Walker(null, sink::next, sink::isCancelled));
+			sink.complete();
+		});
+		return SymbolizeInfo.of(documentSymbols, symbolInformations);
+	}
+
+	private Walker walker() {
+		if (walker == null) {
+			walker = new Walker(documentSymbols::add, symbolInformations::add, () -> false);
+		}
+		return walker;
+	}
+
+	private Range getRange(Scope scope) {
+		Range scopeRange = scope.getScopeRange();
+		if (scopeRange == null && scope instanceof Symbol) {
+			scopeRange = ((Symbol) scope).getRange();
+		}
+		return scopeRange;
+	}
+
+	private boolean overlaps(Range other) {
+		if (range == null || other == null || other.getStart() == null || other.getEnd() == null) {
+			return true;
+		}
+		return compare(other.getStart(), range.getEnd()) <= 0 && compare(other.getEnd(), range.getStart()) >= 0;
+	}
+
+	private static int compare(Position left, Position right) {
+		int c = Integer.compare(left.getLine(), right.getLine());
+		return c != 0 ? c : Integer.compare(left.getCharacter(), right.getCharacter());
+	}
+
+	/**
+	 * Keeps in flight state of one walk. Every entered scope and symbol pushes
+	 * a frame telling if it's active and active ones also push builders, so that
+	 * exits match their enters by position instead of by equality of scopes and
+	 * symbols. Builders for a result type are only created if it's consumed.
+	 */
+	private class Walker implements SymbolTableVisitor {
+
+		final Consumer<DocumentSymbol> documentSymbolConsumer;
+		final Consumer<SymbolInformation> symbolInformationConsumer;
+		final BooleanSupplier cancelled;
+		final Deque<BuilderHolder> builders = new ArrayDeque<>();
+		boolean[] frames = new boolean[16];
+		int depth;
+		// depth within a pruned scope, zero when not pruning
+		int pruned;
+
+		Walker(Consumer<DocumentSymbol> documentSymbolConsumer,
+				Consumer<SymbolInformation> symbolInformationConsumer, BooleanSupplier cancelled) {
+			this.documentSymbolConsumer = documentSymbolConsumer;
+			this.symbolInformationConsumer = symbolInformationConsumer;
+			this.cancelled = cancelled;
+		}
+
+		void walk(Scope scope) {
+			if (cancelled.getAsBoolean() || !isIncluded(scope)) {
+				return;
+			}
+			enterIncludedScope(scope);
+			if (scope instanceof Symbol) {
+				enterSymbol((Symbol) scope);
+			}
+			for (Scope nested : scope.getNestedScopes()) {
+				if (!(nested instanceof Symbol)) {
+					walk(nested);
+				}
+			}
+			for (Symbol symbol : scope.getSymbols()) {
+				if (cancelled.getAsBoolean()) {
+					break;
+				}
+				if (symbol instanceof Scope) {
+					walk((Scope) symbol);
+				} else {
+					enterSymbol(symbol);
+					exitSymbol(symbol);
+				}
+			}
+			if (scope instanceof Symbol) {
+				exitSymbol((Symbol) scope);
+			}
+			exitIncludedScope();
+		}
+
+		@Override
+		public void enterVisitScope(Scope scope) {
+			if (pruned > 0) {
+				pruned++;
+			} else if (!isIncluded(scope)) {
+				pruned = 1;
+			} else {
+				enterIncludedScope(scope);
+			}
+		}
+
+		@Override
+		public void exitVisitScope(Scope scope) {
+			if (pruned > 0) {
+				pruned--;
+			} else {
+				exitIncludedScope();
+			}
+		}
+
+		@Override
+		public void enterVisitSymbol(Symbol symbol) {
+			if (pruned == 0) {
+				enterSymbol(symbol);
+			}
+		}
+
+		@Override
+		public void exitVisitSymbol(Symbol symbol) {
+			if (pruned == 0) {
+				exitSymbol(symbol);
+			}
+		}
+
+		private boolean isIncluded(Scope scope) {
+			Boolean included = scopeQuery.apply(scope);
+			return included != null && included && overlaps(getRange(scope));
+		}
+
+		private void enterIncludedScope(Scope scope) {
+			Boolean active = scopeActiveQuery.apply(scope);
+			boolean isActive = active != null && active;
+			push(isActive);
+			if (isActive) {
+				builders.push(new BuilderHolder(
+						documentSymbolConsumer != null ? DocumentSymbol.documentSymbol()
+							.name(scope.getName())
+							.kind(scope.getScopeKind())
+							.range(scope.getScopeRange())
+							.selectionRange(scope.getScopeRange()) : null,
+						null));
+			}
+		}
+
+		private void exitIncludedScope() {
+			if (pop()) {
+				BuilderHolder holder = builders.pop();
+				if (holder.documentSymbolBuilder != null) {
+					emit(holder.documentSymbolBuilder.build());
+				}
+			}
+		}
+
+		private void enterSymbol(Symbol symbol) {
+			Boolean active = symbolActiveQuery.apply(symbol);
+			boolean isActive = active != null && active && overlaps(symbol.getRange());
+			push(isActive);
+			if (isActive) {
+				builders.push(new BuilderHolder(
+						documentSymbolConsumer != null ? DocumentSymbol.documentSymbol()
+							.name(symbol.getName())
+							.kind(symbol.getKind())
+							.detail(symbol.getDetail())
+							.range(symbol.getRange())
+							.selectionRange(symbol.getRange()) : null,
+						symbolInformationConsumer != null ? SymbolInformation.symbolInformation()
+							.name(symbol.getName())
+							.kind(symbol.getKind())
+							.containerName(symbol.getScope() != null ? symbol.getScope().getName() : null)
+							.location()
+								.uri(uri)
+								.range(symbol.getRange())
+								.and() : null));
+			}
+		}
+
+		private void exitSymbol(Symbol symbol) {
+			if (!pop()) {
+				return;
+			}
+			BuilderHolder holder = builders.pop();
+			if (holder.documentSymbolBuilder != null) {
+				emit(holder.documentSymbolBuilder.build());
+			}
+			// SymbolInformation is flat, add all symbols
+			if (holder.symbolInformationBuilder != null) {
+				Boolean match = symbolQuery.apply(symbol);
+				if (match != null && match) {
+					symbolInformationConsumer.accept(holder.symbolInformationBuilder.build());
+				}
+			}
+		}
+
+		private void emit(DocumentSymbol documentSymbol) {
+			BuilderHolder parent = builders.peek();
+			if (parent == null) {
+				documentSymbolConsumer.accept(documentSymbol);
+			} else {
+				parent.documentSymbolBuilder.child(documentSymbol);
+			}
+		}
+
+		private void push(boolean active) {
+			if (depth == frames.length) {
+				frames = Arrays.copyOf(frames, depth * 2);
+			}
+			frames[depth++] = active;
+		}
+
+		private boolean pop() {
+			return frames[--depth];
+		}
+	}
+
 	private static class BuilderHolder {
 		DocumentSymbolBuilder<?> documentSymbolBuilder;
 		SymbolInformationBuilder<?> symbolInformationBuilder;
@@ -15,9 +15,11 @@
  */
 package org.springframework.dsl.symboltable.support;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A unique set of strings mapped to a monotonically increasing index. These
@@ -28,6 +30,9 @@ import java.util.List;
  *
  * Yes, I know that this is similar to {@link String#intern()} but in this case,
  * I need the index out not just to make these strings unique.
+ *
+ * Table is thread safe and can be shared, lookups don't lock and only adding
+ * a new string is serialized.
  * 
  * @author Original ANTLR Authors
  * @author Janne Valkealahti
@@ -35,30 +40,46 @@ import java.util.List;
  */
 public class StringTable {
 
-	protected LinkedHashMap<String, Integer> table = new LinkedHashMap<String, Integer>();
-	protected int index = -1; // index we have just written
-	protected List<String> strings = new ArrayList<>();
+	protected final ConcurrentMap<String, Integer> table = new ConcurrentHashMap<String, Integer>();
+	// strings are written before size is, reading size first makes them visible
+	protected volatile String[] strings = new String[16];
+	protected volatile int size = 0;
 
 	public int add(String s) {
 		Integer I = table.get(s);
 		if (I != null)
 			return I;
-		index++;
-		table.put(s, index);
-		strings.add(s);
-		return index;
+		synchronized (this) {
+			I = table.get(s);
+			if (I != null)
+				return I;
+			int index = size;
+			if (index == strings.length) {
+				strings = Arrays.copyOf(strings, index << 1);
+			}
+			strings[index] = s;
+			size = index + 1;
+			table.put(s, index);
+			return index;
+		}
+	}
+
+	/** Get the index of a string or -1 if it has not been added */
+	public int indexOf(String s) {
+		Integer I = table.get(s);
+		return I != null ? I : -1;
 	}
 
 	/** Get the ith string or null if out of range */
 	public String get(int i) {
-		if (i < size() && i >= 0) {
-			return strings.get(i);
+		if (i < size && i >= 0) {
+			return strings[i];
 		}
 		return null;
 	}
 
 	public int size() {
-		return table.size();
+		return size;
 	}
 
 	/**
@@ -66,7 +87,8 @@ public class StringTable {
 	 * appropriate index within the array.
 	 */
 	public String[] toArray() {
-		return strings.toArray(new String[strings.size()]);
+		int n = size;
+		return Arrays.copyOf(strings, n);
 	}
 
 	/**
@@ -74,11 +96,11 @@ public class StringTable {
 	 * appropriate index within the array.
 	 */
 	public List<String> toList() {
-		return strings;
+		return Collections.unmodifiableList(Arrays.asList(toArray()));
 	}
 
 	public int getNumberOfStrings() {
-		return index + 1;
+		return size;
 	}
 
 	@Override
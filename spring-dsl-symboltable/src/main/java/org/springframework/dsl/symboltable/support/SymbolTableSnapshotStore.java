@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dsl.symboltable.SymbolTable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Store of {@link SymbolTable} snapshots in a local directory allowing a
+ * language server to use symbols of documents right after a restart without
+ * parsing those again. A snapshot is keyed by a document uri and a hash of a
+ * document content it was built from and a snapshot is only loaded if both
+ * match.
+ * <p>
+ * Tables are written as a {@link CompactSymbolTable} binary format, each into
+ * its own file named by a hash of an uri. Writes go to a temporary file first
+ * which is then moved in place so that a crashed write never leaves a partial
+ * snapshot. A table is serialized when {@link #save(String, String, SymbolTable)}
+ * is called so that it can be modified afterwards, while file access happens
+ * on a given {@link Scheduler} when a returned {@link Mono} is subscribed.
+ * Failures are logged and treated as a missing snapshot.
+ *
+ * @author Janne Valkealahti
+ *
+ */
+public class SymbolTableSnapshotStore {
+
+	private static final Logger log = LoggerFactory.getLogger(SymbolTableSnapshotStore.class);
+	private static final int MAGIC = 0x53445354;
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".symbols";
+	private final Path directory;
+	private Scheduler scheduler = Schedulers.boundedElastic();
+
+	/**
+	 * Instantiates a new symbol table snapshot store.
+	 *
+	 * @param directory the directory for snapshots
+	 */
+	public SymbolTableSnapshotStore(Path directory) {
+		Assert.notNull(directory, "directory must be set");
+		this.directory = directory;
+	}
+
+	/**
+	 * Calculate a content hash to be used as a key of a snapshot.
+	 *
+	 * @param content the document content
+	 * @return the content hash
+	 */
+	public static String contentHash(CharSequence content) {
+		Assert.notNull(content, "content must be set");
+		return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Sets the scheduler used for reading and writing snapshots. Defaults to
+	 * {@link Schedulers#boundedElastic()}.
+	 *
+	 * @param scheduler the scheduler
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "scheduler must be set");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Save a snapshot of a symbol table replacing an existing snapshot of a
+	 * same document.
+	 *
+	 * @param uri the document uri
+	 * @param contentHash the document content hash
+	 * @param symbolTable the symbol table
+	 * @return a mono completing when a snapshot is written
+	 */
+	public Mono<Void> save(String uri, String contentHash, SymbolTable symbolTable) {
+		Assert.notNull(uri, "uri must be set");
+		Assert.notNull(contentHash, "contentHash must be set");
+		Assert.notNull(symbolTable, "symbolTable must be set");
+		// serialized on a caller thread as a table may change after this call
+		byte[] snapshot;
+		try {
+			snapshot = serialize(uri, contentHash, CompactSymbolTable.of(symbolTable));
+		} catch (Exception e) {
+			log.warn("Unable to save symbol table snapshot of {}", uri, e);
+			return Mono.empty();
+		}
+		return Mono.<Void>fromRunnable(() -> write(uri, snapshot))
+			.subscribeOn(scheduler)
+			.onErrorResume(e -> {
+				log.warn("Unable to save symbol table snapshot of {}", uri, e);
+				return Mono.empty();
+			});
+	}
+
+	/**
+	 * Load a snapshot of a symbol table. Returns empty if there is no snapshot
+	 * for a document or it was created from a different content.
+	 *
+	 * @param uri the document uri
+	 * @param contentHash the document content hash
+	 * @return a mono of a symbol table
+	 */
+	public Mono<CompactSymbolTable> load(String uri, String contentHash) {
+		Assert.notNull(uri, "uri must be set");
+		Assert.notNull(contentHash, "contentHash must be set");
+		return Mono.fromCallable(() -> read(uri, contentHash))
+			.subscribeOn(scheduler)
+			.onErrorResume(e -> {
+				log.warn("Unable to load symbol table snapshot of {}", uri, e);
+				return Mono.empty();
+			});
+	}
+
+	/**
+	 * Remove a snapshot of a document.
+	 *
+	 * @param uri the document uri
+	 * @return a mono completing when a snapshot is removed
+	 */
+	public Mono<Void> remove(String uri) {
+		Assert.notNull(uri, "uri must be set");
+		return Mono.<Void>fromRunnable(() -> {
+			try {
+				Files.deleteIfExists(path(uri));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).subscribeOn(scheduler);
+	}
+
+	private static byte[] serialize(String uri, String contentHash, CompactSymbolTable table) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(uri);
+			out.writeUTF(contentHash);
+			table.writeTo(out);
+		}
+		return bytes.toByteArray();
+	}
+
+	private void write(String uri, byte[] snapshot) {
+		try {
+			Files.createDirectories(directory);
+			Path target = path(uri);
+			Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+			try {
+				Files.write(temp, snapshot);
+				try {
+					Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private CompactSymbolTable read(String uri, String contentHash) throws IOException {
+		byte[] snapshot;
+		try {
+			snapshot = Files.readAllBytes(path(uri));
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+		ByteArrayInputStream bytes = new ByteArrayInputStream(snapshot);
+		try (DataInputStream in = new DataInputStream(bytes)) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				log.debug("Ignoring snapshot of {} with unknown format", uri);
+				return null;
+			}
+			if (!uri.equals(in.readUTF()) || !contentHash.equals(in.readUTF())) {
+				log.debug("Ignoring stale snapshot of {}", uri);
+				return null;
+			}
+			return CompactSymbolTable.readFrom(in, new StringTable(), bytes.available());
+		}
+	}
+
+	private Path path(String uri) {
+		return directory.resolve(DigestUtils.md5DigestAsHex(uri.getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+	}
+}
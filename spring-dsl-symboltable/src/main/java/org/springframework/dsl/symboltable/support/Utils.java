@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.symboltable.Scope;
 import org.springframework.dsl.symboltable.Symbol;
 
@@ -101,6 +102,33 @@ public class Utils {
 		return joinScopeNames(scopes, separator);
 	}
 
+	/**
+	 * Return a qualified name of a symbol, names of scopes from root to a scope
+	 * of a symbol and a name of a symbol joined with a separator.
+	 */
+	public static String toQualifiedName(Symbol symbol, String separator) {
+		Scope scope = symbol.getScope();
+		if (scope == null) {
+			return symbol.getName();
+		}
+		return toQualifierString(scope, separator) + separator + symbol.getName();
+	}
+
+	/**
+	 * Return a key identifying a symbol within a document. Qualified names alone
+	 * are not unique as i.e. every local scope is named "local", thus a key is
+	 * a qualified name appended with a start of a declaration or with an identity
+	 * of a declaring scope if symbol doesn't have a range.
+	 */
+	public static String toSymbolKey(Symbol symbol) {
+		String name = toQualifiedName(symbol, ".");
+		Range range = symbol.getRange();
+		if (range != null) {
+			return name + "@" + range.getStart().getLine() + ":" + range.getStart().getCharacter();
+		}
+		return name + "@" + Integer.toHexString(System.identityHashCode(symbol.getScope()));
+	}
+
 	public static String toString(Scope s, int level) {
 		if (s == null)
 			return "";
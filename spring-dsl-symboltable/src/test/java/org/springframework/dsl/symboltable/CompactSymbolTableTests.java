@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.domain.SymbolKind;
+import org.springframework.dsl.symboltable.model.ClassSymbol;
+import org.springframework.dsl.symboltable.model.FieldSymbol;
+import org.springframework.dsl.symboltable.model.LocalScope;
+import org.springframework.dsl.symboltable.support.CompactSymbolTable;
+import org.springframework.dsl.symboltable.support.DefaultSymbolTable;
+import org.springframework.dsl.symboltable.support.DocumentSymbolTableVisitor;
+import org.springframework.dsl.symboltable.support.StringTable;
+
+public class CompactSymbolTableTests {
+
+	@Test
+	public void testSameAsDefaultTable() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 3, 1));
+		table.defineGlobal(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 2, 1, 8));
+		classA.define(fieldA);
+		LocalScope block = new LocalScope(classA);
+		block.setScopeRange(Range.from(2, 2, 2, 12));
+		classA.nest(block);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		fieldB.setRange(Range.from(2, 4, 2, 10));
+		block.define(fieldB);
+
+		CompactSymbolTable compact = new CompactSymbolTable();
+		int cA = compact.defineScopedSymbol(CompactSymbolTable.GLOBAL_SCOPE, "classA", SymbolKind.Class,
+				Range.from(0, 0, 3, 1), null);
+		compact.defineSymbol(cA, "fieldA", SymbolKind.String, Range.from(1, 2, 1, 8));
+		int b = compact.nestScope(cA, Range.from(2, 2, 2, 12));
+		compact.defineSymbol(b, "fieldB", SymbolKind.String, Range.from(2, 4, 2, 10));
+		assertThat(compact.size()).isEqualTo(5);
+
+		assertThat(names(compact.getAllSymbols())).containsExactlyElementsOf(names(table.getAllSymbols()));
+		assertThat(documentSymbols(compact)).isEqualTo(documentSymbols(table));
+
+		Scope scope = compact.getScope(b);
+		assertThat(scope.resolve("fieldB").getRange()).isEqualTo(Range.from(2, 4, 2, 10));
+		assertThat(scope.resolve("classA")).isEqualTo(compact.getSymbol(cA));
+		assertThat(scope.resolve("fieldC")).isNull();
+		assertThat(scope.getSymbol("fieldA")).isNull();
+		assertThat(scope.getEnclosingPathToRoot()).extracting(Scope::getName)
+				.containsExactly("local", "classA", "global");
+		assertThat(compact.getScope(cA).getNestedScopes()).containsExactly(scope);
+		assertThat(compact.getScope(cA).getSymbolNames()).containsExactly("fieldA");
+
+		SymbolTableIndex index = SymbolTableIndex.of(compact);
+		assertThat(index.getSymbolAt(Position.from(2, 5)).getName()).isEqualTo("fieldB");
+		assertThat(index.getScopeAt(Position.from(2, 5))).isEqualTo(scope);
+	}
+
+	@Test
+	public void testViewsDefinedIntoOtherTable() {
+		CompactSymbolTable compact = new CompactSymbolTable();
+		int cA = compact.defineScopedSymbol(CompactSymbolTable.GLOBAL_SCOPE, "classA", SymbolKind.Class,
+				Range.from(0, 0, 3, 1), null);
+		int fA = compact.defineSymbol(cA, "fieldA", SymbolKind.String, Range.from(1, 2, 1, 8));
+
+		LocalScope scope = new LocalScope(null);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		scope.define(fieldB);
+		Symbol fieldA = compact.getSymbol(fA);
+		scope.define(fieldA);
+		Symbol classA = compact.getSymbol(cA);
+		scope.define(classA);
+
+		assertThat(fieldA.getScope()).isSameAs(scope);
+		assertThat(fieldA.getInsertionOrderNumber()).isEqualTo(1);
+		assertThat(fieldA.getRange()).isEqualTo(Range.from(1, 2, 1, 8));
+		assertThat(scope.resolve("fieldA")).isSameAs(fieldA);
+		assertThat(((Scope) classA).getEnclosingScope()).isSameAs(scope);
+		assertThat(((Scope) classA).resolve("fieldA")).isEqualTo(compact.getSymbol(fA));
+		assertThat(((Scope) classA).resolve("fieldB")).isSameAs(fieldB);
+		assertThat(((Scope) classA).getEnclosingPathToRoot()).extracting(Scope::getName)
+				.containsExactly("classA", "local");
+
+		assertThat(compact.getSymbol(fA).getScope()).isEqualTo(compact.getSymbol(cA));
+		assertThat(compact.getSymbol(fA).getInsertionOrderNumber()).isEqualTo(0);
+		assertThat(compact.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void testSharedNamesAndGrowth() {
+		StringTable strings = new StringTable();
+		CompactSymbolTable table1 = new CompactSymbolTable(strings);
+		CompactSymbolTable table2 = new CompactSymbolTable(strings);
+		for (int i = 0; i < 100000; i++) {
+			table1.defineSymbol(CompactSymbolTable.GLOBAL_SCOPE, "symbol" + i, SymbolKind.Field,
+					Range.from(i, 0, i, 5));
+		}
+		table2.defineSymbol(CompactSymbolTable.GLOBAL_SCOPE, "symbol1", SymbolKind.Field, null);
+		assertThat(strings.size()).isEqualTo(100000);
+
+		Symbol symbol = table1.getGlobalScope().resolve("symbol99999");
+		assertThat(symbol.getInsertionOrderNumber()).isEqualTo(99999);
+		assertThat(symbol.getRange()).isEqualTo(Range.from(99999, 0, 99999, 5));
+		assertThat(table1.getGlobalScope().getNumberOfSymbols()).isEqualTo(100000);
+		assertThat(table2.getGlobalScope().resolve("symbol1").getRange()).isNull();
+		assertThat(table2.getGlobalScope().resolve("symbol2")).isNull();
+
+		assertThatThrownBy(() -> table2.defineSymbol(CompactSymbolTable.GLOBAL_SCOPE, "symbol1", null, null))
+				.isInstanceOf(SymbolTableException.class);
+	}
+
+	@Test
+	public void testSharedNamesConcurrently() throws Exception {
+		StringTable strings = new StringTable();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<CompactSymbolTable>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					CompactSymbolTable table = new CompactSymbolTable(strings);
+					for (int i = 0; i < 10000; i++) {
+						table.defineSymbol(CompactSymbolTable.GLOBAL_SCOPE, "symbol" + i, SymbolKind.Field, null);
+					}
+					return table;
+				}));
+			}
+			for (Future<CompactSymbolTable> future : futures) {
+				CompactSymbolTable table = future.get();
+				assertThat(table.getGlobalScope().getNumberOfSymbols()).isEqualTo(10000);
+				assertThat(table.getGlobalScope().resolve("symbol9999").getName()).isEqualTo("symbol9999");
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(strings.size()).isEqualTo(10000);
+		for (int i = 0; i < strings.size(); i++) {
+			assertThat(strings.indexOf(strings.get(i))).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void testReadCorrupted() throws Exception {
+		CompactSymbolTable table = new CompactSymbolTable();
+		int cA = table.defineScopedSymbol(CompactSymbolTable.GLOBAL_SCOPE, "classA", SymbolKind.Class, null, null);
+		table.nestScope(cA, null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		table.writeTo(new DataOutputStream(bytes));
+		byte[] data = bytes.toByteArray();
+		assertThat(read(data).size()).isEqualTo(3);
+
+		// string count larger than an input
+		byte[] corrupted = data.clone();
+		ByteBuffer.wrap(corrupted).putInt(0, Integer.MAX_VALUE);
+		assertThatThrownBy(() -> read(corrupted)).isInstanceOf(IOException.class);
+
+		// size larger than an input, after a count and "classA"
+		byte[] corrupted2 = data.clone();
+		ByteBuffer.wrap(corrupted2).putInt(4 + 2 + 6, 1000000);
+		assertThatThrownBy(() -> read(corrupted2)).isInstanceOf(IOException.class);
+
+		// symbol without a name
+		byte[] corrupted3 = data.clone();
+		ByteBuffer.wrap(corrupted3).putInt(4 + 2 + 6 + 4, -1);
+		assertThatThrownBy(() -> read(corrupted3)).isInstanceOf(IOException.class);
+	}
+
+	private static CompactSymbolTable read(byte[] data) throws IOException {
+		return CompactSymbolTable.readFrom(new DataInputStream(new ByteArrayInputStream(data)), new StringTable(),
+				data.length);
+	}
+
+	private static List<String> names(List<? extends Symbol> symbols) {
+		return symbols.stream().map(Symbol::getName).collect(Collectors.toList());
+	}
+
+	private static List<DocumentSymbol> documentSymbols(SymbolTable table) {
+		return table.visitSymbolTable(new DocumentSymbolTableVisitor()).getSymbolizeInfo().documentSymbols()
+				.collectList().block();
+	}
+}
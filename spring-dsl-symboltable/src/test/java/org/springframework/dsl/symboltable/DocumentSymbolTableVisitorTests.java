@@ -22,7 +22,9 @@ import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.Range;
 import org.springframework.dsl.domain.SymbolInformation;
+import org.springframework.dsl.service.symbol.SymbolizeInfo;
 import org.springframework.dsl.symboltable.model.ClassSymbol;
 import org.springframework.dsl.symboltable.model.FieldSymbol;
 import org.springframework.dsl.symboltable.model.LocalScope;
@@ -118,4 +120,64 @@ public class DocumentSymbolTableVisitorTests {
 				.collect(Collectors.toList());
 		assertThat(symbolInformations).hasSize(1);
 	}
+
+	@Test
+	public void testSameNamedSymbolsWithActiveQuery() {
+		PredefinedScope scope = new PredefinedScope();
+		LocalScope scopeA = new LocalScope(scope);
+		scope.nest(scopeA);
+		ClassSymbol classA1 = new ClassSymbol("classA");
+		scopeA.define(classA1);
+		classA1.define(new FieldSymbol("fieldA"));
+		LocalScope scopeB = new LocalScope(scope);
+		scope.nest(scopeB);
+		ClassSymbol classA2 = new ClassSymbol("classA");
+		scopeB.define(classA2);
+
+		// symbols equal by name must still be tracked separately
+		DocumentSymbolTableVisitor visitor = new DocumentSymbolTableVisitor();
+		visitor.setSymbolActiveQuery(symbol -> symbol != classA2);
+		scope.accept(visitor);
+
+		List<DocumentSymbol> documentSymbols = visitor.getSymbolizeInfo().documentSymbols().collectList().block();
+		assertThat(documentSymbols).hasSize(1);
+		assertThat(documentSymbols.get(0).getChildren()).hasSize(1);
+	}
+
+	@Test
+	public void testStreamWithPruning() {
+		PredefinedScope scope = new PredefinedScope();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 2, 1));
+		scope.define(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 2, 1, 8));
+		classA.define(fieldA);
+		ClassSymbol classB = new ClassSymbol("classB");
+		classB.setRange(Range.from(3, 0, 5, 1));
+		scope.define(classB);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		fieldB.setRange(Range.from(4, 2, 4, 8));
+		classB.define(fieldB);
+
+		DocumentSymbolTableVisitor visitor = new DocumentSymbolTableVisitor("uri");
+		scope.accept(visitor);
+		SymbolizeInfo streamed = new DocumentSymbolTableVisitor("uri").stream(scope);
+		assertThat(streamed.documentSymbols().collectList().block())
+				.isEqualTo(visitor.getSymbolizeInfo().documentSymbols().collectList().block());
+		assertThat(streamed.symbolInformations().collectList().block())
+				.isEqualTo(visitor.getSymbolizeInfo().symbolInformations().collectList().block());
+
+		DocumentSymbolTableVisitor limited = new DocumentSymbolTableVisitor("uri");
+		limited.setRange(Range.from(4, 0, 4, 3));
+		List<SymbolInformation> symbolInformations = limited.stream(scope).symbolInformations().collectList()
+				.block();
+		assertThat(symbolInformations).extracting(SymbolInformation::getName).containsExactly("fieldB", "classB");
+
+		limited.setRange(null);
+		limited.setScopeQuery(s -> s != classA);
+		assertThat(limited.stream(scope).documentSymbols().map(DocumentSymbol::getName).collectList().block())
+				.containsExactly("classB");
+		assertThat(limited.stream(scope).documentSymbols().take(1).collectList().block()).hasSize(1);
+	}
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.symboltable.model.ClassSymbol;
+import org.springframework.dsl.symboltable.model.FieldSymbol;
+import org.springframework.dsl.symboltable.model.LocalScope;
+import org.springframework.dsl.symboltable.support.DefaultSymbolTable;
+
+public class SymbolTableIndexTests {
+
+	@Test
+	public void testNestedQueries() {
+		// 0: classA {
+		// 1:   fieldA
+		// 2:   { fieldB }
+		// 3: }
+		// 4: classB { fieldC }
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 3, 1));
+		table.defineGlobal(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 2, 1, 8));
+		classA.define(fieldA);
+		LocalScope block = new LocalScope(classA);
+		block.setScopeRange(Range.from(2, 2, 2, 12));
+		classA.nest(block);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		fieldB.setRange(Range.from(2, 4, 2, 10));
+		block.define(fieldB);
+		ClassSymbol classB = new ClassSymbol("classB");
+		classB.setRange(Range.from(4, 0, 4, 17));
+		table.defineGlobal(classB);
+		FieldSymbol fieldC = new FieldSymbol("fieldC");
+		fieldC.setRange(Range.from(4, 9, 4, 15));
+		classB.define(fieldC);
+
+		SymbolTableIndex index = SymbolTableIndex.of(table);
+		assertThat(index.getScopeCount()).isEqualTo(3);
+		assertThat(index.getSymbolCount()).isEqualTo(5);
+
+		assertThat(index.getScopeAt(Position.from(1, 4))).isSameAs(classA);
+		assertThat(index.getScopeAt(Position.from(2, 5))).isSameAs(block);
+		assertThat(index.getScopeAt(Position.from(4, 3))).isSameAs(classB);
+		assertThat(index.getScopeAt(Position.from(5, 0))).isNull();
+
+		assertThat(index.getEnclosingScopes(Position.from(2, 5))).containsExactly(block, classA);
+		assertThat(index.getEnclosingScopes(Position.from(5, 0))).isEmpty();
+
+		assertThat(index.getSymbolAt(Position.from(2, 5))).isSameAs(fieldB);
+		assertThat(index.getSymbolAt(Position.from(2, 11))).isSameAs(classA);
+		assertThat(index.getSymbolAt(Position.from(4, 10))).isSameAs(fieldC);
+
+		assertThat(index.getSymbols(Range.from(1, 0, 2, 3))).containsExactly(classA, fieldA);
+		assertThat(index.getSymbols(Range.from(3, 5, 4, 1))).containsExactly(classB);
+		assertThat(index.getSymbols(Range.from(6, 0, 7, 0))).isEmpty();
+	}
+
+	@Test
+	public void testMatchesLinearScan() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		List<Symbol> all = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ClassSymbol clazz = new ClassSymbol("class" + i);
+			clazz.setRange(Range.from(i * 10, 0, i * 10 + (i % 7), 20));
+			table.defineGlobal(clazz);
+			all.add(clazz);
+			for (int j = 0; j < 3; j++) {
+				FieldSymbol field = new FieldSymbol("field" + j);
+				field.setRange(Range.from(i * 10 + j, 2, i * 10 + j, 8));
+				clazz.define(field);
+				all.add(field);
+			}
+		}
+		SymbolTableIndex index = SymbolTableIndex.of(table);
+
+		for (int line = 0; line < 510; line += 3) {
+			Range range = Range.from(line, 5, line + 4, 1);
+			List<Symbol> expected = all.stream()
+					.filter(s -> compare(s.getRange().getStart(), range.getEnd()) <= 0
+							&& compare(s.getRange().getEnd(), range.getStart()) >= 0)
+					.collect(Collectors.toList());
+			assertThat(index.getSymbols(range)).containsExactlyInAnyOrderElementsOf(expected);
+		}
+	}
+
+	private static int compare(Position left, Position right) {
+		int c = Integer.compare(left.getLine(), right.getLine());
+		return c != 0 ? c : Integer.compare(left.getCharacter(), right.getCharacter());
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.dsl.symboltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dsl.domain.DocumentSymbol;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.symboltable.model.ClassSymbol;
+import org.springframework.dsl.symboltable.model.FieldSymbol;
+import org.springframework.dsl.symboltable.model.LocalScope;
+import org.springframework.dsl.symboltable.support.CompactSymbolTable;
+import org.springframework.dsl.symboltable.support.DefaultSymbolTable;
+import org.springframework.dsl.symboltable.support.DocumentSymbolTableVisitor;
+import org.springframework.dsl.symboltable.support.SymbolTableSnapshotStore;
+
+import reactor.core.publisher.Mono;
+
+public class SymbolTableSnapshotStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testSaveAndLoad() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 3, 1));
+		table.defineGlobal(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 2, 1, 8));
+		classA.define(fieldA);
+		LocalScope block = new LocalScope(classA);
+		block.setScopeRange(Range.from(2, 2, 2, 12));
+		classA.nest(block);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		block.define(fieldB);
+
+		SymbolTableSnapshotStore store = new SymbolTableSnapshotStore(directory.resolve("cache"));
+		String hash = SymbolTableSnapshotStore.contentHash("content1");
+		store.save("uri1", hash, table).block();
+
+		CompactSymbolTable loaded = store.load("uri1", hash).block();
+		assertThat(loaded).isNotNull();
+		assertThat(loaded.size()).isEqualTo(5);
+		assertThat(documentSymbols(loaded)).isEqualTo(documentSymbols(table));
+		Scope loadedBlock = ((Scope) loaded.getGlobalScope().resolve("classA")).getNestedScopes().get(0);
+		assertThat(loadedBlock.getScopeRange()).isEqualTo(Range.from(2, 2, 2, 12));
+		assertThat(loadedBlock.resolve("fieldA").getRange()).isEqualTo(Range.from(1, 2, 1, 8));
+		assertThat(loadedBlock.resolve("fieldB").getRange()).isNull();
+
+		assertThat(store.load("uri1", SymbolTableSnapshotStore.contentHash("content2")).block()).isNull();
+		assertThat(store.load("uri2", hash).block()).isNull();
+
+		store.remove("uri1").block();
+		assertThat(store.load("uri1", hash).block()).isNull();
+	}
+
+	@Test
+	public void testCorruptedSnapshot() throws Exception {
+		SymbolTableSnapshotStore store = new SymbolTableSnapshotStore(directory);
+		String hash = SymbolTableSnapshotStore.contentHash("content");
+		store.save("uri", hash, new DefaultSymbolTable()).block();
+		try (Stream<Path> files = Files.list(directory)) {
+			Path snapshot = files.findFirst().get();
+			byte[] bytes = Files.readAllBytes(snapshot);
+			Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 2));
+		}
+		assertThat(store.load("uri", hash).block()).isNull();
+	}
+
+	@Test
+	public void testSaveCopiesTableWhenCalled() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		table.defineGlobal(new ClassSymbol("classA"));
+		SymbolTableSnapshotStore store = new SymbolTableSnapshotStore(directory);
+		String hash = SymbolTableSnapshotStore.contentHash("content");
+		Mono<Void> save = store.save("uri", hash, table);
+		table.defineGlobal(new ClassSymbol("classB"));
+		save.block();
+
+		CompactSymbolTable loaded = store.load("uri", hash).block();
+		assertThat(loaded.getGlobalScope().getSymbolNames()).containsExactly("classA");
+	}
+
+	private static List<DocumentSymbol> documentSymbols(SymbolTable table) {
+		return table.visitSymbolTable(new DocumentSymbolTableVisitor()).getSymbolizeInfo().documentSymbols()
+				.collectList().block();
+	}
+}
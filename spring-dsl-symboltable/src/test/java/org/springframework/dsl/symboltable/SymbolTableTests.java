@@ -17,12 +17,19 @@ package org.springframework.dsl.symboltable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
+import org.springframework.dsl.domain.Position;
+import org.springframework.dsl.domain.Range;
+import org.springframework.dsl.service.symbol.SymbolOccurrence;
 import org.springframework.dsl.symboltable.model.ClassSymbol;
 import org.springframework.dsl.symboltable.model.FieldSymbol;
+import org.springframework.dsl.symboltable.model.LocalScope;
 import org.springframework.dsl.symboltable.model.NamedModifier;
 import org.springframework.dsl.symboltable.model.PrimitiveType;
 import org.springframework.dsl.symboltable.model.VisibilityModifier;
@@ -132,6 +139,172 @@ public class SymbolTableTests {
 		assertThat(visitor.symbolsEnter).hasSize(1);
 	}
 
+	@Test
+	public void testWalkWithEarlyTermination() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		table.defineGlobal(classA);
+		classA.define(new FieldSymbol("fieldA"));
+		LocalScope local = new LocalScope(classA);
+		classA.nest(local);
+		local.define(new FieldSymbol("fieldB"));
+		ClassSymbol classB = new ClassSymbol("classB");
+		table.defineGlobal(classB);
+		classB.define(new FieldSymbol("fieldC"));
+
+		List<String> names = new ArrayList<>();
+		assertThat(table.walkSymbols(s -> names.add(s.getName()))).isTrue();
+		assertThat(names).containsExactly("classA", "classB", "fieldA", "fieldB", "fieldC");
+		assertThat(names).containsExactlyElementsOf(
+				table.getAllSymbols().stream().map(s -> s.getName()).collect(Collectors.toList()));
+
+		names.clear();
+		assertThat(table.walkSymbols(s -> names.add(s.getName()) && !s.getName().equals("fieldA"))).isFalse();
+		assertThat(names).containsExactly("classA", "classB", "fieldA");
+
+		List<Scope> scopes = new ArrayList<>();
+		assertThat(classA.walkScopes(s -> scopes.add(s))).isTrue();
+		assertThat(scopes).containsExactly(classA, local);
+		assertThat(classA.getNestedScopedSymbols()).isEmpty();
+		assertThat(classA.getNestedScopes()).containsExactly(local);
+	}
+
+	@Test
+	public void testOccurrences() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 0, 6));
+		table.defineGlobal(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 0, 1, 6));
+		classA.define(fieldA);
+		table.addReference(classA, "fieldA", Range.from(2, 0, 2, 6));
+		table.addReference(classA, "classA", Range.from(3, 0, 3, 6));
+		table.addReference(classA, "missing", Range.from(4, 0, 4, 7));
+
+		List<SymbolOccurrence> occurrences = table.getOccurrences();
+		assertThat(occurrences).containsExactly(
+				SymbolOccurrence.declaration("predefined.global.classA@0:0", Range.from(0, 0, 0, 6)),
+				SymbolOccurrence.declaration("predefined.global.classA.fieldA@1:0", Range.from(1, 0, 1, 6)),
+				SymbolOccurrence.reference("predefined.global.classA.fieldA@1:0", Range.from(2, 0, 2, 6)),
+				SymbolOccurrence.reference("predefined.global.classA@0:0", Range.from(3, 0, 3, 6)));
+	}
+
+	@Test
+	public void testOccurrencesInSiblingLocalScopes() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 3, 1));
+		table.defineGlobal(classA);
+		LocalScope local1 = new LocalScope(classA);
+		classA.nest(local1);
+		FieldSymbol field1 = new FieldSymbol("field");
+		field1.setRange(Range.from(1, 0, 1, 5));
+		local1.define(field1);
+		LocalScope local2 = new LocalScope(classA);
+		classA.nest(local2);
+		FieldSymbol field2 = new FieldSymbol("field");
+		field2.setRange(Range.from(2, 0, 2, 5));
+		local2.define(field2);
+		table.addReference(local1, "field", Range.from(1, 8, 1, 13));
+		table.addReference(local2, "field", Range.from(2, 8, 2, 13));
+
+		Map<String, List<Range>> ranges = table.getOccurrences().stream()
+			.filter(o -> o.getRange().getStart().getLine() > 0)
+			.collect(Collectors.groupingBy(SymbolOccurrence::getKey,
+					Collectors.mapping(SymbolOccurrence::getRange, Collectors.toList())));
+		assertThat(ranges).hasSize(2);
+		assertThat(ranges.values()).containsExactlyInAnyOrder(
+				Arrays.asList(Range.from(1, 0, 1, 5), Range.from(1, 8, 1, 13)),
+				Arrays.asList(Range.from(2, 0, 2, 5), Range.from(2, 8, 2, 13)));
+	}
+
+	@Test
+	public void testReplaceScope() {
+		// 0: classA {
+		// 1:   fieldA
+		// 2: }
+		// 3: classB { fieldB }
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 2, 1));
+		table.defineGlobal(classA);
+		FieldSymbol fieldA = new FieldSymbol("fieldA");
+		fieldA.setRange(Range.from(1, 2, 1, 8));
+		classA.define(fieldA);
+		table.addReference(classA, "fieldA", Range.from(1, 2, 1, 8));
+		ClassSymbol classB = new ClassSymbol("classB");
+		classB.setRange(Range.from(3, 0, 3, 17));
+		table.defineGlobal(classB);
+		FieldSymbol fieldB = new FieldSymbol("fieldB");
+		fieldB.setRange(Range.from(3, 9, 3, 15));
+		classB.define(fieldB);
+
+		// fieldA replaced with two lines fieldX and fieldY
+		Range edited = Range.from(1, 2, 1, 8);
+		assertThat(table.findScope(edited)).isSameAs(classA);
+		table.replaceScope(table.findScope(edited), edited, Position.from(2, 8), scope -> {
+			FieldSymbol fieldX = new FieldSymbol("fieldX");
+			fieldX.setRange(Range.from(1, 2, 1, 8));
+			scope.define(fieldX);
+			FieldSymbol fieldY = new FieldSymbol("fieldY");
+			fieldY.setRange(Range.from(2, 2, 2, 8));
+			scope.define(fieldY);
+		});
+
+		assertThat(table.getGlobalScope().getSymbols()).extracting(Symbol::getName).containsExactly("classA", "classB");
+		assertThat(classA.getSymbols()).extracting(Symbol::getName).containsExactly("fieldX", "fieldY");
+		assertThat(classA.resolveField("fieldA")).isNull();
+		assertThat(classA.getRange()).isEqualTo(Range.from(0, 0, 3, 1));
+		assertThat(classB.getRange()).isEqualTo(Range.from(4, 0, 4, 17));
+		assertThat(fieldB.getRange()).isEqualTo(Range.from(4, 9, 4, 15));
+		assertThat(table.getOccurrences()).noneMatch(o -> !o.isDeclaration());
+
+		// edit on a same line only shifts characters after it
+		edited = Range.from(4, 9, 4, 15);
+		assertThat(table.findScope(edited)).isSameAs(classB);
+		table.replaceScope(classB, edited, Position.from(4, 11), scope -> {
+			FieldSymbol fieldZ = new FieldSymbol("z");
+			fieldZ.setRange(Range.from(4, 9, 4, 11));
+			scope.define(fieldZ);
+		});
+		assertThat(classB.getRange()).isEqualTo(Range.from(4, 0, 4, 13));
+		assertThat(classA.getRange()).isEqualTo(Range.from(0, 0, 3, 1));
+		assertThat(table.findScope(Range.from(0, 0, 4, 1))).isSameAs(table.getGlobalScope());
+	}
+
+	@Test
+	public void testResolveCache() {
+		DefaultSymbolTable table = new DefaultSymbolTable();
+		table.setResolveCache(true);
+		ClassSymbol classA = new ClassSymbol("classA");
+		classA.setRange(Range.from(0, 0, 0, 10));
+		table.defineGlobal(classA);
+		// same names in different scopes must not share cached resolutions
+		LocalScope local1 = new LocalScope(classA);
+		classA.nest(local1);
+		ClassSymbol inner1 = new ClassSymbol("inner");
+		local1.define(inner1);
+		FieldSymbol field1 = new FieldSymbol("field");
+		inner1.define(field1);
+		LocalScope local2 = new LocalScope(classA);
+		classA.nest(local2);
+		ClassSymbol inner2 = new ClassSymbol("inner");
+		local2.define(inner2);
+
+		assertThat(table.resolve(inner1, "field")).isSameAs(field1);
+		assertThat(table.resolve(inner2, "field")).isNull();
+		assertThat(table.resolve(inner2, "classA")).isSameAs(classA);
+		assertThat(table.resolve(local1, "inner")).isSameAs(inner1);
+		assertThat(table.resolve(local2, "inner")).isSameAs(inner2);
+
+		table.replaceScope(classA, Range.from(0, 5, 0, 6), Position.from(0, 6), scope -> {
+			scope.define(new FieldSymbol("field"));
+		});
+		assertThat(table.resolve(classA, "field")).isSameAs(classA.resolveField("field"));
+		assertThat(table.resolve(inner1, "field")).isSameAs(field1);
+	}
+
 	private static class StatemachineSymbolTable extends AbstractSymbolTable {
 
 		public static final ClassSymbol STATE = new ClassSymbol("state");
@@ -16,18 +16,17 @@
 package org.springframework.dsl.lsp.server.websocket.reactive;
 
 import java.nio.charset.Charset;
-import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.DecodedJsonRpcMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
 import org.springframework.dsl.lsp.LspSystemConstants;
@@ -38,6 +37,7 @@ import org.springframework.web.reactive.socket.WebSocketHandler;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import reactor.core.publisher.Flux;
@@ -54,8 +54,7 @@ public class LspWebSocketHandler implements WebSocketHandler {
 	private static final Logger log = LoggerFactory.getLogger(LspWebSocketHandler.class);
 	private final RpcHandler rpcHandler;
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final JsonRpcMessageDecoder decoder;
 
 	/**
 	 * Instantiates a new lsp web socket handler.
@@ -68,20 +67,7 @@ public class LspWebSocketHandler implements WebSocketHandler {
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.decoder = new JsonRpcMessageDecoder(objectMapper);
 	}
 
 	@Override
@@ -90,16 +76,18 @@ public class LspWebSocketHandler implements WebSocketHandler {
 		JsonRpcSessionCustomizer customizer = s -> s.getAttributes()
 				.put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_CLIENT, lspClient);
 
-		// can read payload only once so need to share it
-		Flux<String> shared = session
+		// can read payload only once so need to share it, every message is
+		// decoded once for both responses and requests
+		Flux<DecodedJsonRpcMessage> shared = session
 				.receive()
 				.map(WebSocketMessage::getPayloadAsText)
+				.map(decoder::decode)
 				.share();
 
 		// push stuff to lsp client
 		shared
-			.map(responseDecoder)
-			.filter(response -> response.getResult() != null || response.getError() != null)
+			.filter(DecodedJsonRpcMessage::isResponse)
+			.map(DecodedJsonRpcMessage::getResponse)
 			.subscribe(bb -> {
 					lspClient.getResponses().onNext(
 							LspClientResponse.create(lspClient.getJsonRpcExtractorStrategies()).response(bb).build());
@@ -107,9 +95,9 @@ public class LspWebSocketHandler implements WebSocketHandler {
 
 		// return normal rpc handling
 		return shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
-			.doOnNext(request -> {
+			.filter(DecodedJsonRpcMessage::isRequest)
+			.doOnNext(message -> {
+				JsonRpcRequest request = message.getRequest();
 
 				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
 
@@ -130,7 +118,12 @@ public class LspWebSocketHandler implements WebSocketHandler {
 
 					@Override
 					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
+						return Mono.justOrEmpty(request.getParams()).map(Object::toString);
+					}
+
+					@Override
+					public Mono<JsonNode> getParamsNode() {
+						return Mono.justOrEmpty(message.getParams());
 					}
 
 					@Override
@@ -18,7 +18,6 @@ package org.springframework.dsl.lsp.server.websocket.servlet;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -30,7 +29,8 @@ import org.springframework.dsl.DslException;
 import org.springframework.dsl.jsonrpc.JsonRpcInputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcOutputMessage;
 import org.springframework.dsl.jsonrpc.JsonRpcRequest;
-import org.springframework.dsl.jsonrpc.JsonRpcResponse;
+import org.springframework.dsl.jsonrpc.codec.DecodedJsonRpcMessage;
+import org.springframework.dsl.jsonrpc.codec.JsonRpcMessageDecoder;
 import org.springframework.dsl.jsonrpc.session.JsonRpcSession.JsonRpcSessionCustomizer;
 import org.springframework.dsl.jsonrpc.support.AbstractJsonRpcOutputMessage;
 import org.springframework.dsl.lsp.LspSystemConstants;
@@ -41,6 +41,7 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import reactor.core.publisher.Flux;
@@ -57,8 +58,7 @@ public class LspServletWebSocketHandler extends TextWebSocketHandler {
 	private static final Logger log = LoggerFactory.getLogger(LspServletWebSocketHandler.class);
 	private final RpcHandler rpcHandler;
 	private final ObjectMapper objectMapper;
-	private final Function<String, JsonRpcRequest> requestDecoder;
-	private final Function<String, JsonRpcResponse> responseDecoder;
+	private final JsonRpcMessageDecoder decoder;
 	private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
 	public LspServletWebSocketHandler(RpcHandler rpcHandler, ObjectMapper objectMapper) {
@@ -66,20 +66,7 @@ public class LspServletWebSocketHandler extends TextWebSocketHandler {
 		Assert.notNull(objectMapper, "ObjectMapper must be set");
 		this.rpcHandler = rpcHandler;
 		this.objectMapper = objectMapper;
-		this.requestDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcRequest.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc request", e);
-			}
-		};
-		this.responseDecoder = s -> {
-			try {
-				return objectMapper.readValue(s, JsonRpcResponse.class);
-			} catch (Exception e) {
-				throw new DslException("Unable to convert json to rpc response", e);
-			}
-		};
+		this.decoder = new JsonRpcMessageDecoder(objectMapper);
 	}
 
 	@Override
@@ -91,20 +78,20 @@ public class LspServletWebSocketHandler extends TextWebSocketHandler {
 				.put(LspSystemConstants.SESSION_ATTRIBUTE_LSP_CLIENT, lspClient);
 
 
-		Flux<String> shared = Flux.just(message.getPayload()).share();
+		Flux<DecodedJsonRpcMessage> shared = Flux.just(decoder.decode(message.getPayload())).share();
 
 		shared
-			.map(responseDecoder)
-			.filter(response -> response.getResult() != null || response.getError() != null)
+			.filter(DecodedJsonRpcMessage::isResponse)
+			.map(DecodedJsonRpcMessage::getResponse)
 			.subscribe(bb -> {
 				lspClient.getResponses().onNext(
 						LspClientResponse.create(lspClient.getJsonRpcExtractorStrategies()).response(bb).build());
 			});
 
 		shared
-			.map(requestDecoder)
-			.filter(request -> request.getMethod() != null)
-			.doOnNext(request -> {
+			.filter(DecodedJsonRpcMessage::isRequest)
+			.doOnNext(decoded -> {
+				JsonRpcRequest request = decoded.getRequest();
 
 				JsonRpcInputMessage inputMessage = new JsonRpcInputMessage() {
 
@@ -125,7 +112,12 @@ public class LspServletWebSocketHandler extends TextWebSocketHandler {
 
 					@Override
 					public Mono<String> getParams() {
-						return Mono.justOrEmpty(request.getParams().toString());
+						return Mono.justOrEmpty(request.getParams()).map(Object::toString);
+					}
+
+					@Override
+					public Mono<JsonNode> getParamsNode() {
+						return Mono.justOrEmpty(decoded.getParams());
 					}
 
 					@Override